@@ -0,0 +1,16 @@
+-- wrk script: random scans spread over barcode values, skus and item codes of the bench products.
+local token = os.getenv("TOKEN")
+local products = tonumber(os.getenv("PRODUCTS") or "1000000")
+
+request = function()
+    local g = math.random(1, products)
+    local code
+    if g % 3 == 0 then
+        code = "SKU-" .. g
+    elseif g % 3 == 1 then
+        code = string.format("ITEM-%08d", g)
+    else
+        code = string.format("2%012d", g)
+    end
+    return wrk.format("GET", "/api/products/by-code/" .. code, { ["Authorization"] = "Bearer " .. token })
+end
@@ -0,0 +1,16 @@
+#!/usr/bin/env sh
+# Measures scan lookups/s of GET /api/products/by-code/{code} against one running node (target: > 20k/s).
+# Usage: TOKEN=<jwt> bench/product-by-code/run.sh [base-url] [connections] [seconds]
+# Needs wrk, and a database seeded with bench/product-search/seed.sql and bench/product-by-code/seed.sql.
+set -e
+
+BASE_URL=${1:-http://localhost:8080}
+CONNECTIONS=${2:-64}
+SECONDS_PER_RUN=${3:-60}
+DIR=$(cd "$(dirname "$0")" && pwd)
+: "${TOKEN:?TOKEN (a bearer token for a BILLER or ADMIN user) is required}"
+
+# Warm-up run so the JIT and connection pool are settled before measuring
+wrk -t4 -c"$CONNECTIONS" -d10s -s "$DIR/by-code.lua" "$BASE_URL" > /dev/null
+wrk -t4 -c"$CONNECTIONS" -d"${SECONDS_PER_RUN}s" --latency -s "$DIR/by-code.lua" "$BASE_URL" | tee /dev/stderr \
+    | awk '/Requests\/sec/ { printf "lookups/s=%d target=20000 %s\n", $2, ($2 >= 20000 ? "PASS" : "FAIL") }'
@@ -0,0 +1,7 @@
+-- Gives the products seeded by bench/product-search/seed.sql a barcode value derived from their sku,
+-- so by-code.lua can scan barcodes, skus and item codes of the same rows:
+--   psql -d pos_bench -f bench/product-by-code/seed.sql
+
+UPDATE products
+SET barcode_value = '2' || lpad(substr(sku, 5), 12, '0')
+WHERE slug LIKE 'bench-product-%';
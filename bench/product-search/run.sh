@@ -0,0 +1,23 @@
+#!/usr/bin/env sh
+# Compares p50/p99 latency of the current LIKE search against the trigram search mode.
+# Usage: bench/product-search/run.sh <database> [clients] [seconds]
+set -e
+
+DB=${1:?database name required}
+CLIENTS=${2:-8}
+SECONDS_PER_RUN=${3:-60}
+DIR=$(cd "$(dirname "$0")" && pwd)
+WORK=$(mktemp -d)
+
+for script in contains trigram; do
+    (cd "$WORK" && pgbench -n -c "$CLIENTS" -j "$CLIENTS" -T "$SECONDS_PER_RUN" \
+        -l --log-prefix="$script" -f "$DIR/$script.pgbench" "$DB" > /dev/null)
+    # Column 3 of the pgbench transaction log is the latency in microseconds
+    cat "$WORK"/"$script".* | awk '{ print $3 }' | sort -n > "$WORK/$script-latency.txt"
+    COUNT=$(wc -l < "$WORK/$script-latency.txt")
+    P50=$(awk -v n="$COUNT" 'NR == int(n * 0.50) + 1 { print $1 / 1000; exit }' "$WORK/$script-latency.txt")
+    P99=$(awk -v n="$COUNT" 'NR == int(n * 0.99) + 1 { print $1 / 1000; exit }' "$WORK/$script-latency.txt")
+    echo "$script: transactions=$COUNT p50=${P50}ms p99=${P99}ms"
+done
+
+rm -rf "$WORK"
@@ -0,0 +1,21 @@
+-- Seeds 1,000,000 synthetic products for the search benchmark.
+-- Run against a scratch database that already has update-products-schema.sql applied:
+--   psql -d pos_bench -f bench/product-search/seed.sql
+
+INSERT INTO products (sku, name, slug, price, quantity, qty_alert, status, product_type, item_code, created_at, updated_at)
+SELECT 'SKU-' || g,
+       (ARRAY['Milk','Bread','Coffee','Rice','Sugar','Shampoo','Soap','Noodle','Juice','Butter'])[1 + g % 10]
+           || ' ' || (ARRAY['Premium','Classic','Family','Mini','Organic','Fresh','Light'])[1 + g % 7]
+           || ' ' || (g % 1000) || 'g',
+       'bench-product-' || g,
+       (1 + g % 500)::numeric(10, 2),
+       g % 200,
+       10,
+       CASE WHEN g % 20 = 0 THEN 'inactive' ELSE 'active' END,
+       'single',
+       'ITEM-' || lpad(g::text, 8, '0'),
+       now() - (g || ' seconds')::interval,
+       now() - (g || ' seconds')::interval
+FROM generate_series(1, 1000000) AS g;
+
+ANALYZE products;
@@ -4,19 +4,26 @@ import com.example.pos.dto.CreateCustomerRequest;
 import com.example.pos.dto.CustomerDTO;
 import com.example.pos.dto.CustomerListResponse;
 import com.example.pos.service.CustomerService;
+import com.example.pos.util.ConditionalGet;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.List;
 
 @RestController
 @RequestMapping("/api/customers")
 @RequiredArgsConstructor
 public class CustomerController {
     
+    private static final List<String> VERSION_TABLES = List.of("users");
+
     private final CustomerService customerService;
+    private final ConditionalGet conditionalGet;
     
     /**
      * Get list of customers with pagination, search, and filtering
@@ -28,6 +35,7 @@ public class CustomerController {
      * @param status Filter by status (optional)
      * @param sortBy Sort field (default: createdAt)
      * @param sortDir Sort direction: asc or desc (default: desc)
+     * @param includeTotal Totals mode: exact, false (skip the count query) or estimate (default: exact)
      * @return CustomerListResponse with pagination info
      */
     @GetMapping
@@ -38,10 +46,12 @@ public class CustomerController {
             @RequestParam(required = false) String search,
             @RequestParam(required = false) String status,
             @RequestParam(defaultValue = "createdAt") String sortBy,
-            @RequestParam(defaultValue = "desc") String sortDir
+            @RequestParam(defaultValue = "desc") String sortDir,
+            @RequestParam(defaultValue = "exact") String includeTotal,
+            WebRequest webRequest
     ) {
-        CustomerListResponse response = customerService.getCustomers(page, size, search, status, sortBy, sortDir);
-        return ResponseEntity.ok(response);
+        return conditionalGet.respond(webRequest, VERSION_TABLES,
+                () -> customerService.getCustomers(page, size, search, status, sortBy, sortDir, includeTotal));
     }
 
     @PostMapping
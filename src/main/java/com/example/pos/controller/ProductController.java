@@ -1,25 +1,73 @@
 package com.example.pos.controller;
 
+import com.example.pos.dto.BulkProductResponse;
+import com.example.pos.dto.BulkUpdateResponse;
 import com.example.pos.dto.CreateProductRequest;
+import com.example.pos.dto.ProductAdjustmentRequest;
 import com.example.pos.dto.ProductDTO;
+import com.example.pos.dto.ProductFacetsResponse;
+import com.example.pos.dto.ProductImportJobDTO;
+import com.example.pos.dto.ProductImportReport;
 import com.example.pos.dto.ProductListResponse;
+import com.example.pos.dto.ProductStockResponse;
+import com.example.pos.dto.ProductSuggestion;
 import com.example.pos.dto.UpdateProductRequest;
 import com.example.pos.dto.MessageResponse;
+import com.example.pos.repository.ProductExpiryRepository;
+import com.example.pos.repository.ProductFilter;
+import com.example.pos.service.LowStockAlerts;
+import com.example.pos.service.ProductBulkService;
+import com.example.pos.service.ProductExpiryService;
+import com.example.pos.service.ProductExportService;
+import com.example.pos.service.ProductImportJobService;
+import com.example.pos.service.ProductImportService;
 import com.example.pos.service.ProductService;
+import com.example.pos.service.StockReservations;
+import com.example.pos.service.StockService;
+import com.example.pos.util.ConditionalGet;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/products")
 @RequiredArgsConstructor
 public class ProductController {
 
+    // Tables the product DTOs are built from; any write to them bumps the list/detail validators, as does
+    // any stock reservation change (availableToSell)
+    private static final List<String> VERSION_TABLES = List.of(
+            "products", "categories", "brands", "units", "stores", "warehouses", "users"
+    );
+
     private final ProductService productService;
+    private final ProductExportService productExportService;
+    private final ProductImportService productImportService;
+    private final ProductImportJobService productImportJobService;
+    private final ProductBulkService productBulkService;
+    private final ProductExpiryService productExpiryService;
+    private final LowStockAlerts lowStockAlerts;
+    private final StockReservations stockReservations;
+    private final StockService stockService;
+    private final ConditionalGet conditionalGet;
 
     @GetMapping
     @PreAuthorize("hasAnyRole('ADMIN','BILLER','STORE_OWNER')")
@@ -27,6 +75,7 @@ public class ProductController {
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
             @RequestParam(required = false) String search,
+            @RequestParam(defaultValue = "contains") String searchMode,
             @RequestParam(required = false) String status,
             @RequestParam(required = false) Integer categoryId,
             @RequestParam(required = false) Integer brandId,
@@ -37,13 +86,16 @@ public class ProductController {
             @RequestParam(required = false) String productType,
             @RequestParam(required = false) String sellingType,
             @RequestParam(defaultValue = "createdAt") String sortBy,
-            @RequestParam(defaultValue = "desc") String sortDir
+            @RequestParam(defaultValue = "desc") String sortDir,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "exact") String includeTotal,
+            WebRequest webRequest
     ) {
-        ProductListResponse response = productService.getProducts(
-                page, size, search, status, categoryId, brandId, unitId, subCategoryId,
-                storeId, warehouseId, productType, sellingType, sortBy, sortDir
-        );
-        return ResponseEntity.ok(response);
+        return conditionalGet.respond(webRequest, VERSION_TABLES, stockReservations.lastChanged(),
+                () -> productService.getProducts(
+                        page, size, search, searchMode, status, categoryId, brandId, unitId, subCategoryId,
+                        storeId, warehouseId, productType, sellingType, sortBy, sortDir, cursor, includeTotal
+                ));
     }
 
     // Alias endpoint cho màn Manage Stock
@@ -53,26 +105,100 @@ public class ProductController {
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
             @RequestParam(required = false) String search,
+            @RequestParam(defaultValue = "contains") String searchMode,
             @RequestParam(required = false) Integer storeId,
             @RequestParam(required = false) Integer warehouseId,
             @RequestParam(required = false) Integer categoryId,
             @RequestParam(required = false) Integer brandId,
             @RequestParam(required = false) Integer unitId,
             @RequestParam(defaultValue = "createdAt") String sortBy,
-            @RequestParam(defaultValue = "desc") String sortDir
+            @RequestParam(defaultValue = "desc") String sortDir,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "exact") String includeTotal,
+            WebRequest webRequest
+    ) {
+        return conditionalGet.respond(webRequest, VERSION_TABLES, stockReservations.lastChanged(),
+                () -> productService.getProducts(
+                        page, size, search, searchMode, null, categoryId, brandId, unitId, null,
+                        storeId, warehouseId, null, null, sortBy, sortDir, cursor, includeTotal
+                ));
+    }
+
+    // Full catalog export for accounting/ERP, streamed row by row; same filters as GET /api/products
+    @GetMapping("/export")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<StreamingResponseBody> exportProducts(
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestParam(required = false) String search,
+            @RequestParam(defaultValue = "contains") String searchMode,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) Integer categoryId,
+            @RequestParam(required = false) Integer brandId,
+            @RequestParam(required = false) Integer unitId,
+            @RequestParam(required = false) Integer subCategoryId,
+            @RequestParam(required = false) Integer storeId,
+            @RequestParam(required = false) Integer warehouseId,
+            @RequestParam(required = false) String productType,
+            @RequestParam(required = false) String sellingType
+    ) {
+        // Validate before the body starts streaming, so bad parameters still get a 400
+        ProductExportService.Format exportFormat = ProductExportService.Format.parse(format);
+        ProductFilter filter = productService.productFilter(
+                search, searchMode, status, categoryId, brandId, unitId, subCategoryId,
+                storeId, warehouseId, productType, sellingType
+        );
+        StreamingResponseBody body = out -> productExportService.export(filter, exportFormat, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat.contentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + exportFormat.fileName() + "\"")
+                .body(body);
+    }
+
+    // Facet counts for the list sidebar; same filters as GET /api/products
+    @GetMapping("/facets")
+    @PreAuthorize("hasAnyRole('ADMIN','BILLER','STORE_OWNER')")
+    public ResponseEntity<ProductFacetsResponse> getFacets(
+            @RequestParam(required = false) String search,
+            @RequestParam(defaultValue = "contains") String searchMode,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) Integer categoryId,
+            @RequestParam(required = false) Integer brandId,
+            @RequestParam(required = false) Integer unitId,
+            @RequestParam(required = false) Integer subCategoryId,
+            @RequestParam(required = false) Integer storeId,
+            @RequestParam(required = false) Integer warehouseId,
+            @RequestParam(required = false) String productType,
+            @RequestParam(required = false) String sellingType
     ) {
-        ProductListResponse response = productService.getProducts(
-                page, size, search, null, categoryId, brandId, unitId, null,
-                storeId, warehouseId, null, null, sortBy, sortDir
+        ProductFacetsResponse response = productService.getFacets(
+                search, searchMode, status, categoryId, brandId, unitId, subCategoryId,
+                storeId, warehouseId, productType, sellingType
         );
         return ResponseEntity.ok(response);
     }
 
+    // Typeahead for cashiers: matches name words, sku and item code by prefix
+    @GetMapping("/suggest")
+    @PreAuthorize("hasAnyRole('ADMIN','BILLER','STORE_OWNER')")
+    public ResponseEntity<List<ProductSuggestion>> suggestProducts(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "10") int limit
+    ) {
+        return ResponseEntity.ok(productService.suggestProducts(q, limit));
+    }
+
+    // Exact scan lookup: barcode value, sku or item code
+    @GetMapping("/by-code/{code}")
+    @PreAuthorize("hasAnyRole('ADMIN','BILLER','STORE_OWNER')")
+    public ResponseEntity<ProductDTO> getProductByCode(@PathVariable String code) {
+        return ResponseEntity.ok(productService.getProductByCode(code));
+    }
+
     @GetMapping("/{id:\\d+}")
     @PreAuthorize("hasAnyRole('ADMIN','BILLER','STORE_OWNER')")
-    public ResponseEntity<ProductDTO> getProduct(@PathVariable Integer id) {
-        ProductDTO product = productService.getProductById(id);
-        return ResponseEntity.ok(product);
+    public ResponseEntity<ProductDTO> getProduct(@PathVariable Integer id, WebRequest webRequest) {
+        return conditionalGet.respond(webRequest, VERSION_TABLES, stockReservations.lastChanged(),
+                () -> productService.getProductById(id));
     }
 
     @PostMapping
@@ -100,11 +226,22 @@ public class ProductController {
 
     @PostMapping("/{id:\\d+}/duplicate")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<ProductDTO> duplicateProduct(@PathVariable Integer id) {
-        ProductDTO copy = productService.duplicateProduct(id);
+    public ResponseEntity<ProductDTO> duplicateProduct(@PathVariable Integer id, Authentication authentication) {
+        ProductDTO copy = productService.duplicateProduct(id, authentication);
         return ResponseEntity.status(HttpStatus.CREATED).body(copy);
     }
 
+    // Batch form: count copies in each of storeIds (or in the product's own store), inserted as one batch
+    @PostMapping(value = "/{id:\\d+}/duplicate", params = "count")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<BulkProductResponse> duplicateProducts(@PathVariable Integer id,
+                                                                 @RequestParam int count,
+                                                                 @RequestParam(required = false) List<Integer> storeIds,
+                                                                 Authentication authentication) {
+        return ResponseEntity.status(HttpStatus.CREATED)
+                .body(productBulkService.duplicateProduct(id, count, storeIds, authentication));
+    }
+
     @PutMapping("/{id:\\d+}/status")
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<ProductDTO> updateProductStatus(@PathVariable Integer id,
@@ -118,12 +255,22 @@ public class ProductController {
     public ResponseEntity<ProductListResponse> getLowStocks(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) Integer storeId,
             @RequestParam(required = false) Integer threshold,
             @RequestParam(defaultValue = "quantity") String sortBy,
-            @RequestParam(defaultValue = "asc") String sortDir
+            @RequestParam(defaultValue = "asc") String sortDir,
+            @RequestParam(defaultValue = "exact") String includeTotal,
+            WebRequest webRequest
     ) {
-        ProductListResponse response = productService.getLowStocks(page, size, threshold, sortBy, sortDir);
-        return ResponseEntity.ok(response);
+        return conditionalGet.respond(webRequest, VERSION_TABLES, stockReservations.lastChanged(),
+                () -> productService.getLowStocks(page, size, storeId, threshold, sortBy, sortDir, includeTotal));
+    }
+
+    // Server-sent events: "low-stock" when a product drops to its qtyAlert, "restocked" when it rises above
+    @GetMapping(value = "/low-stocks/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @PreAuthorize("hasAnyRole('ADMIN','BILLER','STORE_OWNER')")
+    public SseEmitter streamLowStocks(@RequestParam(required = false) Integer storeId) {
+        return lowStockAlerts.subscribe(storeId);
     }
 
     @GetMapping("/expired")
@@ -132,28 +279,190 @@ public class ProductController {
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
             @RequestParam(defaultValue = "expiredDate") String sortBy,
-            @RequestParam(defaultValue = "asc") String sortDir
+            @RequestParam(defaultValue = "asc") String sortDir,
+            @RequestParam(defaultValue = "exact") String includeTotal
     ) {
-        ProductListResponse response = productService.getExpiredProducts(page, size, sortBy, sortDir);
+        // Not conditional: products expire as the date moves on without any row changing
+        ProductListResponse response = productService.getExpiredProducts(page, size, sortBy, sortDir, includeTotal);
         return ResponseEntity.ok(response);
     }
 
+    @GetMapping("/expiring")
+    @PreAuthorize("hasAnyRole('ADMIN','BILLER','STORE_OWNER')")
+    public ResponseEntity<ProductListResponse> getExpiringProducts(
+            @RequestParam(defaultValue = "30") int withinDays,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "expiredDate") String sortBy,
+            @RequestParam(defaultValue = "asc") String sortDir,
+            @RequestParam(defaultValue = "exact") String includeTotal
+    ) {
+        // Not conditional, like /expired
+        return ResponseEntity.ok(productService.getExpiringProducts(withinDays, page, size, sortBy, sortDir, includeTotal));
+    }
+
+    // Products and units expiring per day over the next withinDays days
+    @GetMapping("/expiring/calendar")
+    @PreAuthorize("hasAnyRole('ADMIN','BILLER','STORE_OWNER')")
+    public ResponseEntity<List<ProductExpiryRepository.ExpiryDay>> getExpiryCalendar(
+            @RequestParam(defaultValue = "30") int withinDays) {
+        return ResponseEntity.ok(productExpiryService.getExpiryCalendar(withinDays));
+    }
+
+    // Runs the scheduled expiry sweep now; "swept" is -1 when another instance is running it
+    @PostMapping("/expiry-sweep")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Integer>> sweepExpired() {
+        return ResponseEntity.ok(Map.of("swept", productExpiryService.sweep()));
+    }
+
+    // Stock of the product in every warehouse, with totals
+    @GetMapping("/{id:\\d+}/stock")
+    @PreAuthorize("hasAnyRole('ADMIN','BILLER','STORE_OWNER')")
+    public ResponseEntity<ProductStockResponse> getProductStock(@PathVariable Integer id) {
+        return ResponseEntity.ok(stockService.getProductStock(id));
+    }
+
     @GetMapping("/{id:\\d+}/barcode-data")
     @PreAuthorize("hasAnyRole('ADMIN','BILLER','STORE_OWNER')")
     public ResponseEntity<com.example.pos.dto.BarcodeDataResponse> getBarcodeData(@PathVariable Integer id) {
         return ResponseEntity.ok(productService.getBarcodeData(id));
     }
 
+    // ERP sync: create-or-update by sku, with a result per item in request order
+    @PostMapping("/bulk")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<BulkProductResponse> upsertProducts(@RequestBody List<CreateProductRequest> items,
+                                                              Authentication authentication) {
+        return ResponseEntity.ok(productBulkService.upsertProducts(items, authentication));
+    }
+
+    // Repricing by filter ("+5% on brand X in store Y"); same filters as GET /api/products
+    @PostMapping("/adjustments")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<BulkUpdateResponse> adjustProducts(
+            @Valid @RequestBody ProductAdjustmentRequest request,
+            @RequestParam(required = false) String search,
+            @RequestParam(defaultValue = "contains") String searchMode,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) Integer categoryId,
+            @RequestParam(required = false) Integer brandId,
+            @RequestParam(required = false) Integer unitId,
+            @RequestParam(required = false) Integer subCategoryId,
+            @RequestParam(required = false) Integer storeId,
+            @RequestParam(required = false) Integer warehouseId,
+            @RequestParam(required = false) String productType,
+            @RequestParam(required = false) String sellingType
+    ) {
+        ProductFilter filter = productService.productFilter(
+                search, searchMode, status, categoryId, brandId, unitId, subCategoryId,
+                storeId, warehouseId, productType, sellingType
+        );
+        return ResponseEntity.ok(productBulkService.adjustProducts(filter, request));
+    }
+
+    // Status change for an id list, or for every product matching the list filters when no ids are given
+    @PutMapping("/bulk/status")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<BulkUpdateResponse> updateProductStatuses(
+            @RequestParam String status,
+            @RequestParam(required = false) List<Integer> ids,
+            @RequestParam(required = false) String search,
+            @RequestParam(defaultValue = "contains") String searchMode,
+            @RequestParam(required = false) String filterStatus,
+            @RequestParam(required = false) Integer categoryId,
+            @RequestParam(required = false) Integer brandId,
+            @RequestParam(required = false) Integer unitId,
+            @RequestParam(required = false) Integer subCategoryId,
+            @RequestParam(required = false) Integer storeId,
+            @RequestParam(required = false) Integer warehouseId,
+            @RequestParam(required = false) String productType,
+            @RequestParam(required = false) String sellingType
+    ) {
+        ProductFilter filter = productService.productFilter(
+                search, searchMode, filterStatus, categoryId, brandId, unitId, subCategoryId,
+                storeId, warehouseId, productType, sellingType
+        );
+        return ResponseEntity.ok(productBulkService.updateStatus(ids, filter, status));
+    }
+
+    // Soft delete for an id list, or for every product matching the list filters when no ids are given
+    @DeleteMapping("/bulk")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<BulkUpdateResponse> deleteProducts(
+            @RequestParam(required = false) List<Integer> ids,
+            @RequestParam(required = false) String search,
+            @RequestParam(defaultValue = "contains") String searchMode,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) Integer categoryId,
+            @RequestParam(required = false) Integer brandId,
+            @RequestParam(required = false) Integer unitId,
+            @RequestParam(required = false) Integer subCategoryId,
+            @RequestParam(required = false) Integer storeId,
+            @RequestParam(required = false) Integer warehouseId,
+            @RequestParam(required = false) String productType,
+            @RequestParam(required = false) String sellingType
+    ) {
+        ProductFilter filter = productService.productFilter(
+                search, searchMode, status, categoryId, brandId, unitId, subCategoryId,
+                storeId, warehouseId, productType, sellingType
+        );
+        return ResponseEntity.ok(productBulkService.deleteProducts(ids, filter));
+    }
+
+    // Bulk import, read as a stream and committed in chunks; see ProductImportService for the row rules.
+    // dryRun=true reports every row error without writing anything
     @PostMapping(value = "/import", consumes = "text/csv")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<com.example.pos.dto.ProductImportReport> importCsv(@RequestBody String csv) {
-        return ResponseEntity.ok(productService.importProductsFromCsv(csv));
+    public ResponseEntity<ProductImportReport> importCsv(InputStream body,
+                                                         @RequestParam(defaultValue = "false") boolean dryRun,
+                                                         Authentication authentication) throws IOException {
+        return ResponseEntity.ok(importCsv(new InputStreamReader(body, StandardCharsets.UTF_8), dryRun, authentication));
     }
 
     @PostMapping(value = "/import-file", consumes = {"multipart/form-data"})
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<com.example.pos.dto.ProductImportReport> importCsvFile(@RequestPart("file") org.springframework.web.multipart.MultipartFile file) throws java.io.IOException {
-        String csv = new String(file.getBytes(), java.nio.charset.StandardCharsets.UTF_8);
-        return ResponseEntity.ok(productService.importProductsFromCsv(csv));
+    public ResponseEntity<ProductImportReport> importCsvFile(@RequestPart("file") MultipartFile file,
+                                                             @RequestParam(defaultValue = "false") boolean dryRun,
+                                                             Authentication authentication) throws IOException {
+        try (InputStream in = file.getInputStream()) {
+            return ResponseEntity.ok(importCsv(new InputStreamReader(in, StandardCharsets.UTF_8), dryRun, authentication));
+        }
+    }
+
+    private ProductImportReport importCsv(Reader reader, boolean dryRun, Authentication authentication)
+            throws IOException {
+        return dryRun ? productImportService.dryRun(reader) : productImportService.importCsv(reader, authentication);
+    }
+
+    // Background import: returns 202 with the job; poll GET /import-jobs/{id} for progress
+    @PostMapping(value = "/import-jobs", consumes = "text/csv")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ProductImportJobDTO> submitImportJob(InputStream body, Authentication authentication)
+            throws IOException {
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .body(productImportJobService.submit(body, null, authentication));
+    }
+
+    @PostMapping(value = "/import-jobs/file", consumes = {"multipart/form-data"})
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ProductImportJobDTO> submitImportJobFile(@RequestPart("file") MultipartFile file,
+                                                                   Authentication authentication) throws IOException {
+        try (InputStream in = file.getInputStream()) {
+            return ResponseEntity.status(HttpStatus.ACCEPTED)
+                    .body(productImportJobService.submit(in, file.getOriginalFilename(), authentication));
+        }
+    }
+
+    @GetMapping("/import-jobs/{id}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ProductImportJobDTO> getImportJob(@PathVariable Integer id) {
+        return ResponseEntity.ok(productImportJobService.getJob(id));
+    }
+
+    @PostMapping("/import-jobs/{id}/resume")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ProductImportJobDTO> resumeImportJob(@PathVariable Integer id) {
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(productImportJobService.resume(id));
     }
 }
\ No newline at end of file
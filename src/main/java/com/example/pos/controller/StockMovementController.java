@@ -0,0 +1,58 @@
+package com.example.pos.controller;
+
+import com.example.pos.dto.StockMovementDTO;
+import com.example.pos.dto.StockMovementListResponse;
+import com.example.pos.dto.StockMovementRequest;
+import com.example.pos.service.StockService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/stock-movements")
+@RequiredArgsConstructor
+public class StockMovementController {
+
+    private final StockService stockService;
+
+    /**
+     * Record stock movements (sales, purchases, adjustments, transfers) in one transaction
+     *
+     * @param requests Movements with signed quantities, applied all or nothing
+     * @return The recorded movements with the quantity each one left
+     */
+    @PostMapping
+    @PreAuthorize("hasAnyRole('ADMIN','BILLER','STORE_OWNER')")
+    public ResponseEntity<List<StockMovementDTO>> recordMovements(
+            @RequestBody List<@Valid StockMovementRequest> requests,
+            Authentication authentication
+    ) {
+        return ResponseEntity.status(HttpStatus.CREATED).body(stockService.recordMovements(requests, authentication));
+    }
+
+    /**
+     * Movement history of a product, of a warehouse, or of a product in a warehouse, newest first
+     *
+     * @param productId Product filter (optional if warehouseId is given)
+     * @param warehouseId Warehouse filter (optional if productId is given)
+     * @param beforeId Only movements older than this id: the nextBeforeId of the previous page (optional)
+     * @param size Page size (default: 50, max: 500)
+     * @return StockMovementListResponse with the cursor of the next page
+     */
+    @GetMapping
+    @PreAuthorize("hasAnyRole('ADMIN','STORE_OWNER')")
+    public ResponseEntity<StockMovementListResponse> getMovements(
+            @RequestParam(required = false) Integer productId,
+            @RequestParam(required = false) Integer warehouseId,
+            @RequestParam(required = false) Long beforeId,
+            @RequestParam(defaultValue = "50") int size
+    ) {
+        return ResponseEntity.ok(stockService.getMovements(productId, warehouseId, beforeId, size));
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.pos.controller;
+
+import com.example.pos.dto.MessageResponse;
+import com.example.pos.dto.StockReservationDTO;
+import com.example.pos.dto.StockReservationRequest;
+import com.example.pos.security.UserPrincipal;
+import com.example.pos.service.StockReservations;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/stock-reservations")
+@RequiredArgsConstructor
+public class StockReservationController {
+
+    private final StockReservations stockReservations;
+
+    /**
+     * Reserve stock for a cart until it is sold, released, or the TTL runs out
+     *
+     * @param request Product, quantity, cart reference and optional TTL in seconds
+     * @return The reservation, with the product's available-to-sell after it
+     */
+    @PostMapping
+    @PreAuthorize("hasAnyRole('ADMIN','BILLER','STORE_OWNER')")
+    public ResponseEntity<StockReservationDTO> reserve(@Valid @RequestBody StockReservationRequest request,
+                                                       Authentication authentication) {
+        Integer createdBy = null;
+        if (authentication != null && authentication.getPrincipal() instanceof UserPrincipal userPrincipal) {
+            createdBy = userPrincipal.getId();
+        }
+        return ResponseEntity.status(HttpStatus.CREATED).body(stockReservations.reserve(request, createdBy));
+    }
+
+    /**
+     * Live reservations of a product
+     *
+     * @param productId Product ID
+     * @return The reservations, oldest first
+     */
+    @GetMapping
+    @PreAuthorize("hasAnyRole('ADMIN','BILLER','STORE_OWNER')")
+    public ResponseEntity<List<StockReservationDTO>> getReservations(@RequestParam Integer productId) {
+        return ResponseEntity.ok(stockReservations.getReservations(productId));
+    }
+
+    /**
+     * Keep a reservation for another TTL, counted from now
+     *
+     * @param id Reservation ID
+     * @param ttlSeconds New TTL in seconds (optional, default: app.stock-reservations.default-ttl-seconds)
+     * @return The reservation with its new expiry
+     */
+    @PutMapping("/{id}/extend")
+    @PreAuthorize("hasAnyRole('ADMIN','BILLER','STORE_OWNER')")
+    public ResponseEntity<StockReservationDTO> extend(@PathVariable UUID id,
+                                                      @RequestParam(required = false) Integer ttlSeconds) {
+        return ResponseEntity.ok(stockReservations.extend(id, ttlSeconds));
+    }
+
+    /**
+     * Release a reservation (cart abandoned or item removed)
+     *
+     * @param id Reservation ID
+     */
+    @DeleteMapping("/{id}")
+    @PreAuthorize("hasAnyRole('ADMIN','BILLER','STORE_OWNER')")
+    public ResponseEntity<MessageResponse> release(@PathVariable UUID id) {
+        stockReservations.release(id);
+        return ResponseEntity.ok(MessageResponse.of("Reservation released"));
+    }
+}
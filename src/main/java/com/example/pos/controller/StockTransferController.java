@@ -0,0 +1,61 @@
+package com.example.pos.controller;
+
+import com.example.pos.dto.StockTransferDTO;
+import com.example.pos.dto.StockTransferRequest;
+import com.example.pos.entity.StockTransfer;
+import com.example.pos.service.StockTransferService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/stock-transfers")
+@RequiredArgsConstructor
+public class StockTransferController {
+
+    private final StockTransferService stockTransferService;
+
+    /**
+     * Move stock from one warehouse to another
+     *
+     * @param request Source, destination and the lines (product, quantity) of the document
+     * @return 201 with the completed transfer, or 202 with a queued one (more than one chunk of lines);
+     *         poll GET /api/stock-transfers/{id} for its progress
+     */
+    @PostMapping
+    @PreAuthorize("hasAnyRole('ADMIN','STORE_OWNER')")
+    public ResponseEntity<StockTransferDTO> createTransfer(@Valid @RequestBody StockTransferRequest request,
+                                                           Authentication authentication) {
+        StockTransferDTO transfer = stockTransferService.createTransfer(request, authentication);
+        HttpStatus status = StockTransfer.COMPLETED.equals(transfer.getStatus()) ? HttpStatus.CREATED : HttpStatus.ACCEPTED;
+        return ResponseEntity.status(status).body(transfer);
+    }
+
+    /**
+     * Status and progress of a transfer
+     *
+     * @param id Transfer ID
+     * @return StockTransferDTO with linesDone and percentComplete
+     */
+    @GetMapping("/{id}")
+    @PreAuthorize("hasAnyRole('ADMIN','STORE_OWNER')")
+    public ResponseEntity<StockTransferDTO> getTransfer(@PathVariable Integer id) {
+        return ResponseEntity.ok(stockTransferService.getTransfer(id));
+    }
+
+    /**
+     * Resume a failed transfer after its last committed chunk
+     *
+     * @param id Transfer ID
+     * @return The re-queued transfer
+     */
+    @PostMapping("/{id}/resume")
+    @PreAuthorize("hasAnyRole('ADMIN','STORE_OWNER')")
+    public ResponseEntity<StockTransferDTO> resume(@PathVariable Integer id) {
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(stockTransferService.resume(id));
+    }
+}
@@ -4,19 +4,26 @@ import com.example.pos.dto.subcategory.*;
 
 import com.example.pos.dto.MessageResponse;
 import com.example.pos.service.SubCategoryService;
+import com.example.pos.util.ConditionalGet;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.List;
 
 @RestController
 @RequestMapping("/api/subcategories")
 @RequiredArgsConstructor
 public class SubCategoryController {
 
+    private static final List<String> VERSION_TABLES = List.of("sub_categories", "categories");
+
     private final SubCategoryService subCategoryService;
+    private final ConditionalGet conditionalGet;
 
     /**
      * Get list of subcategories with pagination, search, and filtering
@@ -30,12 +37,13 @@ public class SubCategoryController {
             @RequestParam(required = false) String status,
             @RequestParam(required = false) Integer categoryId, // Tham số mới
             @RequestParam(defaultValue = "createdAt") String sortBy,
-            @RequestParam(defaultValue = "desc") String sortDir
+            @RequestParam(defaultValue = "desc") String sortDir,
+            @RequestParam(defaultValue = "exact") String includeTotal,
+            WebRequest webRequest
     ) {
-        SubCategoryListResponse response = subCategoryService.getSubCategories(
-                page, size, search, status, categoryId, sortBy, sortDir
-        );
-        return ResponseEntity.ok(response);
+        return conditionalGet.respond(webRequest, VERSION_TABLES, () -> subCategoryService.getSubCategories(
+                page, size, search, status, categoryId, sortBy, sortDir, includeTotal
+        ));
     }
 
     /**
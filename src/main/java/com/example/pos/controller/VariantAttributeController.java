@@ -6,19 +6,26 @@ import com.example.pos.dto.UpdateVariantAttributeRequest;
 import com.example.pos.dto.VariantAttributeDTO;
 import com.example.pos.dto.VariantAttributeListResponse;
 import com.example.pos.service.VariantAttributeService;
+import com.example.pos.util.ConditionalGet;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.List;
 
 @RestController
 @RequestMapping("/api/variant-attributes")
 @RequiredArgsConstructor
 public class VariantAttributeController {
 
+    private static final List<String> VERSION_TABLES = List.of("variant_attributes");
+
     private final VariantAttributeService variantAttributeService;
+    private final ConditionalGet conditionalGet;
 
     /**
      * Get list of variant attributes with pagination, search, and filtering
@@ -30,6 +37,7 @@ public class VariantAttributeController {
      * @param status Filter by status (optional)
      * @param sortBy Sort field (default: createdAt)
      * @param sortDir Sort direction: asc or desc (default: desc)
+     * @param includeTotal Totals mode: exact, false (skip the count query) or estimate (default: exact)
      * @return VariantAttributeListResponse with pagination info
      */
     @GetMapping
@@ -40,10 +48,12 @@ public class VariantAttributeController {
             @RequestParam(required = false) String search,
             @RequestParam(required = false) String status,
             @RequestParam(defaultValue = "createdAt") String sortBy,
-            @RequestParam(defaultValue = "desc") String sortDir
+            @RequestParam(defaultValue = "desc") String sortDir,
+            @RequestParam(defaultValue = "exact") String includeTotal,
+            WebRequest webRequest
     ) {
-        VariantAttributeListResponse response = variantAttributeService.getVariantAttributes(page, size, search, status, sortBy, sortDir);
-        return ResponseEntity.ok(response);
+        return conditionalGet.respond(webRequest, VERSION_TABLES,
+                () -> variantAttributeService.getVariantAttributes(page, size, search, status, sortBy, sortDir, includeTotal));
     }
 
     /**
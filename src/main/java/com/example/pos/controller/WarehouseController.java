@@ -6,19 +6,26 @@ import com.example.pos.dto.UpdateWarehouseRequest;
 import com.example.pos.dto.WarehouseDTO;
 import com.example.pos.dto.WarehouseListResponse;
 import com.example.pos.service.WarehouseService;
+import com.example.pos.util.ConditionalGet;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.List;
 
 @RestController
 @RequestMapping("/api/warehouses")
 @RequiredArgsConstructor
 public class WarehouseController {
 
+    private static final List<String> VERSION_TABLES = List.of("warehouses", "users");
+
     private final WarehouseService warehouseService;
+    private final ConditionalGet conditionalGet;
 
     /**
      * Get list of warehouses with pagination, search, and filtering
@@ -30,6 +37,7 @@ public class WarehouseController {
      * @param status Filter by status (optional)
      * @param sortBy Sort field (default: createdOn)
      * @param sortDir Sort direction: asc or desc (default: desc)
+     * @param includeTotal Totals mode: exact, false (skip the count query) or estimate (default: exact)
      * @return WarehouseListResponse with pagination info
      */
     @GetMapping
@@ -40,10 +48,12 @@ public class WarehouseController {
             @RequestParam(required = false) String search,
             @RequestParam(required = false) String status,
             @RequestParam(defaultValue = "createdOn") String sortBy,
-            @RequestParam(defaultValue = "desc") String sortDir
+            @RequestParam(defaultValue = "desc") String sortDir,
+            @RequestParam(defaultValue = "exact") String includeTotal,
+            WebRequest webRequest
     ) {
-        WarehouseListResponse response = warehouseService.getWarehouses(page, size, search, status, sortBy, sortDir);
-        return ResponseEntity.ok(response);
+        return conditionalGet.respond(webRequest, VERSION_TABLES,
+                () -> warehouseService.getWarehouses(page, size, search, status, sortBy, sortDir, includeTotal));
     }
 
     /**
@@ -6,19 +6,26 @@ import com.example.pos.dto.WarrantyDTO;
 import com.example.pos.dto.WarrantyListResponse;
 import com.example.pos.dto.MessageResponse;
 import com.example.pos.service.WarrantyService;
+import com.example.pos.util.ConditionalGet;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.List;
 
 @RestController
 @RequestMapping("/api/warranties")
 @RequiredArgsConstructor
 public class WarrantyController {
 
+    private static final List<String> VERSION_TABLES = List.of("warranties");
+
     private final WarrantyService warrantyService;
+    private final ConditionalGet conditionalGet;
 
     @GetMapping
     @PreAuthorize("hasAnyRole('ADMIN','BILLER','STORE_OWNER')")
@@ -28,10 +35,12 @@ public class WarrantyController {
             @RequestParam(required = false) String search,
             @RequestParam(required = false) String status,
             @RequestParam(defaultValue = "id") String sortBy,
-            @RequestParam(defaultValue = "desc") String sortDir
+            @RequestParam(defaultValue = "desc") String sortDir,
+            @RequestParam(defaultValue = "exact") String includeTotal,
+            WebRequest webRequest
     ) {
-        WarrantyListResponse response = warrantyService.getWarranties(page, size, search, status, sortBy, sortDir);
-        return ResponseEntity.ok(response);
+        return conditionalGet.respond(webRequest, VERSION_TABLES,
+                () -> warrantyService.getWarranties(page, size, search, status, sortBy, sortDir, includeTotal));
     }
 
     @PostMapping
@@ -0,0 +1,19 @@
+package com.example.pos.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BulkProductResponse {
+    private int created;
+    private int updated;
+    private int failed;
+    private List<BulkProductResult> results;
+}
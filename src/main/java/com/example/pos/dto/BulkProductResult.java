@@ -0,0 +1,18 @@
+package com.example.pos.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BulkProductResult {
+    private int index;
+    private String sku;
+    private Integer id;
+    private String action; // created|updated|failed
+    private String error;
+}
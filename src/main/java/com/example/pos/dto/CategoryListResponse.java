@@ -15,7 +15,8 @@ public class CategoryListResponse {
     
     private List<CategoryDTO> categories;
     private int currentPage;
-    private int totalPages;
-    private long totalItems;
+    private Integer totalPages;
+    private Long totalItems;
+    private boolean hasNext;
 }
 
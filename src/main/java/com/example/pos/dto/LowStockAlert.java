@@ -0,0 +1,24 @@
+package com.example.pos.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class LowStockAlert {
+    private String type; // low-stock|restocked
+    private Integer productId;
+    private String sku;
+    private String name;
+    private Integer storeId;
+    private Integer warehouseId;
+    private Integer quantity;
+    private Integer qtyAlert;
+    private LocalDateTime at;
+}
@@ -0,0 +1,24 @@
+package com.example.pos.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ProductAdjustmentRequest {
+    @NotBlank
+    private String operation; // price_percent|price_amount|qty_alert|discount
+
+    @NotNull
+    private BigDecimal value;
+
+    private String discountType; // percent|amount, for operation=discount
+}
@@ -20,6 +20,11 @@ public class ProductDTO {
     private String slug;
     private BigDecimal price;
     private Integer quantity;
+    // Units held by live stock reservations, and the quantity less those
+    private Integer reserved;
+    private Integer availableToSell;
+    // Warehouses holding stock of the product (product_stock rows with a positive quantity)
+    private Integer warehouseCount;
     private Integer qtyAlert;
     private String status;
     private Integer unitId;
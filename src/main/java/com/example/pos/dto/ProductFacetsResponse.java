@@ -0,0 +1,24 @@
+package com.example.pos.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ProductFacetsResponse {
+    private long totalItems;
+    // value -> number of matching products, largest first; products without a value are not counted
+    private Map<Integer, Long> categories;
+    private Map<Integer, Long> brands;
+    private Map<Integer, Long> units;
+    private Map<Integer, Long> stores;
+    // Type values are lower-cased, matching how the productType/sellingType filters compare
+    private Map<String, Long> productTypes;
+    private Map<String, Long> sellingTypes;
+}
@@ -0,0 +1,30 @@
+package com.example.pos.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ProductImportJobDTO {
+    private Integer id;
+    private String status;
+    private String fileName;
+    private Long totalRows;
+    private long rowsDone;
+    private long imported;
+    private long failed;
+    private Double percentComplete;
+    private Double rowsPerSecond;
+    private List<String> errors;
+    private String message;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    private LocalDateTime createdAt;
+}
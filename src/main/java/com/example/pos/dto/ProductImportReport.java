@@ -16,4 +16,6 @@ public class ProductImportReport {
     private int imported;
     private int failed;
     private List<String> errors;
+    // True when nothing was written; imported then counts the rows that would have been
+    private boolean dryRun;
 }
\ No newline at end of file
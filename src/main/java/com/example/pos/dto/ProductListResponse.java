@@ -13,7 +13,11 @@ import java.util.List;
 @Builder
 public class ProductListResponse {
     private List<ProductDTO> products;
-    private int currentPage;
-    private int totalPages;
-    private long totalItems;
+    // Totals are null in cursor mode and with includeTotal=false, which do not run a COUNT query
+    private Integer currentPage;
+    private Integer totalPages;
+    private Long totalItems;
+    private boolean hasNext;
+    // Cursor pagination only; null when there are no more rows
+    private String nextCursor;
 }
\ No newline at end of file
@@ -0,0 +1,20 @@
+package com.example.pos.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ProductStockResponse {
+    private Integer productId;
+    // Sums over the warehouses
+    private Long quantity;
+    private Long reserved;
+    private List<WarehouseStockDTO> warehouses;
+}
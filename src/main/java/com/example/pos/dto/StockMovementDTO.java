@@ -0,0 +1,26 @@
+package com.example.pos.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StockMovementDTO {
+    private Long id;
+    private Integer productId;
+    private Integer warehouseId;
+    private Integer storeId;
+    private String type;
+    private Integer quantity;
+    private Integer quantityAfter;
+    private String reference;
+    private String note;
+    private Integer createdBy;
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,18 @@
+package com.example.pos.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StockMovementListResponse {
+    private List<StockMovementDTO> movements;
+    // Pass as beforeId for the next (older) page; null on the last page
+    private Long nextBeforeId;
+}
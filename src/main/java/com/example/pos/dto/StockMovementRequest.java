@@ -0,0 +1,39 @@
+package com.example.pos.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StockMovementRequest {
+    @NotNull
+    private Integer productId;
+
+    // Warehouse whose stock changes; defaults to the product's own
+    private Integer warehouseId;
+
+    @NotBlank
+    private String type; // sale|purchase|adjustment|transfer
+
+    // Signed change: negative for a sale, positive for a purchase, either for adjustments and transfers
+    @NotNull
+    private Integer quantity;
+
+    @Size(max = 100)
+    private String reference;
+
+    @Size(max = 255)
+    private String note;
+
+    // For a sale: the cart's stock reservation, released once the sale is recorded
+    private UUID reservationId;
+}
@@ -0,0 +1,25 @@
+package com.example.pos.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StockReservationDTO {
+    private UUID id;
+    private Integer productId;
+    private Integer quantity;
+    private String reference;
+    private Integer createdBy;
+    private LocalDateTime createdAt;
+    private LocalDateTime expiresAt;
+    // The product's quantity less everything reserved, this reservation included
+    private Integer availableToSell;
+}
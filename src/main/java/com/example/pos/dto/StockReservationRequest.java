@@ -0,0 +1,29 @@
+package com.example.pos.dto;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StockReservationRequest {
+    @NotNull
+    private Integer productId;
+
+    @NotNull
+    @Positive
+    private Integer quantity;
+
+    // The cart or till session holding the stock
+    @Size(max = 100)
+    private String reference;
+
+    // Defaults to app.stock-reservations.default-ttl-seconds
+    private Integer ttlSeconds;
+}
@@ -0,0 +1,30 @@
+package com.example.pos.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StockTransferDTO {
+    private Integer id;
+    private Integer sourceWarehouseId;
+    private Integer destinationWarehouseId;
+    private String reference;
+    private String note;
+    private String status; // QUEUED|RUNNING|COMPLETED|FAILED
+    private Integer totalLines;
+    // Lines committed so far; a failed transfer resumes after them
+    private Integer linesDone;
+    private Double percentComplete;
+    private String message;
+    private Integer createdBy;
+    private LocalDateTime createdAt;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+}
@@ -0,0 +1,47 @@
+package com.example.pos.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StockTransferRequest {
+    @NotNull
+    private Integer sourceWarehouseId;
+
+    @NotNull
+    private Integer destinationWarehouseId;
+
+    @Size(max = 100)
+    private String reference;
+
+    @Size(max = 255)
+    private String note;
+
+    @NotEmpty
+    private List<@Valid Line> lines;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class Line {
+        @NotNull
+        private Integer productId;
+
+        @NotNull
+        @Positive
+        private Integer quantity;
+    }
+}
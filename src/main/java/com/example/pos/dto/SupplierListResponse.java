@@ -14,10 +14,11 @@ import java.util.List;
 public class SupplierListResponse {
     
     private List<SupplierDTO> suppliers;
-    private long totalElements;
-    private int totalPages;
+    private Long totalElements;
+    private Integer totalPages;
     private int currentPage;
     private int pageSize;
+    private boolean hasNext;
 }
 
 
@@ -15,7 +15,8 @@ public class UnitListResponse {
     
     private List<UnitDTO> units;
     private int currentPage;
-    private int totalPages;
-    private long totalItems;
+    private Integer totalPages;
+    private Long totalItems;
+    private boolean hasNext;
 }
 
@@ -14,9 +14,10 @@ import java.util.List;
 public class WarehouseListResponse {
 
     private List<WarehouseDTO> warehouses;
-    private long totalElements;
-    private int totalPages;
+    private Long totalElements;
+    private Integer totalPages;
     private int currentPage;
     private int pageSize;
+    private boolean hasNext;
 }
 
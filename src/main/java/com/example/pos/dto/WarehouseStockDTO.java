@@ -0,0 +1,20 @@
+package com.example.pos.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class WarehouseStockDTO {
+    private Integer warehouseId;
+    private String warehouseName;
+    private Integer quantity;
+    private Integer reserved;
+    private LocalDateTime updatedAt;
+}
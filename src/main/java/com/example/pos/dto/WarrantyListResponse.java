@@ -14,6 +14,7 @@ import java.util.List;
 public class WarrantyListResponse {
     private List<WarrantyDTO> warranties;
     private int currentPage;
-    private int totalPages;
-    private long totalItems;
+    private Integer totalPages;
+    private Long totalItems;
+    private boolean hasNext;
 }
\ No newline at end of file
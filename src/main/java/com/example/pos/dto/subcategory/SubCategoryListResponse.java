@@ -15,6 +15,7 @@ public class SubCategoryListResponse {
     
     private List<SubCategoryDTO> subCategories;
     private int currentPage;
-    private int totalPages;
-    private long totalItems;
+    private Integer totalPages;
+    private Long totalItems;
+    private boolean hasNext;
 }
\ No newline at end of file
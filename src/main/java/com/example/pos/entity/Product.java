@@ -6,6 +6,7 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.Formula;
 import org.hibernate.annotations.UpdateTimestamp;
 
 import java.math.BigDecimal;
@@ -14,6 +15,7 @@ import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "products")
+@EntityListeners(ProductEntityListener.class)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -36,8 +38,9 @@ public class Product {
     @Column(precision = 10, scale = 2, nullable = false)
     private BigDecimal price;
 
+    // Changed only through StockService (quantity = quantity + delta); JPA writes it on insert only
     @Builder.Default
-    @Column
+    @Column(updatable = false)
     private Integer quantity = 0;
 
     @Builder.Default
@@ -109,12 +112,17 @@ public class Product {
     @Column(name = "expired_date")
     private LocalDate expiredDate;
 
+    // Warehouses holding any stock of the product, read in the same select from the product_stock primary key.
+    // As of load time: stock moved later in the same transaction is not reflected
+    @Formula("(SELECT count(*) FROM product_stock ps WHERE ps.product_id = id AND ps.quantity > 0)")
+    private Integer warehouseCount;
+
     @CreationTimestamp
-    @Column(name = "created_at", updatable = false)
+    @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
 
     @UpdateTimestamp
-    @Column(name = "updated_at")
+    @Column(name = "updated_at", nullable = false)
     private LocalDateTime updatedAt;
 
     // Relationships (read-only for convenience)
@@ -0,0 +1,41 @@
+package com.example.pos.entity;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import com.example.pos.repository.StockLedgerRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+/**
+ * JPA callbacks for {@link Product}; Hibernate resolves this listener from the Spring context.
+ */
+@Component
+@RequiredArgsConstructor
+public class ProductEntityListener {
+
+    private final ApplicationEventPublisher eventPublisher;
+    private final StockLedgerRepository stockLedgerRepository;
+
+    @PostPersist
+    public void afterInsert(Product product) {
+        eventPublisher.publishEvent(ProductsChangedEvent.upserted(ProductSnapshot.of(product)));
+    }
+
+    /**
+     * Quantity is not written on update and may have moved since the entity was loaded; publish the stored
+     * value, which this transaction's UPDATE keeps locked until commit.
+     */
+    @PostUpdate
+    public void afterUpdate(Product product) {
+        Integer quantity = stockLedgerRepository.findQuantity(product.getId());
+        eventPublisher.publishEvent(ProductsChangedEvent.upserted(
+                ProductSnapshot.of(product, quantity != null ? quantity : product.getQuantity())));
+    }
+
+    @PostRemove
+    public void afterRemove(Product product) {
+        eventPublisher.publishEvent(ProductsChangedEvent.removed(product.getId()));
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.pos.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * A background product CSV import. The upload is kept in a spool file until the job completes. Rows are
+ * imported in {@code partitions} parallel partitions, each with its own checkpoint (the last data row of its
+ * last committed chunk, in product_import_checkpoints), so a restarted job continues after them.
+ * <p>
+ * A job belongs to the instance holding its spool file ({@code owner}), which renews {@code leaseExpiresAt}
+ * while the job is queued or running. Other instances only take a job over once that lease has expired.
+ */
+@Entity
+@Table(name = "product_import_jobs")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ProductImportJob {
+
+    public static final String QUEUED = "QUEUED";
+    public static final String RUNNING = "RUNNING";
+    public static final String COMPLETED = "COMPLETED";
+    public static final String FAILED = "FAILED";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Integer id;
+
+    @Column(length = 20, nullable = false)
+    @Builder.Default
+    private String status = QUEUED;
+
+    @Column(name = "file_name", length = 255)
+    private String fileName;
+
+    @Column(name = "spool_path", length = 500, nullable = false)
+    private String spoolPath;
+
+    @Column(name = "created_by")
+    private Integer createdBy;
+
+    @Column(length = 100)
+    private String owner;
+
+    @Column(name = "lease_expires_at")
+    private LocalDateTime leaseExpiresAt;
+
+    @Column(name = "total_rows")
+    private Long totalRows;
+
+    // Fixed on the first run: rows are assigned to partitions by store and warehouse, modulo this count
+    private Integer partitions;
+
+    @Column(name = "rows_done", nullable = false)
+    @Builder.Default
+    private long rowsDone = 0;
+
+    @Column(nullable = false)
+    @Builder.Default
+    private long imported = 0;
+
+    @Column(nullable = false)
+    @Builder.Default
+    private long failed = 0;
+
+    // Wall-clock time up to the last committed chunk, across runs; throughput is rowsDone over this
+    @Column(name = "processing_millis", nullable = false)
+    @Builder.Default
+    private long processingMillis = 0;
+
+    @Column(length = 500)
+    private String message;
+
+    @Column(name = "started_at")
+    private LocalDateTime startedAt;
+
+    @Column(name = "finished_at")
+    private LocalDateTime finishedAt;
+
+    @CreationTimestamp
+    @Column(name = "created_at", updatable = false)
+    private LocalDateTime createdAt;
+
+    @UpdateTimestamp
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,35 @@
+package com.example.pos.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A data row of an import job that was not imported.
+ */
+@Entity
+@Table(name = "product_import_job_errors")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ProductImportJobError {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "job_id", nullable = false)
+    private Integer jobId;
+
+    @Column(name = "partition_no", nullable = false)
+    private int partitionNo;
+
+    @Column(name = "row_no", nullable = false)
+    private long rowNumber;
+
+    @Column(length = 500, nullable = false)
+    private String message;
+}
@@ -0,0 +1,65 @@
+package com.example.pos.entity;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * The product columns kept by the in-memory indexes (filters, sort keys, lookup text), detached from the entity.
+ */
+public record ProductSnapshot(
+        Integer id,
+        String name,
+        String sku,
+        String itemCode,
+        String barcodeValue,
+        String status,
+        Integer categoryId,
+        Integer brandId,
+        Integer unitId,
+        Integer subCategoryId,
+        Integer storeId,
+        Integer warehouseId,
+        String productType,
+        String sellingType,
+        BigDecimal price,
+        Integer quantity,
+        Integer qtyAlert,
+        LocalDateTime createdAt,
+        LocalDateTime updatedAt
+) {
+
+    public static ProductSnapshot of(Product p) {
+        return of(p, p.getQuantity());
+    }
+
+    /**
+     * The entity's columns with the given quantity, which JPA does not write after insert.
+     */
+    public static ProductSnapshot of(Product p, Integer quantity) {
+        return new ProductSnapshot(
+                p.getId(),
+                p.getName(),
+                p.getSku(),
+                p.getItemCode(),
+                p.getBarcodeValue(),
+                p.getStatus(),
+                p.getCategoryId(),
+                p.getBrandId(),
+                p.getUnitId(),
+                p.getSubCategoryId(),
+                p.getStoreId(),
+                p.getWarehouseId(),
+                p.getProductType(),
+                p.getSellingType(),
+                p.getPrice(),
+                quantity,
+                p.getQtyAlert(),
+                p.getCreatedAt(),
+                p.getUpdatedAt()
+        );
+    }
+
+    public boolean isDeleted() {
+        return "DELETED".equals(status);
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.pos.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * Stock of a product in one warehouse. The rows of a product add up to {@link Product#getQuantity()}; the
+ * row of the product's own warehouse absorbs writes that set the total directly (create, import, sync).
+ * Rows are written only by SQL, in {@code StockService} and {@code ProductStockRepository}.
+ */
+@Entity
+@Table(name = "product_stock")
+@IdClass(ProductStock.Key.class)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ProductStock {
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private Integer productId;
+        private Integer warehouseId;
+    }
+
+    @Id
+    @Column(name = "product_id")
+    private Integer productId;
+
+    @Id
+    @Column(name = "warehouse_id")
+    private Integer warehouseId;
+
+    @Column(nullable = false)
+    private Integer quantity;
+
+    // Units held by stock reservations of carts
+    @Column(nullable = false)
+    private Integer reserved;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+}
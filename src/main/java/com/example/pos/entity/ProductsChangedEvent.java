@@ -0,0 +1,22 @@
+package com.example.pos.entity;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Published inside the writing transaction whenever product rows change. Listeners that keep
+ * derived state should use {@code @TransactionalEventListener} so rolled-back writes are never seen.
+ * <p>
+ * Single-entity writes are published by {@link ProductEntityListener}; bulk JPQL/SQL writes bypass
+ * entity callbacks and must publish this event themselves.
+ */
+public record ProductsChangedEvent(List<ProductSnapshot> upserted, Collection<Integer> removedIds) {
+
+    public static ProductsChangedEvent upserted(ProductSnapshot snapshot) {
+        return new ProductsChangedEvent(List.of(snapshot), List.of());
+    }
+
+    public static ProductsChangedEvent removed(Integer id) {
+        return new ProductsChangedEvent(List.of(), List.of(id));
+    }
+}
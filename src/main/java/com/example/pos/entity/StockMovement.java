@@ -0,0 +1,64 @@
+package com.example.pos.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.Set;
+
+/**
+ * One entry of the append-only stock ledger: a signed change of a product's quantity, with the quantity it
+ * left. Rows are only ever inserted, in batches, by {@code StockService}.
+ */
+@Entity
+@Table(name = "stock_movements")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StockMovement {
+
+    public static final String SALE = "SALE";
+    public static final String PURCHASE = "PURCHASE";
+    public static final String ADJUSTMENT = "ADJUSTMENT";
+    public static final String TRANSFER = "TRANSFER";
+    public static final Set<String> TYPES = Set.of(SALE, PURCHASE, ADJUSTMENT, TRANSFER);
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "product_id", nullable = false)
+    private Integer productId;
+
+    // Where the product was stocked when the movement was recorded
+    @Column(name = "warehouse_id")
+    private Integer warehouseId;
+
+    @Column(name = "store_id")
+    private Integer storeId;
+
+    @Column(name = "movement_type", length = 20, nullable = false)
+    private String movementType;
+
+    @Column(nullable = false)
+    private Integer quantity;
+
+    @Column(name = "quantity_after", nullable = false)
+    private Integer quantityAfter;
+
+    @Column(length = 100)
+    private String reference;
+
+    @Column(length = 255)
+    private String note;
+
+    @Column(name = "created_by")
+    private Integer createdBy;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+}
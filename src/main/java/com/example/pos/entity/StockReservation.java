@@ -0,0 +1,46 @@
+package com.example.pos.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Stock held for an in-progress cart until it is sold, released, or expires. The live reservations are kept
+ * in memory by {@code StockReservations}; rows are written behind, in batches, only to recover them after a
+ * restart.
+ */
+@Entity
+@Table(name = "stock_reservations")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StockReservation {
+
+    @Id
+    private UUID id;
+
+    @Column(name = "product_id", nullable = false)
+    private Integer productId;
+
+    @Column(nullable = false)
+    private Integer quantity;
+
+    // The cart or till session holding the stock
+    @Column(length = 100)
+    private String reference;
+
+    @Column(name = "created_by")
+    private Integer createdBy;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+}
@@ -0,0 +1,78 @@
+package com.example.pos.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * A stock transfer document: many lines moving stock from one warehouse to another. Documents of up to one
+ * chunk are applied when they are created, in the same transaction. Larger ones are queued and applied one
+ * chunk of lines per transaction; {@code linesDone} is the number of lines committed so far, so a failed or
+ * interrupted transfer continues after them.
+ */
+@Entity
+@Table(name = "stock_transfers")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StockTransfer {
+
+    public static final String QUEUED = "QUEUED";
+    public static final String RUNNING = "RUNNING";
+    public static final String COMPLETED = "COMPLETED";
+    public static final String FAILED = "FAILED";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Integer id;
+
+    @Column(name = "source_warehouse_id", nullable = false)
+    private Integer sourceWarehouseId;
+
+    @Column(name = "destination_warehouse_id", nullable = false)
+    private Integer destinationWarehouseId;
+
+    @Column(length = 100)
+    private String reference;
+
+    @Column(length = 255)
+    private String note;
+
+    @Column(length = 20, nullable = false)
+    @Builder.Default
+    private String status = QUEUED;
+
+    @Column(name = "total_lines", nullable = false)
+    private Integer totalLines;
+
+    @Column(name = "lines_done", nullable = false)
+    @Builder.Default
+    private int linesDone = 0;
+
+    @Column(length = 500)
+    private String message;
+
+    @Column(name = "created_by")
+    private Integer createdBy;
+
+    @Column(name = "started_at")
+    private LocalDateTime startedAt;
+
+    @Column(name = "finished_at")
+    private LocalDateTime finishedAt;
+
+    @CreationTimestamp
+    @Column(name = "created_at", updatable = false)
+    private LocalDateTime createdAt;
+
+    @UpdateTimestamp
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,45 @@
+package com.example.pos.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One line of a {@link StockTransfer}. Lines are numbered from 1 in request order and applied in that order.
+ */
+@Entity
+@Table(name = "stock_transfer_lines")
+@IdClass(StockTransferLine.Key.class)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StockTransferLine {
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements java.io.Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private Integer transferId;
+        private Integer lineNo;
+    }
+
+    @Id
+    @Column(name = "transfer_id")
+    private Integer transferId;
+
+    @Id
+    @Column(name = "line_no")
+    private Integer lineNo;
+
+    @Column(name = "product_id", nullable = false)
+    private Integer productId;
+
+    // Units moved; always positive
+    @Column(nullable = false)
+    private Integer quantity;
+}
@@ -52,12 +52,13 @@ public class Store {
     @Column(name = "user_id")
     private Integer userId;
 
+    // Aggregates of the store's products, maintained in SQL by StockAggregates; JPA writes them on insert only
     @Builder.Default
-    @Column(name = "total_products")
+    @Column(name = "total_products", updatable = false)
     private Integer totalProducts = 0;
 
     @Builder.Default
-    @Column(name = "total_stock")
+    @Column(name = "total_stock", updatable = false)
     private Integer totalStock = 0;
 
     @Builder.Default
@@ -6,8 +6,10 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "warehouses")
@@ -30,16 +32,20 @@ public class Warehouse {
     @Column(name = "phone", length = 20)
     private String phone;
 
+    // Aggregates of the product_stock rows in the warehouse, maintained in SQL by StockAggregates; JPA writes them
+    // on insert only
     @Builder.Default
-    @Column(name = "total_products")
+    @Column(name = "total_products", updatable = false)
     private Integer totalProducts = 0;
 
+    // Units held in the warehouse
     @Builder.Default
-    @Column(name = "stock")
+    @Column(name = "stock", updatable = false)
     private Integer stock = 0;
 
+    // Number of products with stock on hand
     @Builder.Default
-    @Column(name = "qty")
+    @Column(name = "qty", updatable = false)
     private Integer qty = 0;
 
     @CreationTimestamp
@@ -56,5 +62,8 @@ public class Warehouse {
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", insertable = false, updatable = false)
     private User user;
-}
 
+    @UpdateTimestamp
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+}
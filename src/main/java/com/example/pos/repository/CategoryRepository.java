@@ -3,6 +3,7 @@ package com.example.pos.repository;
 import com.example.pos.entity.Category;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -16,15 +17,24 @@ public interface CategoryRepository extends JpaRepository<Category, Integer> {
     // Find all categories excluding DELETED status
     Page<Category> findByStatusNot(String status, Pageable pageable);
 
+    Slice<Category> findSliceByStatusNot(String status, Pageable pageable);
+
     // Find categories by status with pagination
     Page<Category> findByStatus(String status, Pageable pageable);
 
+    Slice<Category> findSliceByStatus(String status, Pageable pageable);
+
     // Search categories by name or slug with pagination
     @Query("SELECT c FROM Category c WHERE c.status != 'DELETED' AND " +
            "(LOWER(c.name) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
            "LOWER(c.slug) LIKE LOWER(CONCAT('%', :search, '%')))")
     Page<Category> searchCategories(@Param("search") String search, Pageable pageable);
 
+    @Query("SELECT c FROM Category c WHERE c.status != 'DELETED' AND " +
+           "(LOWER(c.name) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
+           "LOWER(c.slug) LIKE LOWER(CONCAT('%', :search, '%')))")
+    Slice<Category> searchCategoriesSlice(@Param("search") String search, Pageable pageable);
+
     // Search categories by status and search term with pagination
     @Query("SELECT c FROM Category c WHERE c.status = :status AND " +
            "c.status != 'DELETED' AND " +
@@ -34,6 +44,14 @@ public interface CategoryRepository extends JpaRepository<Category, Integer> {
                                              @Param("search") String search,
                                              Pageable pageable);
 
+    @Query("SELECT c FROM Category c WHERE c.status = :status AND " +
+           "c.status != 'DELETED' AND " +
+           "(LOWER(c.name) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
+           "LOWER(c.slug) LIKE LOWER(CONCAT('%', :search, '%')))")
+    Slice<Category> searchCategoriesByStatusSlice(@Param("status") String status,
+                                                   @Param("search") String search,
+                                                   Pageable pageable);
+
     // Find by slug (for uniqueness check)
     Optional<Category> findBySlug(String slug);
 }
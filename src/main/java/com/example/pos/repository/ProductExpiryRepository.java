@@ -0,0 +1,69 @@
+package com.example.pos.repository;
+
+import com.example.pos.entity.ProductSnapshot;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Expiry queries over the partial index idx_products_expiry (non-deleted products with an expiry date),
+ * which holds the products in expiry date order: a calendar of upcoming expiries.
+ */
+@Repository
+public class ProductExpiryRepository {
+
+    // Any constant shared by all instances; the expiry sweep runs under this transaction-level advisory lock
+    private static final long SWEEP_LOCK_KEY = 0x706f732d65787079L;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public ProductExpiryRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+    }
+
+    /**
+     * One day of the expiry calendar.
+     */
+    public record ExpiryDay(LocalDate date, long products, long quantity) {
+    }
+
+    /**
+     * Products and units expiring per day after {@code today}, up to and including {@code until}.
+     */
+    public List<ExpiryDay> countByDay(LocalDate today, LocalDate until) {
+        return jdbcTemplate.query("SELECT expired_date, count(*), COALESCE(sum(quantity), 0) FROM products " +
+                                  "WHERE status <> 'DELETED' AND expired_date IS NOT NULL " +
+                                  "AND expired_date > :today AND expired_date <= :until " +
+                                  "GROUP BY expired_date ORDER BY expired_date",
+                Map.of("today", today, "until", until),
+                (rs, rowNum) -> new ExpiryDay(rs.getObject(1, LocalDate.class), rs.getLong(2), rs.getLong(3)));
+    }
+
+    /**
+     * Takes the cluster-wide sweep lock for the current transaction; false when another instance holds it.
+     */
+    public boolean tryLockSweep() {
+        return Boolean.TRUE.equals(jdbcTemplate.getJdbcTemplate().queryForObject(
+                "SELECT pg_try_advisory_xact_lock(?)", Boolean.class, SWEEP_LOCK_KEY));
+    }
+
+    /**
+     * Marks the products expired on or before {@code today} that have not been swept since their current
+     * expiry date, optionally setting active ones inactive, and returns the changed rows.
+     */
+    public List<ProductSnapshot> sweepExpired(LocalDate today, boolean deactivate, LocalDateTime now) {
+        String status = deactivate ? "status = CASE WHEN LOWER(p.status) = 'active' THEN 'inactive' ELSE p.status END, " : "";
+        return jdbcTemplate.query("UPDATE products p SET " + status + "expiry_swept_at = :now, updated_at = :now " +
+                                  "WHERE p.status <> 'DELETED' AND p.expired_date IS NOT NULL " +
+                                  "AND p.expired_date <= :today " +
+                                  "AND (p.expiry_swept_at IS NULL OR p.expiry_swept_at < p.expired_date) " +
+                                  "RETURNING " + ProductImportRepository.SNAPSHOT_COLUMNS,
+                Map.of("today", today, "now", now),
+                ProductImportRepository.SNAPSHOT_MAPPER);
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.pos.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Forward-only JDBC read of the product catalog for exports. Rows are handed to the callback one at a
+ * time as the driver fetches them, so memory use does not grow with the catalog.
+ */
+@Repository
+public class ProductExportRepository {
+
+    // The PostgreSQL driver only uses a server-side cursor with a fetch size inside a transaction
+    private static final int FETCH_SIZE = 1000;
+
+    // Export column labels, in the order of EXPORT_SELECT
+    public static final List<String> COLUMNS = List.of(
+            "id", "sku", "name", "slug", "itemCode", "barcodeSymbology", "barcodeValue", "price", "quantity",
+            "qtyAlert", "status", "productType", "sellingType", "taxType", "discountType", "discountValue",
+            "category", "brand", "unit", "store", "warehouse", "manufacturer", "manufacturedDate", "expiredDate",
+            "createdAt", "updatedAt"
+    );
+
+    private static final String EXPORT_SELECT = "SELECT p.id, p.sku, p.name, p.slug, p.item_code, p.barcode_symbology, " +
+            "p.barcode_value, p.price, p.quantity, p.qty_alert, p.status, p.product_type, p.selling_type, p.tax_type, " +
+            "p.discount_type, p.discount_value, c.name, b.name, u.short_name, s.name, w.name, p.manufacturer, " +
+            "p.manufactured_date, p.expired_date, p.created_at, p.updated_at " +
+            "FROM products p " +
+            "LEFT JOIN categories c ON c.id = p.category_id " +
+            "LEFT JOIN brands b ON b.id = p.brand_id " +
+            "LEFT JOIN units u ON u.id = p.unit_id " +
+            "LEFT JOIN stores s ON s.id = p.store_id " +
+            "LEFT JOIN warehouses w ON w.id = p.warehouse_id " +
+            "WHERE ";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public ProductExportRepository(JdbcTemplate jdbcTemplate) {
+        JdbcTemplate streaming = new JdbcTemplate(jdbcTemplate.getDataSource());
+        streaming.setFetchSize(FETCH_SIZE);
+        this.jdbcTemplate = new NamedParameterJdbcTemplate(streaming);
+    }
+
+    /**
+     * Calls the handler for every product matching the filter, ordered by id, with the columns of {@link #COLUMNS}.
+     * Must run inside a transaction so the rows are fetched in batches of {@value #FETCH_SIZE}.
+     */
+    public void streamRows(ProductFilter filter, RowCallbackHandler handler) {
+        StringBuilder sql = new StringBuilder(EXPORT_SELECT);
+        Map<String, Object> params = new HashMap<>();
+        ProductFilterSql.append(sql, params, filter, true);
+        sql.append(" ORDER BY p.id");
+        jdbcTemplate.query(sql.toString(), params, handler);
+    }
+}
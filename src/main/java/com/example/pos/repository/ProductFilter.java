@@ -0,0 +1,29 @@
+package com.example.pos.repository;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Filter set shared by the product list queries.
+ * Text values are expected to be trimmed and lower-cased already; null means "no filter".
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ProductFilter {
+    private String status;
+    private String searchLower;
+    private Integer categoryId;
+    private Integer brandId;
+    private Integer unitId;
+    private Integer subCategoryId;
+    private Integer storeId;
+    private Integer warehouseId;
+    private String productTypeLower;
+    private String sellingTypeLower;
+    // searchLower is matched by trigram word similarity on search_text (native SQL only)
+    private boolean fuzzySearch;
+}
@@ -0,0 +1,67 @@
+package com.example.pos.repository;
+
+import java.util.Map;
+
+/**
+ * Renders a {@link ProductFilter} as a WHERE clause with named parameters, shared by the JPQL,
+ * native and JDBC product queries.
+ */
+final class ProductFilterSql {
+
+    private static final Map<String, String> NATIVE_COLUMNS = Map.of(
+            "categoryId", "category_id",
+            "brandId", "brand_id",
+            "unitId", "unit_id",
+            "subCategoryId", "sub_category_id",
+            "storeId", "store_id",
+            "warehouseId", "warehouse_id",
+            "productType", "product_type",
+            "sellingType", "selling_type",
+            "itemCode", "item_code"
+    );
+
+    private ProductFilterSql() {
+    }
+
+    /**
+     * Appends the predicates for the given filter (alias "p"), as JPQL or as native SQL. Only the
+     * filters that are set are rendered, so the planner sees a predicate it can match against the indexes.
+     */
+    static void append(StringBuilder where, Map<String, Object> params, ProductFilter filter, boolean nativeSql) {
+        if (filter.getStatus() != null) {
+            where.append("p.status = :status");
+            params.put("status", filter.getStatus());
+        } else {
+            where.append("p.status <> 'DELETED'");
+        }
+        appendEquals(where, params, column("categoryId", nativeSql), "categoryId", filter.getCategoryId());
+        appendEquals(where, params, column("brandId", nativeSql), "brandId", filter.getBrandId());
+        appendEquals(where, params, column("unitId", nativeSql), "unitId", filter.getUnitId());
+        appendEquals(where, params, column("subCategoryId", nativeSql), "subCategoryId", filter.getSubCategoryId());
+        appendEquals(where, params, column("storeId", nativeSql), "storeId", filter.getStoreId());
+        appendEquals(where, params, column("warehouseId", nativeSql), "warehouseId", filter.getWarehouseId());
+        appendEquals(where, params, "LOWER(" + column("productType", nativeSql) + ")", "productTypeLower", filter.getProductTypeLower());
+        appendEquals(where, params, "LOWER(" + column("sellingType", nativeSql) + ")", "sellingTypeLower", filter.getSellingTypeLower());
+        if (filter.getSearchLower() != null && !filter.getSearchLower().isEmpty()) {
+            if (nativeSql && filter.isFuzzySearch()) {
+                where.append(" AND (p.search_text LIKE :searchPattern OR :searchLower <% p.search_text)");
+                params.put("searchLower", filter.getSearchLower());
+            } else {
+                where.append(" AND (LOWER(p.name) LIKE :searchPattern OR LOWER(p.sku) LIKE :searchPattern OR LOWER(")
+                        .append(column("itemCode", nativeSql)).append(") LIKE :searchPattern)");
+            }
+            params.put("searchPattern", "%" + filter.getSearchLower() + "%");
+        }
+    }
+
+    private static void appendEquals(StringBuilder where, Map<String, Object> params, String path, String name, Object value) {
+        if (value != null) {
+            where.append(" AND ").append(path).append(" = :").append(name);
+            params.put(name, value);
+        }
+    }
+
+    private static String column(String property, boolean nativeSql) {
+        return "p." + (nativeSql ? NATIVE_COLUMNS.getOrDefault(property, property) : property);
+    }
+}
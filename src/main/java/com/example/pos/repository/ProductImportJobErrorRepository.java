@@ -0,0 +1,16 @@
+package com.example.pos.repository;
+
+import com.example.pos.entity.ProductImportJobError;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface ProductImportJobErrorRepository extends JpaRepository<ProductImportJobError, Long> {
+
+    List<ProductImportJobError> findByJobIdOrderByRowNumberAsc(Integer jobId, Pageable pageable);
+
+    long countByJobIdAndPartitionNo(Integer jobId, int partitionNo);
+}
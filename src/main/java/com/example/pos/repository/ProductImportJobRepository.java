@@ -0,0 +1,79 @@
+package com.example.pos.repository;
+
+import com.example.pos.entity.ProductImportJob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface ProductImportJobRepository extends JpaRepository<ProductImportJob, Integer> {
+
+    /**
+     * Jobs in the given states that the instance owns, or whose owner's lease has expired.
+     */
+    @Query(value = "SELECT * FROM product_import_jobs WHERE status IN (:statuses) " +
+                   "AND (owner = :owner OR owner IS NULL OR lease_expires_at IS NULL OR lease_expires_at < now()) " +
+                   "ORDER BY id",
+           nativeQuery = true)
+    List<ProductImportJob> findClaimable(@Param("statuses") Collection<String> statuses, @Param("owner") String owner);
+
+    /**
+     * Moves the job from one of the given states to RUNNING under the instance's lease; 0 when another worker
+     * got there first, or another instance still holds the job.
+     */
+    @Modifying
+    @Query(value = "UPDATE product_import_jobs SET status = 'RUNNING', started_at = now(), message = NULL, " +
+                   "owner = :owner, lease_expires_at = now() + make_interval(secs => :leaseSeconds), " +
+                   "updated_at = now() " +
+                   "WHERE id = :id AND status IN (:from) " +
+                   "AND (owner = :owner OR owner IS NULL OR lease_expires_at IS NULL OR lease_expires_at < now())",
+           nativeQuery = true)
+    int claim(@Param("id") Integer id, @Param("from") Collection<String> from, @Param("owner") String owner,
+              @Param("leaseSeconds") long leaseSeconds);
+
+    /**
+     * Extends the lease of the instance's queued and running jobs.
+     */
+    @Modifying
+    @Query(value = "UPDATE product_import_jobs SET lease_expires_at = now() + make_interval(secs => :leaseSeconds) " +
+                   "WHERE owner = :owner AND status IN ('QUEUED', 'RUNNING')",
+           nativeQuery = true)
+    int renewLeases(@Param("owner") String owner, @Param("leaseSeconds") long leaseSeconds);
+
+    /**
+     * Adds one committed chunk to the counters. Chunks of different partitions commit concurrently, so the
+     * counters are incremented in SQL rather than read and written back.
+     */
+    @Modifying
+    @Query(value = "UPDATE product_import_jobs SET rows_done = rows_done + :rows, imported = imported + :imported, " +
+                   "failed = failed + :failed, processing_millis = GREATEST(processing_millis, :processingMillis), " +
+                   "updated_at = now() WHERE id = :id",
+           nativeQuery = true)
+    int addChunk(@Param("id") Integer id,
+                 @Param("rows") long rows,
+                 @Param("imported") long imported,
+                 @Param("failed") long failed,
+                 @Param("processingMillis") long processingMillis);
+
+    /**
+     * Last committed row of one partition; a partition's chunks commit in file order.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO product_import_checkpoints (job_id, partition_no, checkpoint_row) " +
+                   "VALUES (:id, :partition, :row) " +
+                   "ON CONFLICT (job_id, partition_no) DO UPDATE SET checkpoint_row = EXCLUDED.checkpoint_row",
+           nativeQuery = true)
+    int saveCheckpoint(@Param("id") Integer id, @Param("partition") int partition, @Param("row") long row);
+
+    /**
+     * Pairs of partition number and last committed row.
+     */
+    @Query(value = "SELECT partition_no, checkpoint_row FROM product_import_checkpoints WHERE job_id = :id",
+           nativeQuery = true)
+    List<Object[]> findCheckpoints(@Param("id") Integer id);
+}
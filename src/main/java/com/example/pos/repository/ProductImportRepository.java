@@ -0,0 +1,300 @@
+package com.example.pos.repository;
+
+import com.example.pos.entity.Product;
+import com.example.pos.entity.ProductSnapshot;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * Set-based JDBC access for bulk product writes (CSV imports, bulk upsert, updates by filter): referenced ids
+ * checked with one query per table, code uniqueness checked with IN queries per batch, rows written as one JDBC
+ * batch, and filtered updates run as one UPDATE per id range.
+ */
+@Repository
+public class ProductImportRepository {
+
+    private static final Set<String> REFERENCE_TABLES = Set.of(
+            "units", "sub_categories", "categories", "brands", "stores", "warehouses"
+    );
+    private static final Set<String> UNIQUE_COLUMNS = Set.of("sku", "slug", "item_code");
+
+    private static final String INSERT = "INSERT INTO products (sku, name, slug, price, quantity, qty_alert, status, " +
+            "unit_id, sub_category_id, category_id, brand_id, store_id, warehouse_id, created_by, item_code, " +
+            "barcode_symbology, barcode_value, selling_type, product_type, tax_type, discount_type, discount_value, " +
+            "description, manufacturer, image_url, manufactured_date, expired_date, created_at, updated_at) " +
+            "VALUES (:sku, :name, :slug, :price, :quantity, :qtyAlert, :status, :unitId, :subCategoryId, :categoryId, " +
+            ":brandId, :storeId, :warehouseId, :createdBy, :itemCode, :barcodeSymbology, :barcodeValue, :sellingType, " +
+            ":productType, :taxType, :discountType, :discountValue, :description, :manufacturer, :imageUrl, " +
+            ":manufacturedDate, :expiredDate, :createdAt, :updatedAt)";
+
+    // Full replace of the editable columns; status, created_by and created_at keep their stored values, and
+    // quantity changes of existing rows go through the stock ledger (StockService.setQuantities)
+    private static final String UPSERT = INSERT + " ON CONFLICT (sku) DO UPDATE SET name = EXCLUDED.name, " +
+            "slug = EXCLUDED.slug, price = EXCLUDED.price, qty_alert = EXCLUDED.qty_alert, " +
+            "unit_id = EXCLUDED.unit_id, sub_category_id = EXCLUDED.sub_category_id, category_id = EXCLUDED.category_id, " +
+            "brand_id = EXCLUDED.brand_id, store_id = EXCLUDED.store_id, warehouse_id = EXCLUDED.warehouse_id, " +
+            "item_code = EXCLUDED.item_code, barcode_symbology = EXCLUDED.barcode_symbology, " +
+            "barcode_value = EXCLUDED.barcode_value, selling_type = EXCLUDED.selling_type, " +
+            "product_type = EXCLUDED.product_type, tax_type = EXCLUDED.tax_type, discount_type = EXCLUDED.discount_type, " +
+            "discount_value = EXCLUDED.discount_value, description = EXCLUDED.description, " +
+            "manufacturer = EXCLUDED.manufacturer, image_url = EXCLUDED.image_url, " +
+            "manufactured_date = EXCLUDED.manufactured_date, expired_date = EXCLUDED.expired_date, " +
+            "updated_at = EXCLUDED.updated_at";
+
+    // The ProductSnapshot columns, returned by bulk updates for the change event
+    static final String SNAPSHOT_COLUMNS = "p.id, p.name, p.sku, p.item_code, p.barcode_value, p.status, " +
+            "p.category_id, p.brand_id, p.unit_id, p.sub_category_id, p.store_id, p.warehouse_id, p.product_type, " +
+            "p.selling_type, p.price, p.quantity, p.qty_alert, p.created_at, p.updated_at";
+
+    static final RowMapper<ProductSnapshot> SNAPSHOT_MAPPER = (rs, rowNum) -> new ProductSnapshot(
+            rs.getInt(1), rs.getString(2), rs.getString(3), rs.getString(4), rs.getString(5), rs.getString(6),
+            (Integer) rs.getObject(7), (Integer) rs.getObject(8), (Integer) rs.getObject(9),
+            (Integer) rs.getObject(10), (Integer) rs.getObject(11), (Integer) rs.getObject(12),
+            rs.getString(13), rs.getString(14), rs.getBigDecimal(15), (Integer) rs.getObject(16),
+            (Integer) rs.getObject(17), rs.getObject(18, LocalDateTime.class), rs.getObject(19, LocalDateTime.class));
+
+    /**
+     * A stored product holding one of the looked-up codes.
+     */
+    public record CodeOwner(Integer id, String sku, String slug, String itemCode, String status) {
+
+        public boolean isDeleted() {
+            return "DELETED".equals(status);
+        }
+    }
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public ProductImportRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+    }
+
+    /**
+     * Every referenceable id (deleted rows included, as the single-product create accepts them).
+     */
+    public ProductReferences findReferences() {
+        return findReferences(null, null, null, null, null, null);
+    }
+
+    /**
+     * Which of the given ids exist, one query per table; a null collection loads the whole table.
+     */
+    public ProductReferences findReferences(Collection<Integer> unitIds, Collection<Integer> subCategoryIds,
+                                            Collection<Integer> categoryIds, Collection<Integer> brandIds,
+                                            Collection<Integer> storeIds, Collection<Integer> warehouseIds) {
+        Map<Integer, Integer> storeWarehouses = new HashMap<>();
+        if (storeIds == null || !storeIds.isEmpty()) {
+            Map<String, Object> params = storeIds == null ? Map.of() : Map.of("ids", storeIds);
+            jdbcTemplate.query("SELECT id, warehouse_id FROM stores" + (storeIds == null ? "" : " WHERE id IN (:ids)"),
+                    params,
+                    rs -> {
+                        storeWarehouses.put(rs.getInt(1), (Integer) rs.getObject(2));
+                    });
+        }
+        return new ProductReferences(
+                findIds("units", unitIds),
+                findIds("sub_categories", subCategoryIds),
+                findIds("categories", categoryIds),
+                findIds("brands", brandIds),
+                storeWarehouses,
+                findIds("warehouses", warehouseIds)
+        );
+    }
+
+    private Set<Integer> findIds(String table, Collection<Integer> ids) {
+        if (!REFERENCE_TABLES.contains(table)) {
+            throw new IllegalArgumentException("Not a product reference table: " + table);
+        }
+        if (ids == null) {
+            return new HashSet<>(jdbcTemplate.getJdbcTemplate().queryForList("SELECT id FROM " + table, Integer.class));
+        }
+        if (ids.isEmpty()) {
+            return Set.of();
+        }
+        return new HashSet<>(jdbcTemplate.queryForList("SELECT id FROM " + table + " WHERE id IN (:ids)",
+                Map.of("ids", ids), Integer.class));
+    }
+
+    /**
+     * The subset of values already present in a unique product column.
+     */
+    public Set<String> findExisting(String column, Collection<String> values) {
+        if (!UNIQUE_COLUMNS.contains(column)) {
+            throw new IllegalArgumentException("Not a unique product column: " + column);
+        }
+        if (values.isEmpty()) {
+            return Set.of();
+        }
+        return new HashSet<>(jdbcTemplate.queryForList(
+                "SELECT " + column + " FROM products WHERE " + column + " IN (:values)",
+                Map.of("values", values), String.class));
+    }
+
+    /**
+     * Products holding any of the given skus, slugs or item codes, in one query.
+     */
+    public List<CodeOwner> findCodeOwners(Collection<String> skus, Collection<String> slugs,
+                                          Collection<String> itemCodes) {
+        List<String> conditions = new ArrayList<>();
+        Map<String, Object> params = new HashMap<>();
+        if (!skus.isEmpty()) {
+            conditions.add("sku IN (:skus)");
+            params.put("skus", skus);
+        }
+        if (!slugs.isEmpty()) {
+            conditions.add("slug IN (:slugs)");
+            params.put("slugs", slugs);
+        }
+        if (!itemCodes.isEmpty()) {
+            conditions.add("item_code IN (:itemCodes)");
+            params.put("itemCodes", itemCodes);
+        }
+        if (conditions.isEmpty()) {
+            return List.of();
+        }
+        return jdbcTemplate.query(
+                "SELECT id, sku, slug, item_code, status FROM products WHERE " + String.join(" OR ", conditions),
+                params,
+                (rs, rowNum) -> new CodeOwner(rs.getInt(1), rs.getString(2), rs.getString(3), rs.getString(4),
+                        rs.getString(5)));
+    }
+
+    /**
+     * Inserts the products as one JDBC batch and sets their generated ids.
+     */
+    public void insertAll(List<Product> products) {
+        write(INSERT, products);
+    }
+
+    /**
+     * Inserts or, for skus already stored, overwrites the products as one JDBC batch and sets their ids.
+     */
+    public void upsertAll(List<Product> products) {
+        write(UPSERT, products);
+    }
+
+    private void write(String sql, List<Product> products) {
+        if (products.isEmpty()) {
+            return;
+        }
+        SqlParameterSource[] batch = new SqlParameterSource[products.size()];
+        for (int i = 0; i < products.size(); i++) {
+            batch[i] = parameters(products.get(i));
+        }
+        KeyHolder keys = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(sql, batch, keys, new String[]{"id"});
+        List<Map<String, Object>> generated = keys.getKeyList();
+        for (int i = 0; i < products.size(); i++) {
+            products.get(i).setId(((Number) generated.get(i).get("id")).intValue());
+        }
+    }
+
+    private static SqlParameterSource parameters(Product p) {
+        return new MapSqlParameterSource()
+                .addValue("sku", p.getSku())
+                .addValue("name", p.getName())
+                .addValue("slug", p.getSlug())
+                .addValue("price", p.getPrice())
+                .addValue("quantity", p.getQuantity())
+                .addValue("qtyAlert", p.getQtyAlert())
+                .addValue("status", p.getStatus())
+                .addValue("unitId", p.getUnitId())
+                .addValue("subCategoryId", p.getSubCategoryId())
+                .addValue("categoryId", p.getCategoryId())
+                .addValue("brandId", p.getBrandId())
+                .addValue("storeId", p.getStoreId())
+                .addValue("warehouseId", p.getWarehouseId())
+                .addValue("createdBy", p.getCreatedBy())
+                .addValue("itemCode", p.getItemCode())
+                .addValue("barcodeSymbology", p.getBarcodeSymbology())
+                .addValue("barcodeValue", p.getBarcodeValue())
+                .addValue("sellingType", p.getSellingType())
+                .addValue("productType", p.getProductType())
+                .addValue("taxType", p.getTaxType())
+                .addValue("discountType", p.getDiscountType())
+                .addValue("discountValue", p.getDiscountValue())
+                .addValue("description", p.getDescription())
+                .addValue("manufacturer", p.getManufacturer())
+                .addValue("imageUrl", p.getImageUrl())
+                .addValue("manufacturedDate", p.getManufacturedDate())
+                .addValue("expiredDate", p.getExpiredDate())
+                .addValue("createdAt", p.getCreatedAt())
+                .addValue("updatedAt", p.getUpdatedAt());
+    }
+
+    /**
+     * Lowest and highest id of the products matching the filter, or null when none match.
+     */
+    public long[] findIdRange(ProductFilter filter) {
+        StringBuilder sql = new StringBuilder("SELECT min(p.id), max(p.id) FROM products p WHERE ");
+        Map<String, Object> params = new HashMap<>();
+        ProductFilterSql.append(sql, params, filter, true);
+        return jdbcTemplate.query(sql.toString(), params, rs -> {
+            rs.next();
+            long min = rs.getLong(1);
+            return rs.wasNull() ? null : new long[]{min, rs.getLong(2)};
+        });
+    }
+
+    /**
+     * Applies the SET assignments to the products matching the filter with ids in [fromId, toId], as one
+     * statement, and returns the updated rows. {@code updated_at} is always set.
+     *
+     * @param assignments SQL assignments for the SET clause, with their named parameters in {@code params}
+     * @param condition   extra predicate on alias "p", or null
+     */
+    public List<ProductSnapshot> updateMatching(String assignments, String condition, Map<String, Object> params,
+                                                ProductFilter filter, long fromId, long toId) {
+        StringBuilder sql = new StringBuilder("UPDATE products p SET ").append(assignments)
+                .append(", updated_at = :updatedAt WHERE ");
+        Map<String, Object> allParams = new HashMap<>(params);
+        ProductFilterSql.append(sql, allParams, filter, true);
+        sql.append(" AND p.id BETWEEN :fromId AND :toId");
+        if (condition != null) {
+            sql.append(" AND (").append(condition).append(")");
+        }
+        sql.append(" RETURNING ").append(SNAPSHOT_COLUMNS);
+        allParams.put("updatedAt", LocalDateTime.now());
+        allParams.put("fromId", fromId);
+        allParams.put("toId", toId);
+        return jdbcTemplate.query(sql.toString(), allParams, SNAPSHOT_MAPPER);
+    }
+
+    /**
+     * Applies the SET assignments to the non-deleted products among the ids, as one statement, and returns
+     * the updated rows. {@code updated_at} is always set.
+     */
+    public List<ProductSnapshot> updateByIds(String assignments, String condition, Map<String, Object> params,
+                                             Collection<Integer> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        StringBuilder sql = new StringBuilder("UPDATE products p SET ").append(assignments)
+                .append(", updated_at = :updatedAt WHERE p.id IN (:ids) AND p.status <> 'DELETED'");
+        if (condition != null) {
+            sql.append(" AND (").append(condition).append(")");
+        }
+        sql.append(" RETURNING ").append(SNAPSHOT_COLUMNS);
+        Map<String, Object> allParams = new HashMap<>(params);
+        allParams.put("updatedAt", LocalDateTime.now());
+        allParams.put("ids", ids);
+        return jdbcTemplate.query(sql.toString(), allParams, SNAPSHOT_MAPPER);
+    }
+
+    /**
+     * Reserves n values of product_code_seq in one round trip, for codes of generated products.
+     */
+    public List<Long> nextCodeNumbers(int n) {
+        return jdbcTemplate.queryForList("SELECT nextval('product_code_seq') FROM generate_series(1, :n)",
+                Map.of("n", n), Long.class);
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.pos.repository;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Ids a product may reference that are known to exist. {@code storeWarehouses} maps every known store to
+ * the warehouse it is bound to (null when unbound).
+ */
+public record ProductReferences(Set<Integer> unitIds, Set<Integer> subCategoryIds, Set<Integer> categoryIds,
+                                Set<Integer> brandIds, Map<Integer, Integer> storeWarehouses,
+                                Set<Integer> warehouseIds) {
+}
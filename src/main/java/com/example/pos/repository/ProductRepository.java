@@ -1,20 +1,31 @@
 package com.example.pos.repository;
 
 import com.example.pos.entity.Product;
+import com.example.pos.entity.ProductSnapshot;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
 @Repository
-public interface ProductRepository extends JpaRepository<Product, Integer> {
+public interface ProductRepository extends JpaRepository<Product, Integer>, ProductRepositoryCustom {
 
     Boolean existsBySku(String sku);
     Boolean existsByItemCode(String itemCode);
     Boolean existsBySlug(String slug);
 
+    @EntityGraph(attributePaths = {"unit", "category", "brand", "createdByUser", "store", "warehouse"})
     @Query("SELECT p FROM Product p WHERE " +
            "((:status IS NULL AND p.status != 'DELETED') OR (p.status = :status)) AND " +
            "(:categoryId IS NULL OR p.categoryId = :categoryId) AND " +
@@ -43,10 +54,167 @@ public interface ProductRepository extends JpaRepository<Product, Integer> {
             Pageable pageable
     );
 
+    // Count-free variants (Slice) of the list queries, used when the caller does not need totals.
+    @EntityGraph(attributePaths = {"unit", "category", "brand", "createdByUser", "store", "warehouse"})
+    @Query("SELECT p FROM Product p WHERE " +
+           "((:status IS NULL AND p.status != 'DELETED') OR (p.status = :status)) AND " +
+           "(:categoryId IS NULL OR p.categoryId = :categoryId) AND " +
+           "(:brandId IS NULL OR p.brandId = :brandId) AND " +
+           "(:unitId IS NULL OR p.unitId = :unitId) AND " +
+           "(:subCategoryId IS NULL OR p.subCategoryId = :subCategoryId) AND " +
+           "(:storeId IS NULL OR p.storeId = :storeId) AND " +
+           "(:warehouseId IS NULL OR p.warehouseId = :warehouseId) AND " +
+           "(:productTypeLower IS NULL OR LOWER(p.productType) = :productTypeLower) AND " +
+           "(:sellingTypeLower IS NULL OR LOWER(p.sellingType) = :sellingTypeLower) AND " +
+           "(:searchLower IS NULL OR :searchLower = '' OR " +
+           " LOWER(p.name) LIKE CONCAT('%', :searchLower, '%') OR " +
+           " LOWER(p.sku) LIKE CONCAT('%', :searchLower, '%') OR " +
+           " LOWER(p.itemCode) LIKE CONCAT('%', :searchLower, '%'))")
+    Slice<Product> searchProductsSlice(
+            @Param("status") String status,
+            @Param("searchLower") String searchLower,
+            @Param("categoryId") Integer categoryId,
+            @Param("brandId") Integer brandId,
+            @Param("unitId") Integer unitId,
+            @Param("subCategoryId") Integer subCategoryId,
+            @Param("storeId") Integer storeId,
+            @Param("warehouseId") Integer warehouseId,
+            @Param("productTypeLower") String productTypeLower,
+            @Param("sellingTypeLower") String sellingTypeLower,
+            Pageable pageable
+    );
+
+    // Trigram search on the generated products.search_text column (see update-products-schema.sql), matched and
+    // ranked by word similarity: how well the query matches some part of the text, so a short query is not
+    // measured against the whole name + sku + item code. LIKE '%x%' and <% are both served by the GIN trigram index.
+    // Entity graphs do not apply to native queries, so these return ids; load the rows with findAllWithRelationsByIdIn.
+    @Query(value = "SELECT p.id FROM products p WHERE " +
+           "((CAST(:status AS varchar) IS NULL AND p.status <> 'DELETED') OR (p.status = CAST(:status AS varchar))) AND " +
+           "(CAST(:categoryId AS integer) IS NULL OR p.category_id = CAST(:categoryId AS integer)) AND " +
+           "(CAST(:brandId AS integer) IS NULL OR p.brand_id = CAST(:brandId AS integer)) AND " +
+           "(CAST(:unitId AS integer) IS NULL OR p.unit_id = CAST(:unitId AS integer)) AND " +
+           "(CAST(:subCategoryId AS integer) IS NULL OR p.sub_category_id = CAST(:subCategoryId AS integer)) AND " +
+           "(CAST(:storeId AS integer) IS NULL OR p.store_id = CAST(:storeId AS integer)) AND " +
+           "(CAST(:warehouseId AS integer) IS NULL OR p.warehouse_id = CAST(:warehouseId AS integer)) AND " +
+           "(CAST(:productTypeLower AS varchar) IS NULL OR LOWER(p.product_type) = CAST(:productTypeLower AS varchar)) AND " +
+           "(CAST(:sellingTypeLower AS varchar) IS NULL OR LOWER(p.selling_type) = CAST(:sellingTypeLower AS varchar)) AND " +
+           "(p.search_text LIKE CONCAT('%', CAST(:searchLower AS text), '%') OR CAST(:searchLower AS text) <% p.search_text) " +
+           "ORDER BY CAST(:searchLower AS text) <<-> p.search_text, p.id DESC",
+           countQuery = "SELECT COUNT(*) FROM products p WHERE " +
+           "((CAST(:status AS varchar) IS NULL AND p.status <> 'DELETED') OR (p.status = CAST(:status AS varchar))) AND " +
+           "(CAST(:categoryId AS integer) IS NULL OR p.category_id = CAST(:categoryId AS integer)) AND " +
+           "(CAST(:brandId AS integer) IS NULL OR p.brand_id = CAST(:brandId AS integer)) AND " +
+           "(CAST(:unitId AS integer) IS NULL OR p.unit_id = CAST(:unitId AS integer)) AND " +
+           "(CAST(:subCategoryId AS integer) IS NULL OR p.sub_category_id = CAST(:subCategoryId AS integer)) AND " +
+           "(CAST(:storeId AS integer) IS NULL OR p.store_id = CAST(:storeId AS integer)) AND " +
+           "(CAST(:warehouseId AS integer) IS NULL OR p.warehouse_id = CAST(:warehouseId AS integer)) AND " +
+           "(CAST(:productTypeLower AS varchar) IS NULL OR LOWER(p.product_type) = CAST(:productTypeLower AS varchar)) AND " +
+           "(CAST(:sellingTypeLower AS varchar) IS NULL OR LOWER(p.selling_type) = CAST(:sellingTypeLower AS varchar)) AND " +
+           "(p.search_text LIKE CONCAT('%', CAST(:searchLower AS text), '%') OR CAST(:searchLower AS text) <% p.search_text)",
+           nativeQuery = true)
+    Page<Integer> searchProductIdsTrigram(
+            @Param("status") String status,
+            @Param("searchLower") String searchLower,
+            @Param("categoryId") Integer categoryId,
+            @Param("brandId") Integer brandId,
+            @Param("unitId") Integer unitId,
+            @Param("subCategoryId") Integer subCategoryId,
+            @Param("storeId") Integer storeId,
+            @Param("warehouseId") Integer warehouseId,
+            @Param("productTypeLower") String productTypeLower,
+            @Param("sellingTypeLower") String sellingTypeLower,
+            Pageable pageable
+    );
+
+    @Query(value = "SELECT p.id FROM products p WHERE " +
+           "((CAST(:status AS varchar) IS NULL AND p.status <> 'DELETED') OR (p.status = CAST(:status AS varchar))) AND " +
+           "(CAST(:categoryId AS integer) IS NULL OR p.category_id = CAST(:categoryId AS integer)) AND " +
+           "(CAST(:brandId AS integer) IS NULL OR p.brand_id = CAST(:brandId AS integer)) AND " +
+           "(CAST(:unitId AS integer) IS NULL OR p.unit_id = CAST(:unitId AS integer)) AND " +
+           "(CAST(:subCategoryId AS integer) IS NULL OR p.sub_category_id = CAST(:subCategoryId AS integer)) AND " +
+           "(CAST(:storeId AS integer) IS NULL OR p.store_id = CAST(:storeId AS integer)) AND " +
+           "(CAST(:warehouseId AS integer) IS NULL OR p.warehouse_id = CAST(:warehouseId AS integer)) AND " +
+           "(CAST(:productTypeLower AS varchar) IS NULL OR LOWER(p.product_type) = CAST(:productTypeLower AS varchar)) AND " +
+           "(CAST(:sellingTypeLower AS varchar) IS NULL OR LOWER(p.selling_type) = CAST(:sellingTypeLower AS varchar)) AND " +
+           "(p.search_text LIKE CONCAT('%', CAST(:searchLower AS text), '%') OR CAST(:searchLower AS text) <% p.search_text) " +
+           "ORDER BY CAST(:searchLower AS text) <<-> p.search_text, p.id DESC",
+           nativeQuery = true)
+    Slice<Integer> searchProductIdsTrigramSlice(
+            @Param("status") String status,
+            @Param("searchLower") String searchLower,
+            @Param("categoryId") Integer categoryId,
+            @Param("brandId") Integer brandId,
+            @Param("unitId") Integer unitId,
+            @Param("subCategoryId") Integer subCategoryId,
+            @Param("storeId") Integer storeId,
+            @Param("warehouseId") Integer warehouseId,
+            @Param("productTypeLower") String productTypeLower,
+            @Param("sellingTypeLower") String sellingTypeLower,
+            Pageable pageable
+    );
+
+    @EntityGraph(attributePaths = {"unit", "category", "brand", "createdByUser", "store", "warehouse"})
     @Query("SELECT p FROM Product p WHERE p.status != 'DELETED' AND " +
+           "(:storeId IS NULL OR p.storeId = :storeId) AND " +
            "(p.qtyAlert IS NOT NULL AND p.quantity <= p.qtyAlert OR (:threshold IS NOT NULL AND p.quantity <= :threshold))")
-    Page<Product> findLowStocks(@Param("threshold") Integer threshold, Pageable pageable);
+    Page<Product> findLowStocks(@Param("storeId") Integer storeId, @Param("threshold") Integer threshold,
+                                Pageable pageable);
 
+    @EntityGraph(attributePaths = {"unit", "category", "brand", "createdByUser", "store", "warehouse"})
+    @Query("SELECT p FROM Product p WHERE p.status != 'DELETED' AND " +
+           "(:storeId IS NULL OR p.storeId = :storeId) AND " +
+           "(p.qtyAlert IS NOT NULL AND p.quantity <= p.qtyAlert OR (:threshold IS NOT NULL AND p.quantity <= :threshold))")
+    Slice<Product> findLowStocksSlice(@Param("storeId") Integer storeId, @Param("threshold") Integer threshold,
+                                      Pageable pageable);
+
+    @EntityGraph(attributePaths = {"unit", "category", "brand", "createdByUser", "store", "warehouse"})
     @Query("SELECT p FROM Product p WHERE p.status != 'DELETED' AND p.expiredDate IS NOT NULL AND p.expiredDate <= :today")
     Page<Product> findExpiredProducts(@Param("today") java.time.LocalDate today, Pageable pageable);
-}
\ No newline at end of file
+
+    @EntityGraph(attributePaths = {"unit", "category", "brand", "createdByUser", "store", "warehouse"})
+    @Query("SELECT p FROM Product p WHERE p.status != 'DELETED' AND p.expiredDate IS NOT NULL AND p.expiredDate <= :today")
+    Slice<Product> findExpiredProductsSlice(@Param("today") java.time.LocalDate today, Pageable pageable);
+
+    // Expiring after today and up to :until; served by the partial index idx_products_expiry
+    @EntityGraph(attributePaths = {"unit", "category", "brand", "createdByUser", "store", "warehouse"})
+    @Query("SELECT p FROM Product p WHERE p.status != 'DELETED' AND p.expiredDate IS NOT NULL AND " +
+           "p.expiredDate > :today AND p.expiredDate <= :until")
+    Page<Product> findExpiringProducts(@Param("today") java.time.LocalDate today,
+                                       @Param("until") java.time.LocalDate until, Pageable pageable);
+
+    @EntityGraph(attributePaths = {"unit", "category", "brand", "createdByUser", "store", "warehouse"})
+    @Query("SELECT p FROM Product p WHERE p.status != 'DELETED' AND p.expiredDate IS NOT NULL AND " +
+           "p.expiredDate > :today AND p.expiredDate <= :until")
+    Slice<Product> findExpiringProductsSlice(@Param("today") java.time.LocalDate today,
+                                             @Param("until") java.time.LocalDate until, Pageable pageable);
+
+    @EntityGraph(attributePaths = {"unit", "category", "brand", "createdByUser", "store", "warehouse"})
+    @Query("SELECT p FROM Product p WHERE p.id IN :ids")
+    List<Product> findAllWithRelationsByIdIn(@Param("ids") Collection<Integer> ids);
+
+    // Find by ID with relationships loaded using EntityGraph
+    @EntityGraph(attributePaths = {"unit", "category", "brand", "createdByUser", "store", "warehouse"})
+    @Query("SELECT p FROM Product p WHERE p.id = :id")
+    Optional<Product> findByIdWithRelations(@Param("id") Integer id);
+
+    // Catalog columns of all non-deleted products, streamed to warm up the in-memory product indexes
+    @QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = "1000"))
+    @Query("SELECT new com.example.pos.entity.ProductSnapshot(p.id, p.name, p.sku, p.itemCode, p.barcodeValue, " +
+           "p.status, p.categoryId, p.brandId, p.unitId, p.subCategoryId, p.storeId, p.warehouseId, p.productType, " +
+           "p.sellingType, p.price, p.quantity, p.qtyAlert, p.createdAt, p.updatedAt) " +
+           "FROM Product p WHERE p.status <> 'DELETED'")
+    Stream<ProductSnapshot> streamCatalogSnapshots();
+
+    // Catalog columns of rows written by bulk SQL, for the ProductsChangedEvent those writes publish
+    @Query("SELECT new com.example.pos.entity.ProductSnapshot(p.id, p.name, p.sku, p.itemCode, p.barcodeValue, " +
+           "p.status, p.categoryId, p.brandId, p.unitId, p.subCategoryId, p.storeId, p.warehouseId, p.productType, " +
+           "p.sellingType, p.price, p.quantity, p.qtyAlert, p.createdAt, p.updatedAt) " +
+           "FROM Product p WHERE p.id IN :ids")
+    List<ProductSnapshot> findSnapshotsByIdIn(@Param("ids") Collection<Integer> ids);
+
+    // Fallback for scan lookups that miss the in-memory code map; each column has its own index
+    @EntityGraph(attributePaths = {"unit", "category", "brand", "createdByUser", "store", "warehouse"})
+    @Query("SELECT p FROM Product p WHERE p.status <> 'DELETED' AND " +
+           "(p.barcodeValue = :code OR p.sku = :code OR p.itemCode = :code)")
+    List<Product> findActiveByCode(@Param("code") String code);
+}
@@ -0,0 +1,29 @@
+package com.example.pos.repository;
+
+import com.example.pos.entity.Product;
+
+import java.util.List;
+
+public interface ProductRepositoryCustom {
+
+    /**
+     * Keyset page: rows ordered by (sortBy, id) that come strictly after (afterValue, afterId).
+     * Pass a null afterId for the first page.
+     */
+    List<Product> findProductsAfter(ProductFilter filter, String sortBy, boolean descending,
+                                    Object afterValue, Integer afterId, int limit);
+
+    /**
+     * Planner row estimate for the given filter (EXPLAIN, no rows are read), or null if unavailable.
+     */
+    Long estimateProducts(ProductFilter filter);
+
+    /**
+     * Counts per category, brand, unit, store, product type and selling type for the given filter, in a
+     * single GROUPING SETS scan. The row with facet "total" carries the overall count.
+     */
+    List<FacetRow> countFacets(ProductFilter filter);
+
+    record FacetRow(String facet, String value, long count) {
+    }
+}
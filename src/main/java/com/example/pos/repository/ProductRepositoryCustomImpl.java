@@ -0,0 +1,112 @@
+package com.example.pos.repository;
+
+import com.example.pos.entity.Product;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+import jakarta.persistence.TypedQuery;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+public class ProductRepositoryCustomImpl implements ProductRepositoryCustom {
+
+    // Only NOT NULL columns can be used as keyset sort keys (created_at/updated_at: see update-products-schema.sql)
+    public static final Set<String> KEYSET_SORT_KEYS = Set.of("id", "createdAt", "updatedAt", "name", "price");
+
+    // Top plan node of EXPLAIN output, e.g. "Seq Scan on products p  (cost=0.00..1234.00 rows=5678 width=4)"
+    private static final Pattern PLAN_ROWS = Pattern.compile("rows=(\\d+)");
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<Product> findProductsAfter(ProductFilter filter, String sortBy, boolean descending,
+                                           Object afterValue, Integer afterId, int limit) {
+        if (!KEYSET_SORT_KEYS.contains(sortBy)) {
+            throw new IllegalArgumentException("Unsupported keyset sort key: " + sortBy);
+        }
+        String sortPath = "p." + sortBy;
+        String direction = descending ? " DESC" : " ASC";
+        String comparison = descending ? " < " : " > ";
+
+        StringBuilder jpql = new StringBuilder("SELECT p FROM Product p LEFT JOIN FETCH p.unit LEFT JOIN FETCH p.category" +
+                " LEFT JOIN FETCH p.brand LEFT JOIN FETCH p.createdByUser LEFT JOIN FETCH p.store" +
+                " LEFT JOIN FETCH p.warehouse WHERE ");
+        Map<String, Object> params = new HashMap<>();
+        ProductFilterSql.append(jpql, params, filter, false);
+
+        if (afterId != null) {
+            if ("id".equals(sortBy)) {
+                jpql.append(" AND p.id").append(comparison).append(":afterId");
+            } else {
+                // Row comparison, so the planner seeks the (sort key, id) index directly
+                jpql.append(" AND (").append(sortPath).append(", p.id)").append(comparison)
+                        .append("(:afterValue, :afterId)");
+                params.put("afterValue", afterValue);
+            }
+            params.put("afterId", afterId);
+        }
+
+        jpql.append(" ORDER BY ").append(sortPath).append(direction);
+        if (!"id".equals(sortBy)) {
+            jpql.append(", p.id").append(direction);
+        }
+
+        TypedQuery<Product> query = entityManager.createQuery(jpql.toString(), Product.class);
+        params.forEach(query::setParameter);
+        return query.setMaxResults(limit).getResultList();
+    }
+
+    @Override
+    public Long estimateProducts(ProductFilter filter) {
+        StringBuilder sql = new StringBuilder("EXPLAIN SELECT 1 FROM products p WHERE ");
+        Map<String, Object> params = new HashMap<>();
+        ProductFilterSql.append(sql, params, filter, true);
+
+        Query query = entityManager.createNativeQuery(sql.toString());
+        params.forEach(query::setParameter);
+        List<?> plan = query.getResultList();
+        if (plan.isEmpty()) {
+            return null;
+        }
+        Matcher matcher = PLAN_ROWS.matcher(String.valueOf(plan.get(0)));
+        return matcher.find() ? Long.valueOf(matcher.group(1)) : null;
+    }
+
+    @Override
+    public List<FacetRow> countFacets(ProductFilter filter) {
+        StringBuilder sql = new StringBuilder(
+                "SELECT CASE" +
+                " WHEN GROUPING(p.category_id) = 0 THEN 'category'" +
+                " WHEN GROUPING(p.brand_id) = 0 THEN 'brand'" +
+                " WHEN GROUPING(p.unit_id) = 0 THEN 'unit'" +
+                " WHEN GROUPING(p.store_id) = 0 THEN 'store'" +
+                " WHEN GROUPING(LOWER(p.product_type)) = 0 THEN 'productType'" +
+                " WHEN GROUPING(LOWER(p.selling_type)) = 0 THEN 'sellingType'" +
+                " ELSE 'total' END," +
+                " COALESCE(CAST(p.category_id AS text), CAST(p.brand_id AS text), CAST(p.unit_id AS text)," +
+                " CAST(p.store_id AS text), LOWER(p.product_type), LOWER(p.selling_type))," +
+                " COUNT(*)" +
+                " FROM products p WHERE ");
+        Map<String, Object> params = new HashMap<>();
+        ProductFilterSql.append(sql, params, filter, true);
+        sql.append(" GROUP BY GROUPING SETS ((p.category_id), (p.brand_id), (p.unit_id), (p.store_id)," +
+                " (LOWER(p.product_type)), (LOWER(p.selling_type)), ())");
+
+        Query query = entityManager.createNativeQuery(sql.toString());
+        params.forEach(query::setParameter);
+        List<?> rows = query.getResultList();
+        List<FacetRow> facets = new ArrayList<>(rows.size());
+        for (Object row : rows) {
+            Object[] columns = (Object[]) row;
+            facets.add(new FacetRow((String) columns[0], (String) columns[1], ((Number) columns[2]).longValue()));
+        }
+        return facets;
+    }
+}
@@ -0,0 +1,165 @@
+package com.example.pos.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * JDBC access to product_stock, the stock of each product per warehouse. The primary key
+ * (product_id, warehouse_id) and the index (warehouse_id, product_id) both include quantity and reserved, so
+ * the reads here are index-only range scans.
+ * <p>
+ * Writers lock the product rows first (see {@code StockLedgerRepository}), which serialises all changes to
+ * a product's stock rows without locking them separately.
+ */
+@Repository
+public class ProductStockRepository {
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public ProductStockRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+    }
+
+    /**
+     * A product in a warehouse; ordered by product, then warehouse.
+     */
+    public record Key(Integer productId, Integer warehouseId) implements Comparable<Key> {
+        @Override
+        public int compareTo(Key other) {
+            int byProduct = productId.compareTo(other.productId);
+            return byProduct != 0 ? byProduct : warehouseId.compareTo(other.warehouseId);
+        }
+    }
+
+    public record WarehouseStock(Integer warehouseId, String warehouseName, int quantity, int reserved,
+                                 LocalDateTime updatedAt) {
+    }
+
+    public record Totals(long quantity, long reserved, int warehouses) {
+    }
+
+    /**
+     * Whether any non-deleted product has units in the warehouse; read from product_stock rather than the
+     * warehouse's aggregates, which trail by a flush.
+     */
+    public boolean hasStock(Integer warehouseId) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject("SELECT EXISTS (SELECT 1 FROM product_stock ps " +
+                        "JOIN products p ON p.id = ps.product_id AND p.status <> 'DELETED' " +
+                        "WHERE ps.warehouse_id = :warehouseId AND ps.quantity > 0)",
+                Map.of("warehouseId", warehouseId), Boolean.class));
+    }
+
+    /**
+     * The product's stock in every warehouse holding a row for it, in warehouse id order.
+     */
+    public List<WarehouseStock> findByProduct(Integer productId) {
+        return jdbcTemplate.query("SELECT ps.warehouse_id, w.name, ps.quantity, ps.reserved, ps.updated_at " +
+                                  "FROM product_stock ps LEFT JOIN warehouses w ON w.id = ps.warehouse_id " +
+                                  "WHERE ps.product_id = :productId ORDER BY ps.warehouse_id",
+                Map.of("productId", productId),
+                (rs, rowNum) -> new WarehouseStock(rs.getInt(1), rs.getString(2), rs.getInt(3), rs.getInt(4),
+                        rs.getObject(5, LocalDateTime.class)));
+    }
+
+    /**
+     * Stock totals per product over all warehouses, in one grouped query. {@code warehouses} counts the
+     * warehouses holding any stock of the product.
+     */
+    public Map<Integer, Totals> findTotals(Collection<Integer> productIds) {
+        Map<Integer, Totals> totals = new HashMap<>();
+        if (productIds.isEmpty()) {
+            return totals;
+        }
+        jdbcTemplate.query("SELECT product_id, sum(quantity), sum(reserved), count(*) FILTER (WHERE quantity > 0) " +
+                           "FROM product_stock WHERE product_id IN (:ids) GROUP BY product_id",
+                Map.of("ids", productIds),
+                rs -> {
+                    totals.put(rs.getInt(1), new Totals(rs.getLong(2), rs.getLong(3), rs.getInt(4)));
+                });
+        return totals;
+    }
+
+    /**
+     * Current quantities of the given product/warehouse pairs; pairs without a row are absent.
+     */
+    public Map<Key, Integer> findQuantities(Collection<Key> keys) {
+        Map<Key, Integer> quantities = new HashMap<>();
+        if (keys.isEmpty()) {
+            return quantities;
+        }
+        Set<Integer> productIds = new HashSet<>();
+        keys.forEach(k -> productIds.add(k.productId()));
+        jdbcTemplate.query("SELECT product_id, warehouse_id, quantity FROM product_stock WHERE product_id IN (:ids)",
+                Map.of("ids", productIds),
+                rs -> {
+                    Key key = new Key(rs.getInt(1), rs.getInt(2));
+                    if (keys.contains(key)) {
+                        quantities.put(key, rs.getInt(3));
+                    }
+                });
+        return quantities;
+    }
+
+    /**
+     * Adds each delta to its product/warehouse row, creating missing rows, as one JDBC batch in key order.
+     */
+    public void addQuantities(SortedMap<Key, Integer> deltas, LocalDateTime updatedAt) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+        SqlParameterSource[] batch = deltas.entrySet().stream()
+                .map(e -> new MapSqlParameterSource()
+                        .addValue("productId", e.getKey().productId())
+                        .addValue("warehouseId", e.getKey().warehouseId())
+                        .addValue("delta", e.getValue())
+                        .addValue("updatedAt", updatedAt))
+                .toArray(SqlParameterSource[]::new);
+        jdbcTemplate.batchUpdate("INSERT INTO product_stock (product_id, warehouse_id, quantity, reserved, updated_at) " +
+                                 "VALUES (:productId, :warehouseId, :delta, 0, :updatedAt) " +
+                                 "ON CONFLICT (product_id, warehouse_id) DO UPDATE SET " +
+                                 "quantity = product_stock.quantity + EXCLUDED.quantity, updated_at = EXCLUDED.updated_at",
+                batch);
+    }
+
+    /**
+     * Sets the row of each product's own warehouse to the product's quantity less its stock elsewhere, so
+     * the rows add up to the quantity again after it was written directly (insert, import, upsert), or after
+     * the product moved to another warehouse. Products without a warehouse have no rows.
+     */
+    public void syncHome(Collection<Integer> productIds) {
+        if (productIds.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.update("INSERT INTO product_stock (product_id, warehouse_id, quantity, reserved, updated_at) " +
+                            "SELECT p.id, p.warehouse_id, p.quantity - COALESCE((SELECT sum(o.quantity) " +
+                            "FROM product_stock o WHERE o.product_id = p.id AND o.warehouse_id <> p.warehouse_id), 0), " +
+                            "0, :now FROM products p WHERE p.id IN (:ids) AND p.warehouse_id IS NOT NULL " +
+                            "ON CONFLICT (product_id, warehouse_id) DO UPDATE SET quantity = EXCLUDED.quantity, " +
+                            "updated_at = EXCLUDED.updated_at WHERE product_stock.quantity <> EXCLUDED.quantity",
+                new MapSqlParameterSource("ids", productIds).addValue("now", LocalDateTime.now()));
+    }
+
+    /**
+     * Records each product's reserved units on the row of its own warehouse, where reservations are taken.
+     */
+    public void setReserved(Map<Integer, Integer> reservedByProduct) {
+        if (reservedByProduct.isEmpty()) {
+            return;
+        }
+        SqlParameterSource[] batch = new TreeMap<>(reservedByProduct).entrySet().stream()
+                .map(e -> new MapSqlParameterSource()
+                        .addValue("productId", e.getKey())
+                        .addValue("reserved", e.getValue()))
+                .toArray(SqlParameterSource[]::new);
+        jdbcTemplate.batchUpdate("UPDATE product_stock ps SET reserved = :reserved FROM products p " +
+                                 "WHERE p.id = :productId AND ps.product_id = p.id AND ps.warehouse_id = p.warehouse_id " +
+                                 "AND ps.reserved <> :reserved",
+                batch);
+    }
+}
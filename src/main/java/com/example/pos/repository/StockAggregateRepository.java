@@ -0,0 +1,134 @@
+package com.example.pos.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.stereotype.Repository;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SortedMap;
+
+/**
+ * SQL upkeep of the product aggregates on stores (total_products, total_stock) and warehouses
+ * (total_products, stock, qty): coalesced deltas added in one batch per table, and a full recompute.
+ * Store aggregates count the products of the store and their total quantity; warehouse aggregates come from
+ * product_stock: the products with a row in the warehouse, the units there, and the products with units there.
+ */
+@Repository
+public class StockAggregateRepository {
+
+    private static final String RECOMPUTE_STORES = "UPDATE stores s SET total_products = a.products, " +
+            "total_stock = a.stock, updated_at = now() " +
+            "FROM (SELECT s2.id, count(p.id) AS products, COALESCE(sum(p.quantity), 0) AS stock " +
+            "FROM stores s2 LEFT JOIN products p ON p.store_id = s2.id AND p.status <> 'DELETED' GROUP BY s2.id) a " +
+            "WHERE s.id = a.id AND (s.total_products, s.total_stock) IS DISTINCT FROM (a.products, a.stock)";
+
+    private static final String RECOMPUTE_WAREHOUSES = "UPDATE warehouses w SET total_products = a.products, " +
+            "stock = a.stock, qty = a.in_stock, updated_at = now() " +
+            "FROM (SELECT w2.id, count(ps.product_id) AS products, COALESCE(sum(ps.quantity), 0) AS stock, " +
+            "count(ps.product_id) FILTER (WHERE ps.quantity > 0) AS in_stock " +
+            "FROM warehouses w2 LEFT JOIN (product_stock ps JOIN products p ON p.id = ps.product_id " +
+            "AND p.status <> 'DELETED') ON ps.warehouse_id = w2.id GROUP BY w2.id) a " +
+            "WHERE w.id = a.id AND (w.total_products, w.stock, w.qty) IS DISTINCT FROM (a.products, a.stock, a.in_stock)";
+
+    // A product's contribution: its store and total, and its units per warehouse
+    private static final String HOLDINGS = "SELECT p.id, p.store_id, p.quantity, ps.warehouse_id, ps.quantity " +
+            "FROM products p LEFT JOIN product_stock ps ON ps.product_id = p.id WHERE p.status <> 'DELETED'";
+
+    /**
+     * What a non-deleted product adds to the aggregates: its store and total quantity, and its quantity per
+     * warehouse it has a product_stock row in.
+     */
+    public record Holding(Integer storeId, int quantity, Map<Integer, Integer> warehouses) {
+    }
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public StockAggregateRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+    }
+
+    /**
+     * Adds {products, stock} deltas per store id, in id order.
+     */
+    public void addStoreDeltas(SortedMap<Integer, long[]> deltas) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+        SqlParameterSource[] batch = deltas.entrySet().stream()
+                .map(e -> new MapSqlParameterSource()
+                        .addValue("id", e.getKey())
+                        .addValue("products", e.getValue()[0])
+                        .addValue("stock", e.getValue()[1]))
+                .toArray(SqlParameterSource[]::new);
+        jdbcTemplate.batchUpdate("UPDATE stores SET total_products = COALESCE(total_products, 0) + :products, " +
+                "total_stock = COALESCE(total_stock, 0) + :stock, updated_at = now() WHERE id = :id", batch);
+    }
+
+    /**
+     * Adds {products, stock, in-stock products} deltas per warehouse id, in id order.
+     */
+    public void addWarehouseDeltas(SortedMap<Integer, long[]> deltas) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+        SqlParameterSource[] batch = deltas.entrySet().stream()
+                .map(e -> new MapSqlParameterSource()
+                        .addValue("id", e.getKey())
+                        .addValue("products", e.getValue()[0])
+                        .addValue("stock", e.getValue()[1])
+                        .addValue("qty", e.getValue()[2]))
+                .toArray(SqlParameterSource[]::new);
+        jdbcTemplate.batchUpdate("UPDATE warehouses SET total_products = COALESCE(total_products, 0) + :products, " +
+                "stock = COALESCE(stock, 0) + :stock, qty = COALESCE(qty, 0) + :qty, updated_at = now() " +
+                "WHERE id = :id", batch);
+    }
+
+    /**
+     * Recomputes every store's and warehouse's aggregates from the products; returns the rows corrected.
+     */
+    public int recomputeAll() {
+        return jdbcTemplate.getJdbcTemplate().update(RECOMPUTE_STORES)
+                + jdbcTemplate.getJdbcTemplate().update(RECOMPUTE_WAREHOUSES);
+    }
+
+    /**
+     * The holdings of every non-deleted product, streamed in one query.
+     */
+    public Map<Integer, Holding> findAllHoldings() {
+        Map<Integer, Holding> holdings = new HashMap<>();
+        jdbcTemplate.getJdbcTemplate().query(HOLDINGS, (RowCallbackHandler) rs -> addHolding(holdings, rs));
+        return holdings;
+    }
+
+    /**
+     * The holdings of the given products; deleted and missing ones are absent.
+     */
+    public Map<Integer, Holding> findHoldings(Collection<Integer> productIds) {
+        Map<Integer, Holding> holdings = new HashMap<>();
+        if (productIds.isEmpty()) {
+            return holdings;
+        }
+        jdbcTemplate.query(HOLDINGS + " AND p.id IN (:ids)", Map.of("ids", productIds),
+                (RowCallbackHandler) rs -> addHolding(holdings, rs));
+        return holdings;
+    }
+
+    private static void addHolding(Map<Integer, Holding> holdings, ResultSet rs) throws SQLException {
+        Holding holding = holdings.get(rs.getInt(1));
+        if (holding == null) {
+            holding = new Holding((Integer) rs.getObject(2), rs.getInt(3), new HashMap<>());
+            holdings.put(rs.getInt(1), holding);
+        }
+        Integer warehouseId = (Integer) rs.getObject(4);
+        if (warehouseId != null) {
+            holding.warehouses().put(warehouseId, rs.getInt(5));
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.example.pos.repository;
+
+import com.example.pos.entity.StockMovement;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * JDBC writes of product quantities and the stock ledger. Quantities only change through
+ * {@code quantity = quantity + delta}, on rows locked in id order, so concurrent writers neither lose
+ * updates nor deadlock on each other.
+ */
+@Repository
+public class StockLedgerRepository {
+
+    private static final String INSERT_MOVEMENT = "INSERT INTO stock_movements (product_id, warehouse_id, store_id, " +
+            "movement_type, quantity, quantity_after, reference, note, created_by, created_at) " +
+            "VALUES (:productId, :warehouseId, :storeId, :movementType, :quantity, :quantityAfter, :reference, :note, " +
+            ":createdBy, :createdAt)";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public StockLedgerRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+    }
+
+    /**
+     * The stored quantity of a product, or null when it does not exist.
+     */
+    public Integer findQuantity(Integer id) {
+        List<Integer> quantities = jdbcTemplate.queryForList("SELECT quantity FROM products WHERE id = :id",
+                Map.of("id", id), Integer.class);
+        return quantities.isEmpty() ? null : quantities.get(0);
+    }
+
+    /**
+     * Row-locks the non-deleted products among the ids, in id order, until the transaction ends, and returns
+     * their current quantities. Ids that are missing or deleted are absent from the result.
+     */
+    public Map<Integer, Integer> lockQuantities(Collection<Integer> ids) {
+        Map<Integer, Integer> quantities = new HashMap<>();
+        if (ids.isEmpty()) {
+            return quantities;
+        }
+        jdbcTemplate.query("SELECT id, quantity FROM products WHERE id IN (:ids) AND status <> 'DELETED' " +
+                           "ORDER BY id FOR UPDATE",
+                Map.of("ids", ids),
+                rs -> {
+                    quantities.put(rs.getInt(1), rs.getInt(2));
+                });
+        return quantities;
+    }
+
+    /**
+     * A locked product row: its total quantity and its own warehouse.
+     */
+    public record LockedProduct(int quantity, Integer warehouseId) {
+    }
+
+    /**
+     * As {@link #lockQuantities}, also returning each product's warehouse.
+     */
+    public Map<Integer, LockedProduct> lockProducts(Collection<Integer> ids) {
+        Map<Integer, LockedProduct> products = new HashMap<>();
+        if (ids.isEmpty()) {
+            return products;
+        }
+        jdbcTemplate.query("SELECT id, quantity, warehouse_id FROM products WHERE id IN (:ids) AND status <> 'DELETED' " +
+                           "ORDER BY id FOR UPDATE",
+                Map.of("ids", ids),
+                rs -> {
+                    products.put(rs.getInt(1), new LockedProduct(rs.getInt(2), (Integer) rs.getObject(3)));
+                });
+        return products;
+    }
+
+    /**
+     * Adds each delta to its product's quantity, as one JDBC batch in id order.
+     */
+    public void addQuantities(SortedMap<Integer, Integer> deltas, LocalDateTime updatedAt) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+        SqlParameterSource[] batch = deltas.entrySet().stream()
+                .map(e -> new MapSqlParameterSource()
+                        .addValue("id", e.getKey())
+                        .addValue("delta", e.getValue())
+                        .addValue("updatedAt", updatedAt))
+                .toArray(SqlParameterSource[]::new);
+        jdbcTemplate.batchUpdate(
+                "UPDATE products SET quantity = quantity + :delta, updated_at = :updatedAt WHERE id = :id", batch);
+    }
+
+    /**
+     * Appends the movements to the ledger as one JDBC batch and sets their generated ids.
+     */
+    public void insertMovements(List<StockMovement> movements) {
+        if (movements.isEmpty()) {
+            return;
+        }
+        SqlParameterSource[] batch = movements.stream()
+                .map(m -> new MapSqlParameterSource()
+                        .addValue("productId", m.getProductId())
+                        .addValue("warehouseId", m.getWarehouseId())
+                        .addValue("storeId", m.getStoreId())
+                        .addValue("movementType", m.getMovementType())
+                        .addValue("quantity", m.getQuantity())
+                        .addValue("quantityAfter", m.getQuantityAfter())
+                        .addValue("reference", m.getReference())
+                        .addValue("note", m.getNote())
+                        .addValue("createdBy", m.getCreatedBy())
+                        .addValue("createdAt", m.getCreatedAt()))
+                .toArray(SqlParameterSource[]::new);
+        KeyHolder keys = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(INSERT_MOVEMENT, batch, keys, new String[]{"id"});
+        List<Map<String, Object>> generated = keys.getKeyList();
+        for (int i = 0; i < movements.size(); i++) {
+            movements.get(i).setId(((Number) generated.get(i).get("id")).longValue());
+        }
+    }
+}
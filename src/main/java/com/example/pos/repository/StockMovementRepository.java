@@ -0,0 +1,20 @@
+package com.example.pos.repository;
+
+import com.example.pos.entity.StockMovement;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface StockMovementRepository extends JpaRepository<StockMovement, Long> {
+
+    // Newest first, keyset-paged by id; served by the (product_id, id) and (warehouse_id, id) indexes
+    List<StockMovement> findByProductIdAndIdLessThanOrderByIdDesc(Integer productId, Long beforeId, Pageable pageable);
+
+    List<StockMovement> findByWarehouseIdAndIdLessThanOrderByIdDesc(Integer warehouseId, Long beforeId, Pageable pageable);
+
+    List<StockMovement> findByProductIdAndWarehouseIdAndIdLessThanOrderByIdDesc(Integer productId, Integer warehouseId,
+                                                                                Long beforeId, Pageable pageable);
+}
@@ -0,0 +1,76 @@
+package com.example.pos.repository;
+
+import com.example.pos.entity.StockReservation;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * JDBC writes of the stock reservation backup, batched by the write-behind flush of
+ * {@code StockReservations}.
+ */
+@Repository
+public class StockReservationRepository {
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public StockReservationRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+    }
+
+    /**
+     * Inserts the reservations, or updates the expiry of those already stored, as one JDBC batch.
+     */
+    public void upsertAll(Collection<StockReservation> reservations) {
+        if (reservations.isEmpty()) {
+            return;
+        }
+        SqlParameterSource[] batch = reservations.stream()
+                .map(r -> new MapSqlParameterSource()
+                        .addValue("id", r.getId())
+                        .addValue("productId", r.getProductId())
+                        .addValue("quantity", r.getQuantity())
+                        .addValue("reference", r.getReference())
+                        .addValue("createdBy", r.getCreatedBy())
+                        .addValue("createdAt", r.getCreatedAt())
+                        .addValue("expiresAt", r.getExpiresAt()))
+                .toArray(SqlParameterSource[]::new);
+        jdbcTemplate.batchUpdate("INSERT INTO stock_reservations (id, product_id, quantity, reference, created_by, " +
+                                 "created_at, expires_at) VALUES (:id, :productId, :quantity, :reference, :createdBy, " +
+                                 ":createdAt, :expiresAt) ON CONFLICT (id) DO UPDATE SET expires_at = EXCLUDED.expires_at",
+                batch);
+    }
+
+    public void deleteByIds(Collection<UUID> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.update("DELETE FROM stock_reservations WHERE id IN (:ids)", Map.of("ids", ids));
+    }
+
+    /**
+     * Deletes the reservations that expired before {@code now} and returns the others.
+     */
+    public List<StockReservation> loadActive(LocalDateTime now) {
+        jdbcTemplate.update("DELETE FROM stock_reservations WHERE expires_at <= :now", Map.of("now", now));
+        return jdbcTemplate.query("SELECT id, product_id, quantity, reference, created_by, created_at, expires_at " +
+                                  "FROM stock_reservations",
+                (rs, rowNum) -> StockReservation.builder()
+                        .id(rs.getObject(1, UUID.class))
+                        .productId(rs.getInt(2))
+                        .quantity(rs.getInt(3))
+                        .reference(rs.getString(4))
+                        .createdBy((Integer) rs.getObject(5))
+                        .createdAt(rs.getObject(6, LocalDateTime.class))
+                        .expiresAt(rs.getObject(7, LocalDateTime.class))
+                        .build());
+    }
+}
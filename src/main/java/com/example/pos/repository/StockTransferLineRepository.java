@@ -0,0 +1,51 @@
+package com.example.pos.repository;
+
+import com.example.pos.entity.StockTransferLine;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * JDBC access to stock transfer lines: written as one batch with their document, read back a chunk at a
+ * time along the primary key.
+ */
+@Repository
+public class StockTransferLineRepository {
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public StockTransferLineRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+    }
+
+    public void insertAll(List<StockTransferLine> lines) {
+        if (lines.isEmpty()) {
+            return;
+        }
+        SqlParameterSource[] batch = lines.stream()
+                .map(l -> new MapSqlParameterSource()
+                        .addValue("transferId", l.getTransferId())
+                        .addValue("lineNo", l.getLineNo())
+                        .addValue("productId", l.getProductId())
+                        .addValue("quantity", l.getQuantity()))
+                .toArray(SqlParameterSource[]::new);
+        jdbcTemplate.batchUpdate("INSERT INTO stock_transfer_lines (transfer_id, line_no, product_id, quantity) " +
+                                 "VALUES (:transferId, :lineNo, :productId, :quantity)",
+                batch);
+    }
+
+    /**
+     * Up to {@code limit} lines after line {@code afterLineNo}, in line order.
+     */
+    public List<StockTransferLine> findChunk(Integer transferId, int afterLineNo, int limit) {
+        return jdbcTemplate.query("SELECT transfer_id, line_no, product_id, quantity FROM stock_transfer_lines " +
+                                  "WHERE transfer_id = :transferId AND line_no > :after ORDER BY line_no LIMIT :limit",
+                Map.of("transferId", transferId, "after", afterLineNo, "limit", limit),
+                (rs, rowNum) -> new StockTransferLine(rs.getInt(1), rs.getInt(2), rs.getInt(3), rs.getInt(4)));
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.pos.repository;
+
+import com.example.pos.entity.StockTransfer;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface StockTransferRepository extends JpaRepository<StockTransfer, Integer> {
+
+    List<StockTransfer> findByStatusInOrderByIdAsc(Collection<String> statuses);
+
+    /**
+     * Moves the transfer from one of the given states to RUNNING; 0 when another worker got there first.
+     */
+    @Modifying
+    @Query("UPDATE StockTransfer t SET t.status = 'RUNNING', t.startedAt = CURRENT_TIMESTAMP, " +
+           "t.message = NULL, t.updatedAt = CURRENT_TIMESTAMP " +
+           "WHERE t.id = :id AND t.status IN :from")
+    int claim(@Param("id") Integer id, @Param("from") Collection<String> from);
+
+    /**
+     * Records a committed chunk; runs in the chunk's transaction, so progress commits exactly with the stock.
+     */
+    @Modifying
+    @Query(value = "UPDATE stock_transfers SET lines_done = :linesDone, updated_at = now() WHERE id = :id",
+           nativeQuery = true)
+    int saveProgress(@Param("id") Integer id, @Param("linesDone") int linesDone);
+}
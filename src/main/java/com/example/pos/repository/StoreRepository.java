@@ -3,6 +3,7 @@ package com.example.pos.repository;
 import com.example.pos.entity.Store;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
@@ -20,11 +21,19 @@ public interface StoreRepository extends JpaRepository<Store, Integer> {
     @Query("SELECT s FROM Store s WHERE s.status != :status")
     Page<Store> findByStatusNot(@Param("status") String status, Pageable pageable);
 
+    @EntityGraph(attributePaths = {"user", "warehouse"})
+    @Query("SELECT s FROM Store s WHERE s.status != :status")
+    Slice<Store> findSliceByStatusNot(@Param("status") String status, Pageable pageable);
+
     // Find stores by status with pagination with JOIN
     @EntityGraph(attributePaths = {"user", "warehouse"})
     @Query("SELECT s FROM Store s WHERE s.status = :status")
     Page<Store> findByStatus(@Param("status") String status, Pageable pageable);
 
+    @EntityGraph(attributePaths = {"user", "warehouse"})
+    @Query("SELECT s FROM Store s WHERE s.status = :status")
+    Slice<Store> findSliceByStatus(@Param("status") String status, Pageable pageable);
+
     // Find by ID with relationships loaded using EntityGraph
     @EntityGraph(attributePaths = {"user", "warehouse"})
     @Query("SELECT s FROM Store s WHERE s.id = :id")
@@ -48,6 +57,14 @@ public interface StoreRepository extends JpaRepository<Store, Integer> {
            "LOWER(u.name) LIKE LOWER(CONCAT('%', :search, '%')))")
     Page<Store> searchStores(@Param("search") String search, Pageable pageable);
 
+    @EntityGraph(attributePaths = {"user", "warehouse"})
+    @Query("SELECT s FROM Store s LEFT JOIN s.user u WHERE s.status != 'DELETED' AND " +
+           "(LOWER(s.name) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
+           "LOWER(s.email) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
+           "LOWER(s.phone) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
+           "LOWER(u.name) LIKE LOWER(CONCAT('%', :search, '%')))")
+    Slice<Store> searchStoresSlice(@Param("search") String search, Pageable pageable);
+
     // Search stores by status and search term with pagination
     @EntityGraph(attributePaths = {"user", "warehouse"})
     @Query("SELECT s FROM Store s LEFT JOIN s.user u WHERE s.status = :status AND " +
@@ -59,5 +76,16 @@ public interface StoreRepository extends JpaRepository<Store, Integer> {
     Page<Store> searchStoresByStatus(@Param("status") String status,
                                       @Param("search") String search,
                                       Pageable pageable);
+
+    @EntityGraph(attributePaths = {"user", "warehouse"})
+    @Query("SELECT s FROM Store s LEFT JOIN s.user u WHERE s.status = :status AND " +
+           "s.status != 'DELETED' AND " +
+           "(LOWER(s.name) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
+           "LOWER(s.email) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
+           "LOWER(s.phone) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
+           "LOWER(u.name) LIKE LOWER(CONCAT('%', :search, '%')))")
+    Slice<Store> searchStoresByStatusSlice(@Param("status") String status,
+                                            @Param("search") String search,
+                                            Pageable pageable);
 }
 
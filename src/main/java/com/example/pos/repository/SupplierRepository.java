@@ -3,6 +3,7 @@ package com.example.pos.repository;
 import com.example.pos.entity.Supplier;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -15,8 +16,12 @@ public interface SupplierRepository extends JpaRepository<Supplier, Integer> {
 
     Page<Supplier> findByStatus(String status, Pageable pageable);
 
+    Slice<Supplier> findSliceByStatus(String status, Pageable pageable);
+
     Page<Supplier> findByStatusNot(String status, Pageable pageable);
 
+    Slice<Supplier> findSliceByStatusNot(String status, Pageable pageable);
+
     Optional<Supplier> findByContactEmail(String contactEmail);
 
     @Query("SELECT s FROM Supplier s WHERE s.status != 'DELETED' AND (" +
@@ -27,6 +32,14 @@ public interface SupplierRepository extends JpaRepository<Supplier, Integer> {
             "LOWER(s.address) LIKE LOWER(CONCAT('%', :search, '%')))")
     Page<Supplier> searchSuppliers(@Param("search") String search, Pageable pageable);
 
+    @Query("SELECT s FROM Supplier s WHERE s.status != 'DELETED' AND (" +
+            "LOWER(s.name) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
+            "LOWER(s.contactName) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
+            "LOWER(s.contactEmail) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
+            "LOWER(s.contactPhone) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
+            "LOWER(s.address) LIKE LOWER(CONCAT('%', :search, '%')))")
+    Slice<Supplier> searchSuppliersSlice(@Param("search") String search, Pageable pageable);
+
     @Query("SELECT s FROM Supplier s WHERE s.status = :status AND (" +
             "LOWER(s.name) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
             "LOWER(s.contactName) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
@@ -34,6 +47,14 @@ public interface SupplierRepository extends JpaRepository<Supplier, Integer> {
             "LOWER(s.contactPhone) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
             "LOWER(s.address) LIKE LOWER(CONCAT('%', :search, '%')))")
     Page<Supplier> searchSuppliersByStatus(@Param("status") String status, @Param("search") String search, Pageable pageable);
+
+    @Query("SELECT s FROM Supplier s WHERE s.status = :status AND (" +
+            "LOWER(s.name) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
+            "LOWER(s.contactName) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
+            "LOWER(s.contactEmail) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
+            "LOWER(s.contactPhone) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
+            "LOWER(s.address) LIKE LOWER(CONCAT('%', :search, '%')))")
+    Slice<Supplier> searchSuppliersByStatusSlice(@Param("status") String status, @Param("search") String search, Pageable pageable);
 }
 
 
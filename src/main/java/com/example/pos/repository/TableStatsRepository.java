@@ -0,0 +1,65 @@
+package com.example.pos.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+@Repository
+@RequiredArgsConstructor
+public class TableStatsRepository {
+
+    private static final Set<String> VERSIONED_TABLES = Set.of(
+            "products", "categories", "sub_categories", "brands", "units", "stores", "warehouses", "users",
+            "suppliers", "variant_attributes", "warranties"
+    );
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Planner row estimate (pg_class.reltuples) for a table, or null when the table has never
+     * been analyzed.
+     */
+    public Long estimateRows(String table) {
+        List<Long> rows = jdbcTemplate.queryForList(
+                "SELECT reltuples::bigint FROM pg_class WHERE oid = to_regclass(?)", Long.class, table);
+        if (rows.isEmpty() || rows.get(0) == null || rows.get(0) < 0) {
+            return null;
+        }
+        return rows.get(0);
+    }
+
+    /**
+     * Latest updated_at across the given tables (null when they are all empty), plus the number of rows
+     * inserted, updated and deleted in them since the statistics were last reset. The counter moves for
+     * deletes and for commits that land after a newer updated_at, which max(updated_at) alone misses;
+     * PostgreSQL folds it in at most about a second after commit. One round trip.
+     */
+    public TableVersion version(Collection<String> tables) {
+        StringBuilder latest = new StringBuilder();
+        StringBuilder relids = new StringBuilder();
+        for (String table : tables) {
+            if (!VERSIONED_TABLES.contains(table)) {
+                throw new IllegalArgumentException("Table has no updated_at version: " + table);
+            }
+            if (!latest.isEmpty()) {
+                latest.append(", ");
+                relids.append(", ");
+            }
+            latest.append("(SELECT max(updated_at) FROM ").append(table).append(")");
+            relids.append("'").append(table).append("'::regclass");
+        }
+        String sql = "SELECT GREATEST(" + latest + ") AS last_modified, " +
+                "(SELECT COALESCE(sum(n_tup_ins + n_tup_upd + n_tup_del), 0) FROM pg_stat_all_tables " +
+                "WHERE relid IN (" + relids + ")) AS changes";
+        return jdbcTemplate.queryForObject(sql, (rs, rowNum) -> new TableVersion(
+                rs.getObject("last_modified", LocalDateTime.class), rs.getLong("changes")));
+    }
+
+    public record TableVersion(LocalDateTime lastModified, long changes) {
+    }
+}
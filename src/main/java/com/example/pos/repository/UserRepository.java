@@ -4,6 +4,7 @@ import com.example.pos.entity.Role;
 import com.example.pos.entity.User;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -25,9 +26,13 @@ public interface UserRepository extends JpaRepository<User, Integer> {
        // Thành hàm này:
        Page<User> findByRoleAndStatusNot(Role role, String status, Pageable pageable);
 
+       Slice<User> findSliceByRoleAndStatusNot(Role role, String status, Pageable pageable);
+
        // Find customers by status with pagination
        Page<User> findByRoleAndStatus(Role role, String status, Pageable pageable);
 
+       Slice<User> findSliceByRoleAndStatus(Role role, String status, Pageable pageable);
+
        // Search customers by name, email, code, phone, or country with pagination
        @Query("SELECT u FROM User u WHERE u.role = :role AND " +
                      "u.status != 'DELETED' AND " +
@@ -38,6 +43,15 @@ public interface UserRepository extends JpaRepository<User, Integer> {
                      "LOWER(u.country) LIKE LOWER(CONCAT('%', :search, '%')))")
        Page<User> searchCustomers(@Param("role") Role role, @Param("search") String search, Pageable pageable);
 
+       @Query("SELECT u FROM User u WHERE u.role = :role AND " +
+                     "u.status != 'DELETED' AND " +
+                     "(LOWER(u.name) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
+                     "LOWER(u.email) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
+                     "LOWER(u.code) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
+                     "LOWER(u.phone) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
+                     "LOWER(u.country) LIKE LOWER(CONCAT('%', :search, '%')))")
+       Slice<User> searchCustomersSlice(@Param("role") Role role, @Param("search") String search, Pageable pageable);
+
        // Sửa hàm này:
        @Query("SELECT u FROM User u WHERE u.role = :role AND " +
                      "u.status != 'DELETED' AND " + // (Dòng này bạn thêm vào là đúng rồi)
@@ -50,6 +64,16 @@ public interface UserRepository extends JpaRepository<User, Integer> {
                      "LOWER(u.country) LIKE LOWER(CONCAT('%', :search, '%')))")
        Page<User> searchBillers(@Param("role") Role role, @Param("search") String search, Pageable pageable);
 
+       @Query("SELECT u FROM User u WHERE u.role = :role AND " +
+                     "u.status != 'DELETED' AND " +
+                     "(LOWER(u.name) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
+                     "LOWER(u.companyName) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
+                     "LOWER(u.email) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
+                     "LOWER(u.code) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
+                     "LOWER(u.phone) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
+                     "LOWER(u.country) LIKE LOWER(CONCAT('%', :search, '%')))")
+       Slice<User> searchBillersSlice(@Param("role") Role role, @Param("search") String search, Pageable pageable);
+
        // Search customers by status and search term with pagination
        @Query("SELECT u FROM User u WHERE u.role = :role AND u.status = :status AND " +
                      "u.status != 'DELETED' AND " +
@@ -61,6 +85,16 @@ public interface UserRepository extends JpaRepository<User, Integer> {
        Page<User> searchCustomersByStatus(@Param("role") Role role, @Param("status") String status,
                      @Param("search") String search, Pageable pageable);
 
+       @Query("SELECT u FROM User u WHERE u.role = :role AND u.status = :status AND " +
+                     "u.status != 'DELETED' AND " +
+                     "(LOWER(u.name) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
+                     "LOWER(u.email) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
+                     "LOWER(u.code) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
+                     "LOWER(u.phone) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
+                     "LOWER(u.country) LIKE LOWER(CONCAT('%', :search, '%')))")
+       Slice<User> searchCustomersByStatusSlice(@Param("role") Role role, @Param("status") String status,
+                           @Param("search") String search, Pageable pageable);
+
        // Và sửa cả hàm này:
        @Query("SELECT u FROM User u WHERE u.role = :role AND u.status = :status AND " +
                      "(LOWER(u.name) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
@@ -72,4 +106,14 @@ public interface UserRepository extends JpaRepository<User, Integer> {
                      "LOWER(u.country) LIKE LOWER(CONCAT('%', :search, '%')))")
        Page<User> searchBillersByStatus(@Param("role") Role role, @Param("status") String status,
                      @Param("search") String search, Pageable pageable);
+
+       @Query("SELECT u FROM User u WHERE u.role = :role AND u.status = :status AND " +
+                     "(LOWER(u.name) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
+                     "LOWER(u.companyName) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
+                     "LOWER(u.email) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
+                     "LOWER(u.code) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
+                     "LOWER(u.phone) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
+                     "LOWER(u.country) LIKE LOWER(CONCAT('%', :search, '%')))")
+       Slice<User> searchBillersByStatusSlice(@Param("role") Role role, @Param("status") String status,
+                           @Param("search") String search, Pageable pageable);
 }
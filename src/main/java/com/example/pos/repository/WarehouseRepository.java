@@ -3,6 +3,7 @@ package com.example.pos.repository;
 import com.example.pos.entity.Warehouse;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -14,9 +15,16 @@ public interface WarehouseRepository extends JpaRepository<Warehouse, Integer> {
     // Find all warehouses excluding DELETED status
     Page<Warehouse> findByStatusNot(String status, Pageable pageable);
 
+    Slice<Warehouse> findSliceByStatusNot(String status, Pageable pageable);
+
+    // Whether a warehouse exists and is not soft-deleted
+    boolean existsByIdAndStatusNot(Integer id, String status);
+
     // Find warehouses by status with pagination
     Page<Warehouse> findByStatus(String status, Pageable pageable);
 
+    Slice<Warehouse> findSliceByStatus(String status, Pageable pageable);
+
     // Search warehouses by name, contact_person, or phone with pagination
     @Query("SELECT w FROM Warehouse w LEFT JOIN w.user u WHERE w.status != 'DELETED' AND " +
            "(LOWER(w.name) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
@@ -24,6 +32,12 @@ public interface WarehouseRepository extends JpaRepository<Warehouse, Integer> {
            "LOWER(w.phone) LIKE LOWER(CONCAT('%', :search, '%')))")
     Page<Warehouse> searchWarehouses(@Param("search") String search, Pageable pageable);
 
+    @Query("SELECT w FROM Warehouse w LEFT JOIN w.user u WHERE w.status != 'DELETED' AND " +
+           "(LOWER(w.name) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
+           "LOWER(w.contactPerson) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
+           "LOWER(w.phone) LIKE LOWER(CONCAT('%', :search, '%')))")
+    Slice<Warehouse> searchWarehousesSlice(@Param("search") String search, Pageable pageable);
+
     // Search warehouses by status and search term with pagination
     @Query("SELECT w FROM Warehouse w LEFT JOIN w.user u WHERE w.status = :status AND " +
            "w.status != 'DELETED' AND " +
@@ -33,5 +47,14 @@ public interface WarehouseRepository extends JpaRepository<Warehouse, Integer> {
     Page<Warehouse> searchWarehousesByStatus(@Param("status") String status,
                                               @Param("search") String search,
                                               Pageable pageable);
+
+    @Query("SELECT w FROM Warehouse w LEFT JOIN w.user u WHERE w.status = :status AND " +
+           "w.status != 'DELETED' AND " +
+           "(LOWER(w.name) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
+           "LOWER(w.contactPerson) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
+           "LOWER(w.phone) LIKE LOWER(CONCAT('%', :search, '%')))")
+    Slice<Warehouse> searchWarehousesByStatusSlice(@Param("status") String status,
+                                                    @Param("search") String search,
+                                                    Pageable pageable);
 }
 
@@ -15,6 +15,7 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
@@ -30,16 +31,19 @@ public class BillerService {
 
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
+    private final ListTotals listTotals;
 
     @Transactional(readOnly = true)
-    public BillerListResponse getBillers(int page, int size, String search, String status, String sortBy, String sortDir) {
+    public BillerListResponse getBillers(int page, int size, String search, String status, String sortBy, String sortDir, String includeTotal) {
         Sort sort = sortDir.equalsIgnoreCase("desc")
                 ? Sort.by(sortBy).descending()
                 : Sort.by(sortBy).ascending();
 
         Pageable pageable = PageRequest.of(page, size, sort);
 
-        Page<User> billerPage;
+        ListTotalMode totalMode = ListTotalMode.parse(includeTotal);
+
+        Slice<User> billerPage;
 
         String cleanStatus = (status != null && !status.trim().isEmpty()) ? status.trim() : null;
 
@@ -47,15 +51,23 @@ public class BillerService {
             billerPage = Page.empty(pageable);
         } else if (search != null && !search.trim().isEmpty()) {
             if (cleanStatus != null) {
-                billerPage = userRepository.searchBillersByStatus(Role.BILLER, cleanStatus, search.trim(), pageable);
+                billerPage = totalMode == ListTotalMode.EXACT
+                        ? userRepository.searchBillersByStatus(Role.BILLER, cleanStatus, search.trim(), pageable)
+                        : userRepository.searchBillersByStatusSlice(Role.BILLER, cleanStatus, search.trim(), pageable);
             } else {
-                billerPage = userRepository.searchBillers(Role.BILLER, search.trim(), pageable);
+                billerPage = totalMode == ListTotalMode.EXACT
+                        ? userRepository.searchBillers(Role.BILLER, search.trim(), pageable)
+                        : userRepository.searchBillersSlice(Role.BILLER, search.trim(), pageable);
             }
         } else {
             if (cleanStatus != null) {
-                billerPage = userRepository.findByRoleAndStatus(Role.BILLER, cleanStatus, pageable);
+                billerPage = totalMode == ListTotalMode.EXACT
+                        ? userRepository.findByRoleAndStatus(Role.BILLER, cleanStatus, pageable)
+                        : userRepository.findSliceByRoleAndStatus(Role.BILLER, cleanStatus, pageable);
             } else {
-                billerPage = userRepository.findByRoleAndStatusNot(Role.BILLER, "DELETED", pageable);
+                billerPage = totalMode == ListTotalMode.EXACT
+                        ? userRepository.findByRoleAndStatusNot(Role.BILLER, "DELETED", pageable)
+                        : userRepository.findSliceByRoleAndStatusNot(Role.BILLER, "DELETED", pageable);
             }
         }
 
@@ -63,12 +75,16 @@ public class BillerService {
                 .map(this::convertToDTO)
                 .collect(Collectors.toList());
 
+        // The role predicate always applies, so a table-wide estimate would overcount
+        ListTotals.Totals totals = listTotals.resolve(billerPage, totalMode, "users", true);
+
         return BillerListResponse.builder()
                 .billers(billers)
-                .totalElements(billerPage.getTotalElements())
-                .totalPages(billerPage.getTotalPages())
+                .totalElements(totals.totalItems())
+                .totalPages(totals.totalPages())
                 .currentPage(billerPage.getNumber())
                 .pageSize(billerPage.getSize())
+                .hasNext(billerPage.hasNext())
                 .build();
     }
 
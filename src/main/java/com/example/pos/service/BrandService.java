@@ -12,6 +12,7 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -24,16 +25,19 @@ import java.util.stream.Collectors;
 public class BrandService {
 
     private final BrandRepository brandRepository;
+    private final ListTotals listTotals;
 
     @Transactional(readOnly = true)
-    public BrandListResponse getBrands(int page, int size, String search, String status, String sortBy, String sortDir) {
+    public BrandListResponse getBrands(int page, int size, String search, String status, String sortBy, String sortDir, String includeTotal) {
         Sort sort = sortDir.equalsIgnoreCase("desc")
                 ? Sort.by(sortBy).descending()
                 : Sort.by(sortBy).ascending();
 
         Pageable pageable = PageRequest.of(page, size, sort);
 
-        Page<Brand> brandPage;
+        ListTotalMode totalMode = ListTotalMode.parse(includeTotal);
+
+        Slice<Brand> brandPage;
 
         // Clean status
         String cleanStatus = (status != null && !status.trim().isEmpty()) ? status.trim() : null;
@@ -46,20 +50,28 @@ public class BrandService {
         else if (search != null && !search.trim().isEmpty()) {
             if (cleanStatus != null) {
                 // Case 1: Search + Status filter
-                brandPage = brandRepository.searchBrandsByStatus(cleanStatus, search.trim(), pageable);
+                brandPage = totalMode == ListTotalMode.EXACT
+                        ? brandRepository.searchBrandsByStatus(cleanStatus, search.trim(), pageable)
+                        : brandRepository.searchBrandsByStatusSlice(cleanStatus, search.trim(), pageable);
             } else {
                 // Case 2: Search only
-                brandPage = brandRepository.searchBrands(search.trim(), pageable);
+                brandPage = totalMode == ListTotalMode.EXACT
+                        ? brandRepository.searchBrands(search.trim(), pageable)
+                        : brandRepository.searchBrandsSlice(search.trim(), pageable);
             }
         }
         // No search term
         else {
             if (cleanStatus != null) {
                 // Case 3: Status filter only
-                brandPage = brandRepository.findByStatus(cleanStatus, pageable);
+                brandPage = totalMode == ListTotalMode.EXACT
+                        ? brandRepository.findByStatus(cleanStatus, pageable)
+                        : brandRepository.findSliceByStatus(cleanStatus, pageable);
             } else {
                 // Case 4: No filter (exclude DELETED)
-                brandPage = brandRepository.findByStatusNot("DELETED", pageable);
+                brandPage = totalMode == ListTotalMode.EXACT
+                        ? brandRepository.findByStatusNot("DELETED", pageable)
+                        : brandRepository.findSliceByStatusNot("DELETED", pageable);
             }
         }
 
@@ -69,11 +81,15 @@ public class BrandService {
                 .collect(Collectors.toList());
 
         // Build response
+        ListTotals.Totals totals = listTotals.resolve(brandPage, totalMode, "brands",
+                cleanStatus != null || search != null && !search.trim().isEmpty());
+
         return BrandListResponse.builder()
                 .brands(brands)
                 .currentPage(brandPage.getNumber())
-                .totalPages(brandPage.getTotalPages())
-                .totalItems(brandPage.getTotalElements())
+                .totalPages(totals.totalPages())
+                .totalItems(totals.totalItems())
+                .hasNext(brandPage.hasNext())
                 .build();
     }
 
@@ -12,6 +12,7 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
@@ -27,16 +28,19 @@ import java.util.stream.Collectors;
 public class CategoryService {
 
     private final CategoryRepository categoryRepository;
+    private final ListTotals listTotals;
 
     @Transactional(readOnly = true)
-    public CategoryListResponse getCategories(int page, int size, String search, String status, String sortBy, String sortDir) {
+    public CategoryListResponse getCategories(int page, int size, String search, String status, String sortBy, String sortDir, String includeTotal) {
         Sort sort = sortDir.equalsIgnoreCase("desc")
                 ? Sort.by(sortBy).descending()
                 : Sort.by(sortBy).ascending();
 
         Pageable pageable = PageRequest.of(page, size, sort);
 
-        Page<Category> categoryPage;
+        ListTotalMode totalMode = ListTotalMode.parse(includeTotal);
+
+        Slice<Category> categoryPage;
 
         // Clean status
         String cleanStatus = (status != null && !status.trim().isEmpty()) ? status.trim() : null;
@@ -49,20 +53,28 @@ public class CategoryService {
         else if (search != null && !search.trim().isEmpty()) {
             if (cleanStatus != null) {
                 // Case 1: Search + Status filter
-                categoryPage = categoryRepository.searchCategoriesByStatus(cleanStatus, search.trim(), pageable);
+                categoryPage = totalMode == ListTotalMode.EXACT
+                        ? categoryRepository.searchCategoriesByStatus(cleanStatus, search.trim(), pageable)
+                        : categoryRepository.searchCategoriesByStatusSlice(cleanStatus, search.trim(), pageable);
             } else {
                 // Case 2: Search only
-                categoryPage = categoryRepository.searchCategories(search.trim(), pageable);
+                categoryPage = totalMode == ListTotalMode.EXACT
+                        ? categoryRepository.searchCategories(search.trim(), pageable)
+                        : categoryRepository.searchCategoriesSlice(search.trim(), pageable);
             }
         }
         // No search term
         else {
             if (cleanStatus != null) {
                 // Case 3: Status filter only
-                categoryPage = categoryRepository.findByStatus(cleanStatus, pageable);
+                categoryPage = totalMode == ListTotalMode.EXACT
+                        ? categoryRepository.findByStatus(cleanStatus, pageable)
+                        : categoryRepository.findSliceByStatus(cleanStatus, pageable);
             } else {
                 // Case 4: No filter (exclude DELETED)
-                categoryPage = categoryRepository.findByStatusNot("DELETED", pageable);
+                categoryPage = totalMode == ListTotalMode.EXACT
+                        ? categoryRepository.findByStatusNot("DELETED", pageable)
+                        : categoryRepository.findSliceByStatusNot("DELETED", pageable);
             }
         }
 
@@ -72,11 +84,15 @@ public class CategoryService {
                 .collect(Collectors.toList());
 
         // Build response
+        ListTotals.Totals totals = listTotals.resolve(categoryPage, totalMode, "categories",
+                cleanStatus != null || search != null && !search.trim().isEmpty());
+
         return CategoryListResponse.builder()
                 .categories(categories)
                 .currentPage(categoryPage.getNumber())
-                .totalPages(categoryPage.getTotalPages())
-                .totalItems(categoryPage.getTotalElements())
+                .totalPages(totals.totalPages())
+                .totalItems(totals.totalItems())
+                .hasNext(categoryPage.hasNext())
                 .build();
     }
 
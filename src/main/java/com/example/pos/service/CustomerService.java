@@ -12,6 +12,7 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
@@ -27,17 +28,20 @@ public class CustomerService {
 
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
+    private final ListTotals listTotals;
 
     @Transactional(readOnly = true)
     public CustomerListResponse getCustomers(int page, int size, String search, String status, String sortBy,
-            String sortDir) {
+            String sortDir, String includeTotal) {
         Sort sort = sortDir.equalsIgnoreCase("desc")
                 ? Sort.by(sortBy).descending()
                 : Sort.by(sortBy).ascending();
 
         Pageable pageable = PageRequest.of(page, size, sort);
 
-        Page<User> customerPage;
+        ListTotalMode totalMode = ListTotalMode.parse(includeTotal);
+
+        Slice<User> customerPage;
 
         // Biến lưu trữ status sạch
         String cleanStatus = (status != null && !status.trim().isEmpty()) ? status.trim() : null;
@@ -54,21 +58,28 @@ public class CustomerService {
             if (cleanStatus != null) {
                 // Case 1: Có search VÀ có status (status này đã được đảm bảo KHÁC "DELETED")
                 // (Giả sử searchCustomersByStatus cũng đã được fix @Query trong Repo)
-                customerPage = userRepository.searchCustomersByStatus(Role.CUSTOMER, cleanStatus, search.trim(),
-                        pageable);
+                customerPage = totalMode == ListTotalMode.EXACT
+                        ? userRepository.searchCustomersByStatus(Role.CUSTOMER, cleanStatus, search.trim(), pageable)
+                        : userRepository.searchCustomersByStatusSlice(Role.CUSTOMER, cleanStatus, search.trim(), pageable);
             } else {
                 // Case 2: Có search, KHÔNG có status
                 // (Phải đảm bảo searchCustomers trong Repo đã fix @Query)
-                customerPage = userRepository.searchCustomers(Role.CUSTOMER, search.trim(), pageable);
+                customerPage = totalMode == ListTotalMode.EXACT
+                        ? userRepository.searchCustomers(Role.CUSTOMER, search.trim(), pageable)
+                        : userRepository.searchCustomersSlice(Role.CUSTOMER, search.trim(), pageable);
             }
         } else {
             // Không search
             if (cleanStatus != null) {
                 // Case 3: KHÔNG search, CÓ status (status này đã được đảm bảo KHÁC "DELETED")
-                customerPage = userRepository.findByRoleAndStatus(Role.CUSTOMER, cleanStatus, pageable);
+                customerPage = totalMode == ListTotalMode.EXACT
+                        ? userRepository.findByRoleAndStatus(Role.CUSTOMER, cleanStatus, pageable)
+                        : userRepository.findSliceByRoleAndStatus(Role.CUSTOMER, cleanStatus, pageable);
             } else {
                 // Case 4: KHÔNG search, KHÔNG status (Đã fix chính xác)
-                customerPage = userRepository.findByRoleAndStatusNot(Role.CUSTOMER, "DELETED", pageable);
+                customerPage = totalMode == ListTotalMode.EXACT
+                        ? userRepository.findByRoleAndStatusNot(Role.CUSTOMER, "DELETED", pageable)
+                        : userRepository.findSliceByRoleAndStatusNot(Role.CUSTOMER, "DELETED", pageable);
             }
         }
 
@@ -78,12 +89,16 @@ public class CustomerService {
                 .collect(Collectors.toList());
 
         // Build response
+        // The role predicate always applies, so a table-wide estimate would overcount
+        ListTotals.Totals totals = listTotals.resolve(customerPage, totalMode, "users", true);
+
         return CustomerListResponse.builder()
                 .customers(customers)
-                .totalElements(customerPage.getTotalElements())
-                .totalPages(customerPage.getTotalPages())
+                .totalElements(totals.totalItems())
+                .totalPages(totals.totalPages())
                 .currentPage(customerPage.getNumber())
                 .pageSize(customerPage.getSize())
+                .hasNext(customerPage.hasNext())
                 .build();
     }
 
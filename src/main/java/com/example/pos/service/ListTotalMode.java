@@ -0,0 +1,29 @@
+package com.example.pos.service;
+
+import com.example.pos.exception.BadRequestException;
+
+/**
+ * How a list endpoint reports its totals ({@code includeTotal} request parameter).
+ * <ul>
+ *     <li>EXACT - runs the COUNT query (default, previous behaviour)</li>
+ *     <li>NONE - no COUNT, only {@code hasNext}</li>
+ *     <li>ESTIMATE - no COUNT, totals come from planner statistics when a cheap estimate exists</li>
+ * </ul>
+ */
+public enum ListTotalMode {
+    EXACT,
+    NONE,
+    ESTIMATE;
+
+    public static ListTotalMode parse(String includeTotal) {
+        if (includeTotal == null || includeTotal.trim().isEmpty()) {
+            return EXACT;
+        }
+        return switch (includeTotal.trim().toLowerCase()) {
+            case "true", "exact" -> EXACT;
+            case "false", "none" -> NONE;
+            case "estimate" -> ESTIMATE;
+            default -> throw new BadRequestException("Invalid includeTotal: must be one of exact, false, estimate");
+        };
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.pos.service;
+
+import com.example.pos.repository.TableStatsRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
+import org.springframework.stereotype.Component;
+
+/**
+ * Resolves totalItems/totalPages of a list response for the requested {@link ListTotalMode}.
+ */
+@Component
+@RequiredArgsConstructor
+public class ListTotals {
+
+    private final TableStatsRepository tableStatsRepository;
+
+    /**
+     * @param table    table behind the listing, used for the reltuples estimate
+     * @param filtered whether the listing applies a predicate; a table-wide estimate is not
+     *                 meaningful then, so totals are left out
+     */
+    public Totals resolve(Slice<?> slice, ListTotalMode mode, String table, boolean filtered) {
+        if (mode == ListTotalMode.EXACT && slice instanceof Page<?> page) {
+            return new Totals(page.getTotalElements(), page.getTotalPages());
+        }
+        if (mode == ListTotalMode.ESTIMATE && !filtered) {
+            return estimated(slice, tableStatsRepository.estimateRows(table));
+        }
+        return new Totals(null, null);
+    }
+
+    public Totals estimated(Slice<?> slice, Long estimate) {
+        if (estimate == null) {
+            return new Totals(null, null);
+        }
+        // Never report fewer rows than the pages already seen prove to exist
+        long seen = (long) slice.getNumber() * slice.getSize() + slice.getNumberOfElements() + (slice.hasNext() ? 1 : 0);
+        long total = Math.max(estimate, seen);
+        int pages = slice.getSize() > 0 ? (int) ((total + slice.getSize() - 1) / slice.getSize()) : 1;
+        return new Totals(total, pages);
+    }
+
+    public record Totals(Long totalItems, Integer totalPages) {
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.pos.service;
+
+import com.example.pos.dto.LowStockAlert;
+import com.example.pos.exception.BadRequestException;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Server-sent event subscribers for low-stock crossings. Alerts are sent from one dispatcher thread, in
+ * the order they were raised, so a slow client never holds up the writes that raised them.
+ */
+@Component
+@Slf4j
+public class LowStockAlerts {
+
+    private record Subscriber(SseEmitter emitter, Integer storeId) {
+    }
+
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+    private final ExecutorService dispatcher =
+            Executors.newSingleThreadExecutor(new CustomizableThreadFactory("low-stock-alerts-"));
+    private final long timeoutMillis;
+    // The alerts are raised by LowStockIndex, which runs under the same switch
+    private final boolean enabled;
+
+    public LowStockAlerts(@Value("${app.low-stock.sse-timeout-ms:1800000}") long timeoutMillis,
+                          @Value("${app.low-stock.index-enabled:true}") boolean enabled) {
+        this.timeoutMillis = timeoutMillis;
+        this.enabled = enabled;
+    }
+
+    /**
+     * A stream of the alerts of one store, or of all stores when storeId is null. Refused when the low-stock
+     * index is off, as such a stream would never receive anything.
+     */
+    public SseEmitter subscribe(Integer storeId) {
+        if (!enabled) {
+            throw new BadRequestException("Low-stock alerts are disabled on this server");
+        }
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        Subscriber subscriber = new Subscriber(emitter, storeId);
+        subscribers.add(subscriber);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(e -> subscribers.remove(subscriber));
+        return emitter;
+    }
+
+    void publish(LowStockAlert alert) {
+        if (subscribers.isEmpty()) {
+            return;
+        }
+        dispatcher.execute(() -> {
+            for (Subscriber subscriber : subscribers) {
+                if (subscriber.storeId() != null && !Objects.equals(subscriber.storeId(), alert.getStoreId())) {
+                    continue;
+                }
+                try {
+                    subscriber.emitter().send(SseEmitter.event().name(alert.getType()).data(alert));
+                } catch (IOException | IllegalStateException e) {
+                    subscribers.remove(subscriber);
+                    subscriber.emitter().completeWithError(e);
+                }
+            }
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        dispatcher.shutdownNow();
+        subscribers.forEach(subscriber -> subscriber.emitter().complete());
+    }
+}
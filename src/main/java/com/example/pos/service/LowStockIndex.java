@@ -0,0 +1,195 @@
+package com.example.pos.service;
+
+import com.example.pos.dto.LowStockAlert;
+import com.example.pos.entity.ProductSnapshot;
+import com.example.pos.repository.ProductRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * The low-stock list in memory. Every non-deleted product is held in a set sorted by (quantity, id), per
+ * store and overall, and the products at or below their own qtyAlert in a second pair of such sets. A
+ * low-stock page is then a walk over the alert set, plus the head of the full set up to the threshold when
+ * one is given, instead of a predicate no index can serve.
+ * <p>
+ * A product crossing its qtyAlert, in either direction, is pushed to {@link LowStockAlerts}. The alerts
+ * depend on this index, so it has its own switch, {@code app.low-stock.index-enabled}, rather than following
+ * the catalog indexes.
+ */
+@Component
+public class LowStockIndex extends ProductSnapshotIndex {
+
+    private record Entry(int quantity, int id) implements Comparable<Entry> {
+
+        @Override
+        public int compareTo(Entry o) {
+            int c = Integer.compare(quantity, o.quantity);
+            return c != 0 ? c : Integer.compare(id, o.id);
+        }
+    }
+
+    private record Stock(Integer storeId, int quantity, Integer qtyAlert) {
+
+        boolean isLow() {
+            return qtyAlert != null && quantity <= qtyAlert;
+        }
+    }
+
+    private final LowStockAlerts alerts;
+
+    @Value("${app.low-stock.index-enabled:true}")
+    private boolean enabled;
+
+    // Guarded by writeLock
+    private final Map<Integer, Stock> stocks = new HashMap<>();
+    private final NavigableSet<Entry> all = new TreeSet<>();
+    private final NavigableSet<Entry> low = new TreeSet<>();
+    private final Map<Integer, NavigableSet<Entry>> allByStore = new HashMap<>();
+    private final Map<Integer, NavigableSet<Entry>> lowByStore = new HashMap<>();
+    // Off while warming up, so loading the table does not raise an alert per low product
+    private boolean alerting;
+
+    public LowStockIndex(ProductRepository productRepository, LowStockAlerts alerts) {
+        super(productRepository);
+        this.alerts = alerts;
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Override
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        synchronized (writeLock) {
+            alerting = false;
+        }
+        super.rebuild();
+        synchronized (writeLock) {
+            alerting = true;
+        }
+    }
+
+    /**
+     * Ids of the products with {@code quantity <= qtyAlert}, or {@code quantity <= threshold} when a threshold
+     * is given, ordered by quantity then id, with the exact total.
+     */
+    public Page<Integer> findIds(Integer storeId, Integer threshold, boolean descending, Pageable pageable) {
+        List<Integer> ids = new ArrayList<>();
+        synchronized (writeLock) {
+            NavigableSet<Entry> lowSet = storeId == null ? low : lowByStore.getOrDefault(storeId, Collections.emptyNavigableSet());
+            if (threshold == null) {
+                lowSet.forEach(e -> ids.add(e.id()));
+            } else {
+                NavigableSet<Entry> allSet = storeId == null ? all : allByStore.getOrDefault(storeId, Collections.emptyNavigableSet());
+                Entry bound = new Entry(threshold, Integer.MAX_VALUE);
+                // Everything up to the threshold, then the alerting products above it: still in (quantity, id) order
+                allSet.headSet(bound, true).forEach(e -> ids.add(e.id()));
+                lowSet.tailSet(bound, false).forEach(e -> ids.add(e.id()));
+            }
+        }
+        if (descending) {
+            Collections.reverse(ids);
+        }
+        int from = (int) Math.min(pageable.getOffset(), ids.size());
+        int to = Math.min(from + pageable.getPageSize(), ids.size());
+        return new PageImpl<>(new ArrayList<>(ids.subList(from, to)), pageable, ids.size());
+    }
+
+    // ----------------------------------------------------------------- writes (under writeLock)
+
+    @Override
+    protected void clear() {
+        stocks.clear();
+        all.clear();
+        low.clear();
+        allByStore.clear();
+        lowByStore.clear();
+    }
+
+    @Override
+    protected int size() {
+        return stocks.size();
+    }
+
+    @Override
+    protected void upsert(ProductSnapshot p) {
+        if (p.id() == null) {
+            return;
+        }
+        Stock previous = drop(p.id());
+        if (p.isDeleted()) {
+            return;
+        }
+        Stock stock = new Stock(p.storeId(), p.quantity() != null ? p.quantity() : 0, p.qtyAlert());
+        stocks.put(p.id(), stock);
+        Entry entry = new Entry(stock.quantity(), p.id());
+        add(all, allByStore, stock.storeId(), entry);
+        if (stock.isLow()) {
+            add(low, lowByStore, stock.storeId(), entry);
+        }
+
+        boolean wasLow = previous != null && previous.isLow();
+        if (alerting && wasLow != stock.isLow()) {
+            alerts.publish(LowStockAlert.builder()
+                    .type(stock.isLow() ? "low-stock" : "restocked")
+                    .productId(p.id())
+                    .sku(p.sku())
+                    .name(p.name())
+                    .storeId(p.storeId())
+                    .warehouseId(p.warehouseId())
+                    .quantity(stock.quantity())
+                    .qtyAlert(stock.qtyAlert())
+                    .at(LocalDateTime.now())
+                    .build());
+        }
+    }
+
+    @Override
+    protected void remove(Integer id) {
+        drop(id);
+    }
+
+    private Stock drop(Integer id) {
+        Stock previous = stocks.remove(id);
+        if (previous != null) {
+            Entry entry = new Entry(previous.quantity(), id);
+            delete(all, allByStore, previous.storeId(), entry);
+            delete(low, lowByStore, previous.storeId(), entry);
+        }
+        return previous;
+    }
+
+    private static void add(NavigableSet<Entry> set, Map<Integer, NavigableSet<Entry>> byStore, Integer storeId,
+                            Entry entry) {
+        set.add(entry);
+        if (storeId != null) {
+            byStore.computeIfAbsent(storeId, k -> new TreeSet<>()).add(entry);
+        }
+    }
+
+    private static void delete(NavigableSet<Entry> set, Map<Integer, NavigableSet<Entry>> byStore, Integer storeId,
+                               Entry entry) {
+        set.remove(entry);
+        if (storeId != null) {
+            NavigableSet<Entry> storeSet = byStore.get(storeId);
+            if (storeSet != null) {
+                storeSet.remove(entry);
+                if (storeSet.isEmpty()) {
+                    byStore.remove(storeId);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,536 @@
+package com.example.pos.service;
+
+import com.example.pos.dto.BulkProductResponse;
+import com.example.pos.dto.BulkProductResult;
+import com.example.pos.dto.BulkUpdateResponse;
+import com.example.pos.dto.CreateProductRequest;
+import com.example.pos.dto.ProductAdjustmentRequest;
+import com.example.pos.entity.Product;
+import com.example.pos.entity.ProductSnapshot;
+import com.example.pos.entity.ProductsChangedEvent;
+import com.example.pos.exception.BadRequestException;
+import com.example.pos.exception.ResourceNotFoundException;
+import com.example.pos.repository.ProductImportRepository;
+import com.example.pos.repository.ProductFilter;
+import com.example.pos.repository.ProductImportRepository.CodeOwner;
+import com.example.pos.repository.ProductReferences;
+import com.example.pos.repository.ProductRepository;
+import com.example.pos.repository.ProductStockRepository;
+import com.example.pos.security.UserPrincipal;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Create-or-update of many products in one request, keyed by sku. Validation is set-based: one query per
+ * referenced table and one query for all sku/slug/item code owners. Valid items are written with one batched
+ * INSERT ... ON CONFLICT (sku) DO UPDATE; invalid items are reported and skipped.
+ * <p>
+ * Changes to every product matching a list filter run as set-based UPDATEs over consecutive id ranges, one
+ * transaction per range, without loading entities. Changes to an id list run the same way per slice of ids.
+ * Each statement publishes one ProductsChangedEvent, so derived state is refreshed once per batch.
+ * <p>
+ * Copies of a product get codes numbered from the product_code_seq sequence, reserved in one query,
+ * and are inserted as one batch.
+ */
+@Service
+public class ProductBulkService {
+
+    private static final int MAX_ITEMS = 5000;
+    // Ids per UPDATE ... WHERE id IN (...) in changes by id list
+    private static final int IDS_PER_STATEMENT = 1000;
+    private static final BigDecimal HUNDRED = BigDecimal.valueOf(100);
+    // Column lengths of products.sku, slug and item_code; generated codes are shortened to fit
+    private static final int SKU_LENGTH = 20;
+    private static final int SLUG_LENGTH = 150;
+    private static final int ITEM_CODE_LENGTH = 50;
+    // Rounds of fresh numbers for copies whose generated code was already taken by hand
+    private static final int CODE_ATTEMPTS = 5;
+
+    private final ProductImportRepository importRepository;
+    private final ProductRepository productRepository;
+    private final ProductStockRepository productStockRepository;
+    private final StockService stockService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Validator validator;
+    private final TransactionTemplate transactionTemplate;
+    private final int idRangeSize;
+
+    public ProductBulkService(ProductImportRepository importRepository,
+                              ProductRepository productRepository,
+                              ProductStockRepository productStockRepository,
+                              StockService stockService,
+                              ApplicationEventPublisher eventPublisher,
+                              Validator validator,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${app.product-bulk.id-range-size:10000}") int idRangeSize) {
+        this.importRepository = importRepository;
+        this.productRepository = productRepository;
+        this.productStockRepository = productStockRepository;
+        this.stockService = stockService;
+        this.eventPublisher = eventPublisher;
+        this.validator = validator;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.idRangeSize = idRangeSize;
+    }
+
+    @Transactional
+    public BulkProductResponse upsertProducts(List<CreateProductRequest> items, Authentication authentication) {
+        if (items == null || items.isEmpty()) {
+            throw new BadRequestException("No products to write");
+        }
+        if (items.size() > MAX_ITEMS) {
+            throw new BadRequestException("At most " + MAX_ITEMS + " products per request");
+        }
+        Integer createdBy = null;
+        if (authentication != null && authentication.getPrincipal() instanceof UserPrincipal userPrincipal) {
+            createdBy = userPrincipal.getId();
+        }
+
+        List<CreateProductRequest> present = items.stream().filter(Objects::nonNull).toList();
+        ProductReferences references = importRepository.findReferences(
+                ids(present, CreateProductRequest::getUnitId),
+                ids(present, CreateProductRequest::getSubCategoryId),
+                ids(present, CreateProductRequest::getCategoryId),
+                ids(present, CreateProductRequest::getBrandId),
+                ids(present, CreateProductRequest::getStoreId),
+                ids(present, CreateProductRequest::getWarehouseId));
+        List<CodeOwner> owners = importRepository.findCodeOwners(
+                codes(present, CreateProductRequest::getSku),
+                codes(present, CreateProductRequest::getSlug),
+                codes(present, CreateProductRequest::getItemCode));
+        Map<String, CodeOwner> bySku = index(owners, CodeOwner::sku);
+        Map<String, CodeOwner> bySlug = index(owners, CodeOwner::slug);
+        Map<String, CodeOwner> byItemCode = index(owners, CodeOwner::itemCode);
+
+        BulkProductResult[] results = new BulkProductResult[items.size()];
+        Set<String> seenSkus = new HashSet<>();
+        Set<String> seenSlugs = new HashSet<>();
+        Set<String> seenItemCodes = new HashSet<>();
+        List<Product> writes = new ArrayList<>();
+        List<Integer> writeIndexes = new ArrayList<>();
+        for (int i = 0; i < items.size(); i++) {
+            CreateProductRequest item = items.get(i);
+            if (item == null) {
+                results[i] = failed(i, null, "Item is empty");
+                continue;
+            }
+            try {
+                Product product = ProductRules.toProduct(item, validator, references, createdBy);
+                checkCodes(product, bySku, bySlug, byItemCode, seenSkus, seenSlugs, seenItemCodes);
+                writes.add(product);
+                writeIndexes.add(i);
+            } catch (BadRequestException e) {
+                results[i] = failed(i, item.getSku(), e.getMessage());
+            }
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        List<Integer> requested = writes.stream().map(Product::getQuantity).toList();
+        writes.forEach(p -> {
+            p.setCreatedAt(now);
+            p.setUpdatedAt(now);
+            // New products are inserted without stock
+            p.setQuantity(0);
+        });
+        try {
+            importRepository.upsertAll(writes);
+        } catch (DuplicateKeyException e) {
+            throw new BadRequestException("A slug or item code was taken by a concurrent write; retry the request");
+        }
+        productStockRepository.syncHome(writes.stream().map(Product::getId).toList());
+        // The upsert keeps the stored quantity of existing products and inserts new ones at zero; either way
+        // the difference to the requested quantity is recorded as an adjustment
+        Map<Integer, Integer> quantities = new HashMap<>();
+        for (int w = 0; w < writes.size(); w++) {
+            writes.get(w).setQuantity(requested.get(w));
+            quantities.put(writes.get(w).getId(), requested.get(w));
+        }
+        stockService.setQuantities(quantities, createdBy, "Quantity set by bulk upsert");
+
+        int created = 0;
+        int updated = 0;
+        for (int w = 0; w < writes.size(); w++) {
+            Product product = writes.get(w);
+            boolean existed = bySku.containsKey(product.getSku());
+            if (existed) {
+                updated++;
+            } else {
+                created++;
+            }
+            results[writeIndexes.get(w)] = BulkProductResult.builder()
+                    .index(writeIndexes.get(w))
+                    .sku(product.getSku())
+                    .id(product.getId())
+                    .action(existed ? "updated" : "created")
+                    .build();
+        }
+
+        if (!writes.isEmpty()) {
+            // Batched SQL bypasses the entity listener; reload so updated rows keep their stored createdAt/status
+            List<Integer> ids = writes.stream().map(Product::getId).toList();
+            eventPublisher.publishEvent(new ProductsChangedEvent(productRepository.findSnapshotsByIdIn(ids), List.of()));
+        }
+
+        return BulkProductResponse.builder()
+                .created(created)
+                .updated(updated)
+                .failed(items.size() - writes.size())
+                .results(Arrays.asList(results))
+                .build();
+    }
+
+    /**
+     * Applies one price, alert level or discount change to every product matching the filter. Prices never
+     * drop to zero: a percent change keeps at least 0.01, and an amount change skips products it would
+     * take to zero or below. As for filter-wide status changes, the filter must narrow the catalog and cannot
+     * select deleted products.
+     */
+    public BulkUpdateResponse adjustProducts(ProductFilter filter, ProductAdjustmentRequest request) {
+        requireScope(filter);
+        String operation = request.getOperation().trim().toLowerCase();
+        BigDecimal value = request.getValue();
+        Map<String, Object> params = new HashMap<>();
+        params.put("value", value);
+        return switch (operation) {
+            case "price_percent" -> {
+                if (value.compareTo(HUNDRED.negate()) <= 0) {
+                    throw new BadRequestException("A price_percent change must be above -100");
+                }
+                yield updateMatching(filter, "price = GREATEST(ROUND(p.price * (100 + :value) / 100, 2), 0.01)",
+                        null, params);
+            }
+            case "price_amount" -> {
+                requireScale(value, 2, "price_amount");
+                yield updateMatching(filter, "price = p.price + :value", "p.price + :value > 0", params);
+            }
+            case "qty_alert" -> {
+                if (value.signum() < 0) {
+                    throw new BadRequestException("qtyAlert must not be negative");
+                }
+                requireScale(value, 0, "qty_alert");
+                params.put("value", value.intValueExact());
+                yield updateMatching(filter, "qty_alert = :value", null, params);
+            }
+            case "discount" -> {
+                String discountType = request.getDiscountType() != null ? request.getDiscountType().toLowerCase() : null;
+                if (!"percent".equals(discountType) && !"amount".equals(discountType)) {
+                    throw new BadRequestException("Invalid discountType: must be one of percent, amount");
+                }
+                if (value.signum() < 0 || "percent".equals(discountType) && value.compareTo(HUNDRED) > 0) {
+                    throw new BadRequestException("Invalid discount value: " + value);
+                }
+                requireScale(value, 2, "discount");
+                params.put("discountType", discountType);
+                yield updateMatching(filter, "discount_type = :discountType, discount_value = :value", null, params);
+            }
+            default -> throw new BadRequestException(
+                    "Invalid operation: must be one of price_percent, price_amount, qty_alert, discount");
+        };
+    }
+
+    /**
+     * Sets status active or inactive on the listed products, or on every product matching the filter when
+     * no ids are given. Deleted products are never touched.
+     */
+    public BulkUpdateResponse updateStatus(List<Integer> ids, ProductFilter filter, String status) {
+        if (status == null || !(status.equalsIgnoreCase("active") || status.equalsIgnoreCase("inactive"))) {
+            throw new BadRequestException("Invalid status: must be 'active' or 'inactive'");
+        }
+        Map<String, Object> params = new HashMap<>();
+        params.put("status", status);
+        return updateSelected(ids, filter, "status = :status", "p.status <> :status", params);
+    }
+
+    /**
+     * Soft-deletes the listed products, or every product matching the filter when no ids are given.
+     */
+    public BulkUpdateResponse deleteProducts(List<Integer> ids, ProductFilter filter) {
+        return updateSelected(ids, filter, "status = 'DELETED'", null, Map.of());
+    }
+
+    private BulkUpdateResponse updateSelected(List<Integer> ids, ProductFilter filter, String assignments,
+                                              String condition, Map<String, Object> params) {
+        if (ids != null && !ids.isEmpty()) {
+            if (ids.size() > MAX_ITEMS) {
+                throw new BadRequestException("At most " + MAX_ITEMS + " ids per request");
+            }
+            List<Integer> distinct = ids.stream().filter(Objects::nonNull).distinct().toList();
+            long updated = 0;
+            for (int from = 0; from < distinct.size(); from += IDS_PER_STATEMENT) {
+                List<Integer> slice = distinct.subList(from, Math.min(distinct.size(), from + IDS_PER_STATEMENT));
+                updated += transactionTemplate.execute(status -> publish(
+                        importRepository.updateByIds(assignments, condition, params, slice)));
+            }
+            return BulkUpdateResponse.builder().updated(updated).build();
+        }
+        requireScope(filter);
+        return updateMatching(filter, assignments, condition, params);
+    }
+
+    private static void requireScope(ProductFilter filter) {
+        if ("DELETED".equalsIgnoreCase(filter.getStatus())) {
+            throw new BadRequestException("Deleted products cannot be changed");
+        }
+        if (isUnrestricted(filter)) {
+            // Guards against a forgotten filter changing the whole catalog
+            throw new BadRequestException("Give product ids or at least one filter");
+        }
+    }
+
+    private static boolean isUnrestricted(ProductFilter f) {
+        return f.getStatus() == null && f.getSearchLower() == null && f.getCategoryId() == null
+                && f.getBrandId() == null && f.getUnitId() == null && f.getSubCategoryId() == null
+                && f.getStoreId() == null && f.getWarehouseId() == null && f.getProductTypeLower() == null
+                && f.getSellingTypeLower() == null;
+    }
+
+    /**
+     * Runs the update over the filter's id span in ranges of {@code idRangeSize} ids, each range one statement
+     * and one transaction, and publishes the changed rows per range.
+     */
+    private BulkUpdateResponse updateMatching(ProductFilter filter, String assignments, String condition,
+                                              Map<String, Object> params) {
+        long[] range = importRepository.findIdRange(filter);
+        long updated = 0;
+        if (range != null) {
+            for (long from = range[0]; from <= range[1]; from += idRangeSize) {
+                long to = Math.min(range[1], from + idRangeSize - 1);
+                long fromId = from;
+                updated += transactionTemplate.execute(status -> publish(
+                        importRepository.updateMatching(assignments, condition, params, filter, fromId, to)));
+            }
+        }
+        return BulkUpdateResponse.builder().updated(updated).build();
+    }
+
+    // Bulk SQL bypasses the entity listener
+    private int publish(List<ProductSnapshot> rows) {
+        if (!rows.isEmpty()) {
+            eventPublisher.publishEvent(new ProductsChangedEvent(rows, List.of()));
+        }
+        return rows.size();
+    }
+
+    private static void requireScale(BigDecimal value, int scale, String operation) {
+        if (value.stripTrailingZeros().scale() > scale) {
+            throw new BadRequestException("A " + operation + " value allows at most " + scale + " decimal places");
+        }
+    }
+
+    /**
+     * Creates {@code count} copies of the product in each of the given stores (in its own store when none
+     * are given). A copy in another store takes that store's warehouse; codes get a sequence-numbered suffix.
+     * Copies start with no stock, as stock only enters through the ledger, and are created by the caller.
+     */
+    @Transactional
+    public BulkProductResponse duplicateProduct(Integer id, int count, List<Integer> storeIds,
+                                                Authentication authentication) {
+        Product original = productRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Product", "id", id));
+        if ("DELETED".equalsIgnoreCase(original.getStatus())) {
+            throw new ResourceNotFoundException("Product", "id", id);
+        }
+        List<Integer> stores = storeIds == null || storeIds.isEmpty()
+                ? List.of(original.getStoreId())
+                : storeIds.stream().filter(Objects::nonNull).distinct().toList();
+        if (count < 1 || (long) count * stores.size() > MAX_ITEMS) {
+            throw new BadRequestException("count must be at least 1, and at most " + MAX_ITEMS + " copies in total");
+        }
+        Map<Integer, Integer> storeWarehouses = importRepository
+                .findReferences(Set.of(), Set.of(), Set.of(), Set.of(), stores, Set.of())
+                .storeWarehouses();
+        for (Integer storeId : stores) {
+            if (!storeWarehouses.containsKey(storeId)) {
+                throw new BadRequestException("Store not found: " + storeId);
+            }
+        }
+
+        Integer createdBy = null;
+        if (authentication != null && authentication.getPrincipal() instanceof UserPrincipal userPrincipal) {
+            createdBy = userPrincipal.getId();
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        List<Product> copies = new ArrayList<>();
+        for (Integer storeId : stores) {
+            Integer warehouseId = storeId.equals(original.getStoreId()) || storeWarehouses.get(storeId) == null
+                    ? original.getWarehouseId()
+                    : storeWarehouses.get(storeId);
+            for (int i = 0; i < count; i++) {
+                Product copy = copyOf(original, createdBy);
+                copy.setStoreId(storeId);
+                copy.setWarehouseId(warehouseId);
+                copy.setCreatedAt(now);
+                copy.setUpdatedAt(now);
+                copies.add(copy);
+            }
+        }
+        assignCodes(original, copies);
+        try {
+            importRepository.insertAll(copies);
+        } catch (DuplicateKeyException e) {
+            throw new BadRequestException("A generated code was taken by a concurrent write; retry the request");
+        }
+        productStockRepository.syncHome(copies.stream().map(Product::getId).toList());
+        eventPublisher.publishEvent(new ProductsChangedEvent(
+                copies.stream().map(ProductSnapshot::of).toList(), List.of()));
+
+        List<BulkProductResult> results = new ArrayList<>(copies.size());
+        for (int i = 0; i < copies.size(); i++) {
+            results.add(BulkProductResult.builder()
+                    .index(i)
+                    .sku(copies.get(i).getSku())
+                    .id(copies.get(i).getId())
+                    .action("created")
+                    .build());
+        }
+        return BulkProductResponse.builder()
+                .created(copies.size())
+                .results(results)
+                .build();
+    }
+
+    /**
+     * Numbers each copy from the sequence. Sequence values never repeat, so only a code typed in by hand can
+     * clash; such copies draw new numbers, checked together in one query per round.
+     */
+    private void assignCodes(Product original, List<Product> copies) {
+        List<Product> pending = copies;
+        for (int attempt = 0; attempt < CODE_ATTEMPTS && !pending.isEmpty(); attempt++) {
+            List<Long> numbers = importRepository.nextCodeNumbers(pending.size());
+            for (int i = 0; i < pending.size(); i++) {
+                String number = Long.toString(numbers.get(i), 36);
+                Product copy = pending.get(i);
+                copy.setSku(withSuffix(original.getSku(), "-" + number.toUpperCase(), SKU_LENGTH));
+                copy.setSlug(withSuffix(original.getSlug(), "-copy-" + number, SLUG_LENGTH));
+                if (original.getItemCode() != null) {
+                    copy.setItemCode(withSuffix(original.getItemCode(), "-" + number.toUpperCase(), ITEM_CODE_LENGTH));
+                }
+            }
+            List<CodeOwner> taken = importRepository.findCodeOwners(
+                    pending.stream().map(Product::getSku).toList(),
+                    pending.stream().map(Product::getSlug).toList(),
+                    pending.stream().map(Product::getItemCode).filter(Objects::nonNull).toList());
+            if (taken.isEmpty()) {
+                return;
+            }
+            Set<String> takenCodes = new HashSet<>();
+            taken.forEach(owner -> {
+                takenCodes.add(owner.sku());
+                takenCodes.add(owner.slug());
+                if (owner.itemCode() != null) {
+                    takenCodes.add(owner.itemCode());
+                }
+            });
+            pending = pending.stream()
+                    .filter(p -> takenCodes.contains(p.getSku()) || takenCodes.contains(p.getSlug())
+                            || p.getItemCode() != null && takenCodes.contains(p.getItemCode()))
+                    .toList();
+        }
+        if (!pending.isEmpty()) {
+            throw new BadRequestException("Could not generate unused codes for the copies; retry the request");
+        }
+    }
+
+    private static String withSuffix(String base, String suffix, int maxLength) {
+        String prefix = base != null ? base : "";
+        return prefix.substring(0, Math.min(prefix.length(), maxLength - suffix.length())) + suffix;
+    }
+
+    private static Product copyOf(Product original, Integer createdBy) {
+        return Product.builder()
+                .name(original.getName())
+                .price(original.getPrice())
+                .quantity(0)
+                .qtyAlert(original.getQtyAlert())
+                .status(original.getStatus())
+                .unitId(original.getUnitId())
+                .subCategoryId(original.getSubCategoryId())
+                .categoryId(original.getCategoryId())
+                .brandId(original.getBrandId())
+                .barcodeSymbology(original.getBarcodeSymbology())
+                .barcodeValue(original.getBarcodeValue())
+                .sellingType(original.getSellingType())
+                .productType(original.getProductType())
+                .taxType(original.getTaxType())
+                .discountType(original.getDiscountType())
+                .discountValue(original.getDiscountValue())
+                .description(original.getDescription())
+                .manufacturer(original.getManufacturer())
+                .imageUrl(original.getImageUrl())
+                .manufacturedDate(original.getManufacturedDate())
+                .expiredDate(original.getExpiredDate())
+                .createdBy(createdBy)
+                .build();
+    }
+
+    // The sku is the upsert key; slug and item code must not belong to a different product
+    private static void checkCodes(Product p, Map<String, CodeOwner> bySku, Map<String, CodeOwner> bySlug,
+                                   Map<String, CodeOwner> byItemCode, Set<String> seenSkus, Set<String> seenSlugs,
+                                   Set<String> seenItemCodes) {
+        CodeOwner skuOwner = bySku.get(p.getSku());
+        if (skuOwner != null && skuOwner.isDeleted()) {
+            throw new BadRequestException("SKU belongs to a deleted product");
+        }
+        CodeOwner slugOwner = bySlug.get(p.getSlug());
+        if (slugOwner != null && !slugOwner.sku().equals(p.getSku())) {
+            throw new BadRequestException("Slug already in use");
+        }
+        CodeOwner itemCodeOwner = p.getItemCode() != null ? byItemCode.get(p.getItemCode()) : null;
+        if (itemCodeOwner != null && !itemCodeOwner.sku().equals(p.getSku())) {
+            throw new BadRequestException("Item code already in use");
+        }
+        if (seenSkus.contains(p.getSku())) {
+            throw new BadRequestException("SKU repeated earlier in the request");
+        }
+        if (seenSlugs.contains(p.getSlug()) || p.getItemCode() != null && seenItemCodes.contains(p.getItemCode())) {
+            throw new BadRequestException("Slug or item code repeated earlier in the request");
+        }
+        seenSkus.add(p.getSku());
+        seenSlugs.add(p.getSlug());
+        if (p.getItemCode() != null) {
+            seenItemCodes.add(p.getItemCode());
+        }
+    }
+
+    private static BulkProductResult failed(int index, String sku, String error) {
+        return BulkProductResult.builder()
+                .index(index)
+                .sku(sku)
+                .action("failed")
+                .error(error)
+                .build();
+    }
+
+    private static Set<Integer> ids(List<CreateProductRequest> items, Function<CreateProductRequest, Integer> id) {
+        return items.stream().map(id).filter(Objects::nonNull).collect(Collectors.toSet());
+    }
+
+    private static Set<String> codes(List<CreateProductRequest> items, Function<CreateProductRequest, String> code) {
+        return items.stream().map(code).filter(Objects::nonNull).collect(Collectors.toSet());
+    }
+
+    private static Map<String, CodeOwner> index(List<CodeOwner> owners, Function<CodeOwner, String> code) {
+        Map<String, CodeOwner> index = new HashMap<>();
+        for (CodeOwner owner : owners) {
+            String value = code.apply(owner);
+            if (value != null) {
+                index.put(value, owner);
+            }
+        }
+        return index;
+    }
+}
@@ -0,0 +1,493 @@
+package com.example.pos.service;
+
+import com.example.pos.dto.ProductFacetsResponse;
+import com.example.pos.entity.ProductSnapshot;
+import com.example.pos.repository.ProductFilter;
+import com.example.pos.repository.ProductRepository;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory, column-oriented copy of the filter and sort columns of every non-deleted product.
+ * <p>
+ * Each product occupies a slot; columns are primitive arrays indexed by slot and every filter value
+ * has a {@link BitSet} of the slots holding it, so any combination of the list filters is a bitmap
+ * intersection. Only the rows of the requested page are then read from PostgreSQL.
+ * <p>
+ * Writes arrive through {@link ProductSnapshotIndex}; reads only take {@link #lock}'s read lock, so
+ * concurrent list requests do not serialize on the write monitor. Text search and sort keys that are
+ * not held here fall back to the database.
+ */
+@Component
+public class ProductCatalogIndex extends ProductSnapshotIndex {
+
+    public static final Set<String> SORT_KEYS = Set.of("id", "createdAt", "updatedAt", "price", "quantity");
+
+    private static final int NONE = Integer.MIN_VALUE;
+
+    // Writers hold writeLock (the base class) and then this write lock
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<Integer, Integer> slotById = new HashMap<>();
+    private final BitSet live = new BitSet();
+    private final Deque<Integer> freeSlots = new ArrayDeque<>();
+    private int slotCount;
+
+    private int[] ids = new int[0];
+    private int[] categoryIds = new int[0];
+    private int[] brandIds = new int[0];
+    private int[] unitIds = new int[0];
+    private int[] subCategoryIds = new int[0];
+    private int[] storeIds = new int[0];
+    private int[] warehouseIds = new int[0];
+    private int[] statusCodes = new int[0];
+    private int[] productTypeCodes = new int[0];
+    private int[] sellingTypeCodes = new int[0];
+    private int[] quantities = new int[0];
+    private int[] qtyAlerts = new int[0];
+    private long[] prices = new long[0];
+    private long[] createdAts = new long[0];
+    private long[] updatedAts = new long[0];
+    // Last updatedAt of each product taken out of the index, so a late event for an older version of it is
+    // not re-inserted; Long.MAX_VALUE for rows deleted outright. Cleared with the index on a rebuild.
+    private final Map<Integer, Long> removedAt = new HashMap<>();
+
+    private final Map<Integer, BitSet> byCategory = new HashMap<>();
+    private final Map<Integer, BitSet> byBrand = new HashMap<>();
+    private final Map<Integer, BitSet> byUnit = new HashMap<>();
+    private final Map<Integer, BitSet> bySubCategory = new HashMap<>();
+    private final Map<Integer, BitSet> byStore = new HashMap<>();
+    private final Map<Integer, BitSet> byWarehouse = new HashMap<>();
+    private final Map<Integer, BitSet> byStatus = new HashMap<>();
+    private final Map<Integer, BitSet> byProductType = new HashMap<>();
+    private final Map<Integer, BitSet> bySellingType = new HashMap<>();
+
+    // Status is matched exactly, product and selling type case-insensitively, as in the JPQL query
+    private final Dictionary statuses = new Dictionary();
+    private final Dictionary productTypes = new Dictionary();
+    private final Dictionary sellingTypes = new Dictionary();
+
+    public ProductCatalogIndex(ProductRepository productRepository) {
+        super(productRepository);
+    }
+
+    /**
+     * Whether the index can evaluate this filter; text search and deleted products need the database.
+     */
+    public boolean supports(ProductFilter filter) {
+        return isReady()
+                && (filter.getSearchLower() == null || filter.getSearchLower().isEmpty())
+                && !"DELETED".equals(filter.getStatus());
+    }
+
+    /**
+     * Whether {@link #findIds} can answer this request; other sort keys need the database.
+     */
+    public boolean supports(ProductFilter filter, String sortBy) {
+        return supports(filter) && SORT_KEYS.contains(sortBy);
+    }
+
+    /**
+     * One page of product ids matching the filter, in the requested order (ties broken by id), with the
+     * exact total. Callers must check {@link #supports} first.
+     */
+    public Page<Integer> findIds(ProductFilter filter, String sortBy, boolean descending, Pageable pageable) {
+        lock.readLock().lock();
+        try {
+            BitSet matches = match(filter);
+            int total = matches.cardinality();
+            int from = (int) Math.min(pageable.getOffset(), total);
+            if (from == total) {
+                return new PageImpl<>(List.of(), pageable, total);
+            }
+            int[] top = topSlots(matches, from + Math.min(pageable.getPageSize(), total - from),
+                    comparator(sortBy, descending));
+
+            List<Integer> pageIds = new ArrayList<>(top.length - from);
+            for (int i = from; i < top.length; i++) {
+                pageIds.add(ids[top[i]]);
+            }
+            return new PageImpl<>(pageIds, pageable, total);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Per-value counts of the products matching the filter, in one pass over the matching slots.
+     * Callers must check {@link #supports} first.
+     */
+    public ProductFacetsResponse facets(ProductFilter filter) {
+        lock.readLock().lock();
+        try {
+            BitSet matches = match(filter);
+            Map<Integer, Long> categories = new HashMap<>();
+            Map<Integer, Long> brands = new HashMap<>();
+            Map<Integer, Long> units = new HashMap<>();
+            Map<Integer, Long> stores = new HashMap<>();
+            Map<Integer, Long> productTypeCounts = new HashMap<>();
+            Map<Integer, Long> sellingTypeCounts = new HashMap<>();
+            for (int slot = matches.nextSetBit(0); slot >= 0; slot = matches.nextSetBit(slot + 1)) {
+                count(categories, categoryIds[slot]);
+                count(brands, brandIds[slot]);
+                count(units, unitIds[slot]);
+                count(stores, storeIds[slot]);
+                count(productTypeCounts, productTypeCodes[slot]);
+                count(sellingTypeCounts, sellingTypeCodes[slot]);
+            }
+            return ProductFacetsResponse.builder()
+                    .totalItems(matches.cardinality())
+                    .categories(categories)
+                    .brands(brands)
+                    .units(units)
+                    .stores(stores)
+                    .productTypes(productTypes.decode(productTypeCounts))
+                    .sellingTypes(sellingTypes.decode(sellingTypeCounts))
+                    .build();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static void count(Map<Integer, Long> counts, int value) {
+        if (value != NONE) {
+            counts.merge(value, 1L, Long::sum);
+        }
+    }
+
+    private BitSet match(ProductFilter filter) {
+        BitSet result;
+        if (filter.getStatus() != null) {
+            result = copyOf(byStatus.get(statuses.find(filter.getStatus())));
+        } else {
+            result = (BitSet) live.clone();
+        }
+        and(result, byCategory, filter.getCategoryId());
+        and(result, byBrand, filter.getBrandId());
+        and(result, byUnit, filter.getUnitId());
+        and(result, bySubCategory, filter.getSubCategoryId());
+        and(result, byStore, filter.getStoreId());
+        and(result, byWarehouse, filter.getWarehouseId());
+        if (filter.getProductTypeLower() != null) {
+            and(result, byProductType, productTypes.find(filter.getProductTypeLower()));
+        }
+        if (filter.getSellingTypeLower() != null) {
+            and(result, bySellingType, sellingTypes.find(filter.getSellingTypeLower()));
+        }
+        return result;
+    }
+
+    private static void and(BitSet result, Map<Integer, BitSet> bitmaps, Integer value) {
+        if (value != null) {
+            BitSet bits = bitmaps.get(value);
+            if (bits == null) {
+                result.clear();
+            } else {
+                result.and(bits);
+            }
+        }
+    }
+
+    private static BitSet copyOf(BitSet bits) {
+        return bits == null ? new BitSet() : (BitSet) bits.clone();
+    }
+
+    private SlotComparator comparator(String sortBy, boolean descending) {
+        SlotComparator byKey = switch (sortBy) {
+            case "createdAt" -> (a, b) -> Long.compare(createdAts[a], createdAts[b]);
+            case "updatedAt" -> (a, b) -> Long.compare(updatedAts[a], updatedAts[b]);
+            case "price" -> (a, b) -> Long.compare(prices[a], prices[b]);
+            case "quantity" -> (a, b) -> Integer.compare(quantities[a], quantities[b]);
+            default -> (a, b) -> 0;
+        };
+        SlotComparator withId = (a, b) -> {
+            int c = byKey.compare(a, b);
+            return c != 0 ? c : Integer.compare(ids[a], ids[b]);
+        };
+        return descending ? (a, b) -> withId.compare(b, a) : withId;
+    }
+
+    // ----------------------------------------------------------------- writes (called holding writeLock)
+
+    @Override
+    protected void clear() {
+        lock.writeLock().lock();
+        try {
+            slotById.clear();
+            live.clear();
+            freeSlots.clear();
+            removedAt.clear();
+            slotCount = 0;
+            grow(0);
+            List.of(byCategory, byBrand, byUnit, bySubCategory, byStore, byWarehouse, byStatus, byProductType,
+                    bySellingType).forEach(Map::clear);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    protected void upsert(ProductSnapshot p) {
+        if (p.id() == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            write(p);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    protected void remove(Integer id) {
+        lock.writeLock().lock();
+        try {
+            unlink(id);
+            removedAt.put(id, Long.MAX_VALUE);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    protected int size() {
+        lock.readLock().lock();
+        try {
+            return slotById.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void write(ProductSnapshot p) {
+        Integer existing = slotById.get(p.id());
+        long updatedAt = epochMillis(p.updatedAt());
+        // After-commit events of concurrent transactions can arrive out of order; keep the newer row, or
+        // the removal when the row was taken out by a newer write
+        long current = existing != null ? updatedAts[existing] : removedAt.getOrDefault(p.id(), Long.MIN_VALUE);
+        if (current > updatedAt) {
+            return;
+        }
+        if (p.isDeleted()) {
+            unlink(p.id());
+            removedAt.put(p.id(), updatedAt);
+            return;
+        }
+        removedAt.remove(p.id());
+        int slot;
+        if (existing != null) {
+            slot = existing;
+            unindex(slot);
+        } else {
+            slot = allocateSlot();
+            slotById.put(p.id(), slot);
+        }
+        ids[slot] = p.id();
+        categoryIds[slot] = index(byCategory, slot, p.categoryId());
+        brandIds[slot] = index(byBrand, slot, p.brandId());
+        unitIds[slot] = index(byUnit, slot, p.unitId());
+        subCategoryIds[slot] = index(bySubCategory, slot, p.subCategoryId());
+        storeIds[slot] = index(byStore, slot, p.storeId());
+        warehouseIds[slot] = index(byWarehouse, slot, p.warehouseId());
+        statusCodes[slot] = index(byStatus, slot, statuses.code(p.status()));
+        productTypeCodes[slot] = index(byProductType, slot, productTypes.code(lower(p.productType())));
+        sellingTypeCodes[slot] = index(bySellingType, slot, sellingTypes.code(lower(p.sellingType())));
+        quantities[slot] = p.quantity() != null ? p.quantity() : 0;
+        qtyAlerts[slot] = p.qtyAlert() != null ? p.qtyAlert() : NONE;
+        prices[slot] = cents(p.price());
+        createdAts[slot] = epochMillis(p.createdAt());
+        updatedAts[slot] = epochMillis(p.updatedAt());
+        live.set(slot);
+    }
+
+    private void unlink(Integer id) {
+        Integer slot = slotById.remove(id);
+        if (slot != null) {
+            unindex(slot);
+            live.clear(slot);
+            freeSlots.push(slot);
+        }
+    }
+
+    private void unindex(int slot) {
+        unset(byCategory, slot, categoryIds[slot]);
+        unset(byBrand, slot, brandIds[slot]);
+        unset(byUnit, slot, unitIds[slot]);
+        unset(bySubCategory, slot, subCategoryIds[slot]);
+        unset(byStore, slot, storeIds[slot]);
+        unset(byWarehouse, slot, warehouseIds[slot]);
+        unset(byStatus, slot, statusCodes[slot]);
+        unset(byProductType, slot, productTypeCodes[slot]);
+        unset(bySellingType, slot, sellingTypeCodes[slot]);
+    }
+
+    private static int index(Map<Integer, BitSet> bitmaps, int slot, Integer value) {
+        if (value == null) {
+            return NONE;
+        }
+        bitmaps.computeIfAbsent(value, v -> new BitSet()).set(slot);
+        return value;
+    }
+
+    private static void unset(Map<Integer, BitSet> bitmaps, int slot, int value) {
+        if (value == NONE) {
+            return;
+        }
+        BitSet bits = bitmaps.get(value);
+        if (bits != null) {
+            bits.clear(slot);
+            if (bits.isEmpty()) {
+                bitmaps.remove(value);
+            }
+        }
+    }
+
+    private int allocateSlot() {
+        if (!freeSlots.isEmpty()) {
+            return freeSlots.pop();
+        }
+        if (slotCount == ids.length) {
+            grow(Math.max(1024, ids.length * 2));
+        }
+        return slotCount++;
+    }
+
+    private void grow(int capacity) {
+        ids = Arrays.copyOf(ids, capacity);
+        categoryIds = Arrays.copyOf(categoryIds, capacity);
+        brandIds = Arrays.copyOf(brandIds, capacity);
+        unitIds = Arrays.copyOf(unitIds, capacity);
+        subCategoryIds = Arrays.copyOf(subCategoryIds, capacity);
+        storeIds = Arrays.copyOf(storeIds, capacity);
+        warehouseIds = Arrays.copyOf(warehouseIds, capacity);
+        statusCodes = Arrays.copyOf(statusCodes, capacity);
+        productTypeCodes = Arrays.copyOf(productTypeCodes, capacity);
+        sellingTypeCodes = Arrays.copyOf(sellingTypeCodes, capacity);
+        quantities = Arrays.copyOf(quantities, capacity);
+        qtyAlerts = Arrays.copyOf(qtyAlerts, capacity);
+        prices = Arrays.copyOf(prices, capacity);
+        createdAts = Arrays.copyOf(createdAts, capacity);
+        updatedAts = Arrays.copyOf(updatedAts, capacity);
+    }
+
+    private static String lower(String value) {
+        return value != null ? value.toLowerCase() : null;
+    }
+
+    private static long cents(BigDecimal price) {
+        return price != null ? price.movePointRight(2).longValue() : Long.MIN_VALUE;
+    }
+
+    private static long epochMillis(LocalDateTime time) {
+        return time != null ? time.toInstant(ZoneOffset.UTC).toEpochMilli() : Long.MIN_VALUE;
+    }
+
+    // ----------------------------------------------------------------- helpers
+
+    @FunctionalInterface
+    private interface SlotComparator {
+        int compare(int a, int b);
+    }
+
+    /**
+     * The first {@code k} matching slots in comparator order. A bounded max-heap keeps the k best seen so
+     * far, so a page costs O(n log k) over the matches instead of sorting all of them; the heap is then
+     * heap-sorted in place. Works on primitive slots to avoid boxing every match for a Comparator.
+     */
+    private static int[] topSlots(BitSet matches, int k, SlotComparator cmp) {
+        int[] heap = new int[k];
+        if (k == 0) {
+            return heap;
+        }
+        int size = 0;
+        for (int slot = matches.nextSetBit(0); slot >= 0; slot = matches.nextSetBit(slot + 1)) {
+            if (size < k) {
+                heap[size] = slot;
+                siftUp(heap, size++, cmp);
+            } else if (cmp.compare(slot, heap[0]) < 0) {
+                heap[0] = slot;
+                siftDown(heap, 0, k, cmp);
+            }
+        }
+        for (int end = size - 1; end > 0; end--) {
+            int worst = heap[0];
+            heap[0] = heap[end];
+            heap[end] = worst;
+            siftDown(heap, 0, end, cmp);
+        }
+        return heap;
+    }
+
+    private static void siftUp(int[] heap, int i, SlotComparator cmp) {
+        while (i > 0) {
+            int parent = (i - 1) / 2;
+            if (cmp.compare(heap[i], heap[parent]) <= 0) {
+                return;
+            }
+            int t = heap[i];
+            heap[i] = heap[parent];
+            heap[parent] = t;
+            i = parent;
+        }
+    }
+
+    private static void siftDown(int[] heap, int i, int size, SlotComparator cmp) {
+        while (true) {
+            int largest = i;
+            int left = 2 * i + 1;
+            int right = left + 1;
+            if (left < size && cmp.compare(heap[left], heap[largest]) > 0) {
+                largest = left;
+            }
+            if (right < size && cmp.compare(heap[right], heap[largest]) > 0) {
+                largest = right;
+            }
+            if (largest == i) {
+                return;
+            }
+            int t = heap[i];
+            heap[i] = heap[largest];
+            heap[largest] = t;
+            i = largest;
+        }
+    }
+
+    /**
+     * Maps string values to small int codes so they can share the int-keyed bitmaps.
+     */
+    private static final class Dictionary {
+        private final Map<String, Integer> codes = new HashMap<>();
+        private final List<String> values = new ArrayList<>();
+
+        Integer code(String value) {
+            if (value == null) {
+                return null;
+            }
+            return codes.computeIfAbsent(value, v -> {
+                values.add(v);
+                return values.size() - 1;
+            });
+        }
+
+        Map<String, Long> decode(Map<Integer, Long> counts) {
+            Map<String, Long> decoded = new HashMap<>();
+            counts.forEach((code, count) -> decoded.put(values.get(code), count));
+            return decoded;
+        }
+
+        // Code of a value that may never have been indexed; -1 matches no bitmap
+        int find(String value) {
+            return codes.getOrDefault(value, -1);
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.pos.service;
+
+import com.example.pos.entity.ProductSnapshot;
+import com.example.pos.repository.ProductRepository;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Exact code → product id maps for till scans: barcode value, sku and item code, matched as scanned.
+ */
+@Component
+public class ProductCodeIndex extends ProductSnapshotIndex {
+
+    private final Map<String, Integer> byBarcode = new ConcurrentHashMap<>();
+    private final Map<String, Integer> bySku = new ConcurrentHashMap<>();
+    private final Map<String, Integer> byItemCode = new ConcurrentHashMap<>();
+    // Codes last indexed per product, so an update can drop the old ones
+    private final Map<Integer, Codes> indexed = new ConcurrentHashMap<>();
+
+    private record Codes(String barcodeValue, String sku, String itemCode) {
+    }
+
+    public ProductCodeIndex(ProductRepository productRepository) {
+        super(productRepository);
+    }
+
+    /**
+     * Product id for a scanned code, checking barcode value, then sku, then item code; null when unknown.
+     */
+    public Integer findId(String code) {
+        Integer id = byBarcode.get(code);
+        if (id == null) {
+            id = bySku.get(code);
+        }
+        if (id == null) {
+            id = byItemCode.get(code);
+        }
+        return id;
+    }
+
+    // ----------------------------------------------------------------- writes (under writeLock)
+
+    @Override
+    protected void clear() {
+        byBarcode.clear();
+        bySku.clear();
+        byItemCode.clear();
+        indexed.clear();
+    }
+
+    @Override
+    protected int size() {
+        return indexed.size();
+    }
+
+    @Override
+    protected void upsert(ProductSnapshot p) {
+        if (p.id() == null) {
+            return;
+        }
+        remove(p.id());
+        if (p.isDeleted()) {
+            return;
+        }
+        put(byBarcode, p.barcodeValue(), p.id());
+        put(bySku, p.sku(), p.id());
+        put(byItemCode, p.itemCode(), p.id());
+        indexed.put(p.id(), new Codes(p.barcodeValue(), p.sku(), p.itemCode()));
+    }
+
+    @Override
+    protected void remove(Integer id) {
+        Codes previous = indexed.remove(id);
+        if (previous != null) {
+            // Only drop a code if it still points at this product
+            drop(byBarcode, previous.barcodeValue(), id);
+            drop(bySku, previous.sku(), id);
+            drop(byItemCode, previous.itemCode(), id);
+        }
+    }
+
+    private static void put(Map<String, Integer> codes, String code, Integer id) {
+        if (code != null && !code.isBlank()) {
+            codes.put(code, id);
+        }
+    }
+
+    private static void drop(Map<String, Integer> codes, String code, Integer id) {
+        if (code != null) {
+            codes.remove(code, id);
+        }
+    }
+}
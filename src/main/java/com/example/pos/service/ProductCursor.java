@@ -0,0 +1,54 @@
+package com.example.pos.service;
+
+import com.example.pos.entity.Product;
+import com.example.pos.exception.BadRequestException;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * Opaque keyset cursor for the product list: the sort key and direction of the listing plus the
+ * (sortValue, id) of the last row returned. Encoded as URL-safe Base64 so clients treat it as a token.
+ */
+public record ProductCursor(String sortBy, boolean descending, Object value, Integer id) {
+
+    public static ProductCursor after(Product last, String sortBy, boolean descending) {
+        Object value = switch (sortBy) {
+            case "id" -> last.getId();
+            case "createdAt" -> last.getCreatedAt();
+            case "updatedAt" -> last.getUpdatedAt();
+            case "name" -> last.getName();
+            case "price" -> last.getPrice();
+            default -> throw new BadRequestException("Cursor pagination does not support sortBy: " + sortBy);
+        };
+        return new ProductCursor(sortBy, descending, value, last.getId());
+    }
+
+    public static ProductCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            // sortBy|dir|id|value - the value goes last because names may contain the separator
+            String[] parts = raw.split("\\|", 4);
+            String sortBy = parts[0];
+            boolean descending = "desc".equals(parts[1]);
+            Integer id = Integer.valueOf(parts[2]);
+            Object value = switch (sortBy) {
+                case "id" -> id;
+                case "createdAt", "updatedAt" -> LocalDateTime.parse(parts[3]);
+                case "name" -> parts[3];
+                case "price" -> new BigDecimal(parts[3]);
+                default -> throw new IllegalArgumentException(sortBy);
+            };
+            return new ProductCursor(sortBy, descending, value, id);
+        } catch (RuntimeException e) {
+            throw new BadRequestException("Invalid cursor");
+        }
+    }
+
+    public String encode() {
+        String raw = sortBy + "|" + (descending ? "desc" : "asc") + "|" + id + "|" + (value != null ? value : "");
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.pos.service;
+
+import com.example.pos.entity.ProductSnapshot;
+import com.example.pos.entity.ProductsChangedEvent;
+import com.example.pos.exception.BadRequestException;
+import com.example.pos.repository.ProductExpiryRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Expiry tracking. The upcoming expiries are read per day from the partial index on expired_date, which
+ * serves as the calendar queue: the daily sweep takes everything due up to today from its head.
+ * <p>
+ * The sweep flags each product once per expiry date (expiry_swept_at) and, with action "deactivate", sets
+ * active products inactive. It runs under a transaction-level advisory lock, so when several instances fire
+ * the schedule only one of them does the work; the others skip it.
+ */
+@Service
+@Slf4j
+public class ProductExpiryService {
+
+    static final int MAX_WITHIN_DAYS = 366;
+
+    private final ProductExpiryRepository expiryRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean deactivate;
+
+    public ProductExpiryService(ProductExpiryRepository expiryRepository,
+                                ApplicationEventPublisher eventPublisher,
+                                PlatformTransactionManager transactionManager,
+                                @Value("${app.expiry.action:deactivate}") String action) {
+        if (!action.equalsIgnoreCase("deactivate") && !action.equalsIgnoreCase("flag")) {
+            throw new IllegalArgumentException("app.expiry.action must be 'deactivate' or 'flag'");
+        }
+        this.expiryRepository = expiryRepository;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.deactivate = action.equalsIgnoreCase("deactivate");
+    }
+
+    /**
+     * Products and units expiring on each of the next {@code withinDays} days; days without expiries are left out.
+     */
+    public List<ProductExpiryRepository.ExpiryDay> getExpiryCalendar(int withinDays) {
+        LocalDate today = LocalDate.now();
+        return expiryRepository.countByDay(today, today.plusDays(requireWithinDays(withinDays)));
+    }
+
+    /**
+     * Runs the sweep; returns the number of products flagged, or -1 when another instance holds the lock.
+     */
+    @Scheduled(cron = "${app.expiry.sweep-cron:0 5 0 * * *}")
+    public int sweep() {
+        Integer swept = transactionTemplate.execute(status -> {
+            if (!expiryRepository.tryLockSweep()) {
+                return -1;
+            }
+            List<ProductSnapshot> rows = expiryRepository.sweepExpired(LocalDate.now(), deactivate, LocalDateTime.now());
+            if (!rows.isEmpty()) {
+                // Bulk SQL bypasses the entity listener
+                eventPublisher.publishEvent(new ProductsChangedEvent(rows, List.of()));
+            }
+            return rows.size();
+        });
+        if (swept != null && swept > 0) {
+            log.info("Expiry sweep: {} products {}", swept, deactivate ? "flagged and deactivated" : "flagged");
+        } else if (swept != null && swept < 0) {
+            log.debug("Expiry sweep skipped: running on another instance");
+        }
+        return swept != null ? swept : 0;
+    }
+
+    static int requireWithinDays(int withinDays) {
+        if (withinDays < 1 || withinDays > MAX_WITHIN_DAYS) {
+            throw new BadRequestException("withinDays must be between 1 and " + MAX_WITHIN_DAYS);
+        }
+        return withinDays;
+    }
+}
@@ -0,0 +1,159 @@
+package com.example.pos.service;
+
+import com.example.pos.exception.BadRequestException;
+import com.example.pos.repository.ProductExportRepository;
+import com.example.pos.repository.ProductFilter;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.*;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.List;
+
+/**
+ * Writes the product catalog as CSV or NDJSON straight to an output stream, one row at a time.
+ */
+@Service
+@RequiredArgsConstructor
+public class ProductExportService {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final ProductExportRepository productExportRepository;
+    private final ObjectMapper objectMapper;
+
+    public enum Format {
+        CSV("text/csv", "csv"),
+        NDJSON("application/x-ndjson", "ndjson");
+
+        private final String contentType;
+        private final String extension;
+
+        Format(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public String contentType() {
+            return contentType;
+        }
+
+        public String fileName() {
+            return "products." + extension;
+        }
+
+        public static Format parse(String format) {
+            if (format != null) {
+                for (Format f : values()) {
+                    if (f.extension.equalsIgnoreCase(format.trim())) {
+                        return f;
+                    }
+                }
+            }
+            throw new BadRequestException("Invalid format: must be one of csv, ndjson");
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public void export(ProductFilter filter, Format format, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+        List<String> columns = ProductExportRepository.COLUMNS;
+        try {
+            if (format == Format.CSV) {
+                writeCsvRow(writer, columns);
+                productExportRepository.streamRows(filter, rs -> writeCsvRow(writer, rowValues(rs, columns.size())));
+            } else {
+                JsonGenerator json = objectMapper.getFactory().createGenerator(writer);
+                json.setRootValueSeparator(null);
+                // Row-level flushes only move bytes into the buffered writer, not onto the socket
+                json.disable(JsonGenerator.Feature.FLUSH_PASSED_TO_STREAM);
+                productExportRepository.streamRows(filter, rs -> writeJsonRow(json, writer, columns, rs));
+                json.flush();
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        writer.flush();
+    }
+
+    private static List<String> rowValues(ResultSet rs, int columnCount) throws SQLException {
+        String[] values = new String[columnCount];
+        for (int i = 0; i < columnCount; i++) {
+            values[i] = text(rs.getObject(i + 1));
+        }
+        return List.of(values);
+    }
+
+    // RFC 4180: quote fields containing a separator, quote or line break; double embedded quotes
+    private static void writeCsvRow(Writer writer, List<String> values) {
+        try {
+            for (int i = 0; i < values.size(); i++) {
+                if (i > 0) {
+                    writer.write(',');
+                }
+                String value = values.get(i);
+                if (value.indexOf(',') >= 0 || value.indexOf('"') >= 0 || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0) {
+                    writer.write('"');
+                    writer.write(value.replace("\"", "\"\""));
+                    writer.write('"');
+                } else {
+                    writer.write(value);
+                }
+            }
+            writer.write("\r\n");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void writeJsonRow(JsonGenerator json, Writer writer, List<String> columns, ResultSet rs)
+            throws SQLException {
+        try {
+            json.writeStartObject();
+            for (int i = 0; i < columns.size(); i++) {
+                Object value = rs.getObject(i + 1);
+                String name = columns.get(i);
+                if (value == null) {
+                    json.writeNullField(name);
+                } else if (value instanceof BigDecimal decimal) {
+                    json.writeNumberField(name, decimal);
+                } else if (value instanceof Integer number) {
+                    json.writeNumberField(name, number);
+                } else if (value instanceof Long number) {
+                    json.writeNumberField(name, number);
+                } else {
+                    json.writeStringField(name, text(value));
+                }
+            }
+            json.writeEndObject();
+            json.flush();
+            writer.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // ISO-8601 for dates and timestamps, plain notation for decimals, empty for null
+    private static String text(Object value) {
+        if (value == null) {
+            return "";
+        }
+        if (value instanceof Timestamp timestamp) {
+            return timestamp.toLocalDateTime().toString();
+        }
+        if (value instanceof java.sql.Date date) {
+            return date.toLocalDate().toString();
+        }
+        if (value instanceof BigDecimal decimal) {
+            return decimal.toPlainString();
+        }
+        return value.toString();
+    }
+}
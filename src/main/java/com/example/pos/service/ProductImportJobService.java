@@ -0,0 +1,312 @@
+package com.example.pos.service;
+
+import com.example.pos.dto.ProductImportJobDTO;
+import com.example.pos.entity.ProductImportJob;
+import com.example.pos.entity.ProductImportJobError;
+import com.example.pos.exception.BadRequestException;
+import com.example.pos.exception.ResourceNotFoundException;
+import com.example.pos.repository.ProductImportJobErrorRepository;
+import com.example.pos.repository.ProductImportJobRepository;
+import com.example.pos.security.UserPrincipal;
+import com.example.pos.util.CsvReader;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.net.InetAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.stream.Collectors;
+
+/**
+ * Background product imports. An upload is spooled to disk and queued; a small fixed pool of workers runs
+ * the jobs through {@link ProductImportService}, recording each committed chunk (counters, its partition's
+ * checkpoint and its row errors) in the same transaction. A job stopped by a restart or an error continues
+ * after the last committed chunk of each partition.
+ * <p>
+ * Spool files are local, so a job is owned by the instance that accepted it, identified by
+ * {@code app.product-import.instance-id}, which keeps the job's lease alive while it is queued or running. At
+ * startup an instance resumes its own interrupted jobs, and those of other instances whose lease has expired
+ * and whose spool file it can read (a shared spool directory).
+ */
+@Service
+@Slf4j
+public class ProductImportJobService {
+
+    private static final List<String> QUEUED = List.of(ProductImportJob.QUEUED);
+    // RUNNING at startup means the previous process stopped mid-job
+    private static final List<String> INTERRUPTED = List.of(ProductImportJob.QUEUED, ProductImportJob.RUNNING);
+
+    private final ProductImportJobRepository jobRepository;
+    private final ProductImportJobErrorRepository errorRepository;
+    private final ProductImportService importService;
+    private final TransactionTemplate transactionTemplate;
+    private final ThreadPoolExecutor executor;
+    private final Path spoolDir;
+    private final String instanceId;
+    private final long leaseSeconds;
+
+    public ProductImportJobService(ProductImportJobRepository jobRepository,
+                                   ProductImportJobErrorRepository errorRepository,
+                                   ProductImportService importService,
+                                   PlatformTransactionManager transactionManager,
+                                   @Value("${app.product-import.workers:2}") int workers,
+                                   @Value("${app.product-import.queue-capacity:100}") int queueCapacity,
+                                   @Value("${app.product-import.spool-dir}") String spoolDir,
+                                   @Value("${app.product-import.instance-id:}") String instanceId,
+                                   @Value("${app.product-import.lease-seconds:120}") long leaseSeconds)
+            throws IOException {
+        this.jobRepository = jobRepository;
+        this.errorRepository = errorRepository;
+        this.importService = importService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), new CustomizableThreadFactory("product-import-"));
+        this.spoolDir = Files.createDirectories(Path.of(spoolDir));
+        this.instanceId = instanceId.isBlank() ? InetAddress.getLocalHost().getHostName() : instanceId;
+        this.leaseSeconds = leaseSeconds;
+    }
+
+    /**
+     * Spools the upload, checks its header and queues the job.
+     */
+    public ProductImportJobDTO submit(InputStream upload, String fileName, Authentication authentication)
+            throws IOException {
+        Path spool = Files.createTempFile(spoolDir, "import-", ".csv");
+        try {
+            Files.copy(upload, spool, StandardCopyOption.REPLACE_EXISTING);
+            try (CsvReader csv = new CsvReader(open(spool))) {
+                ProductImportService.columnIndex(csv.next());
+            }
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(spool);
+            throw e;
+        }
+
+        Integer createdBy = null;
+        if (authentication != null && authentication.getPrincipal() instanceof UserPrincipal userPrincipal) {
+            createdBy = userPrincipal.getId();
+        }
+        ProductImportJob job = jobRepository.save(ProductImportJob.builder()
+                .fileName(fileName)
+                .spoolPath(spool.toString())
+                .createdBy(createdBy)
+                .owner(instanceId)
+                .leaseExpiresAt(LocalDateTime.now().plusSeconds(leaseSeconds))
+                .build());
+        enqueue(job.getId(), QUEUED);
+        return getJob(job.getId());
+    }
+
+    public ProductImportJobDTO getJob(Integer id) {
+        return toDTO(findJob(id));
+    }
+
+    /**
+     * Re-queues a failed job; it continues after its last committed chunk.
+     */
+    public ProductImportJobDTO resume(Integer id) {
+        ProductImportJob job = findJob(id);
+        if (!ProductImportJob.FAILED.equals(job.getStatus())) {
+            throw new BadRequestException("Only failed import jobs can be resumed");
+        }
+        if (!Files.exists(Path.of(job.getSpoolPath()))) {
+            throw new BadRequestException("The uploaded file of this import job is no longer available");
+        }
+        job.setStatus(ProductImportJob.QUEUED);
+        job.setMessage(null);
+        job.setOwner(instanceId);
+        job.setLeaseExpiresAt(LocalDateTime.now().plusSeconds(leaseSeconds));
+        jobRepository.save(job);
+        enqueue(id, QUEUED);
+        return getJob(id);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeInterrupted() {
+        for (ProductImportJob job : jobRepository.findClaimable(INTERRUPTED, instanceId)) {
+            boolean own = instanceId.equals(job.getOwner());
+            if (!own && !Files.exists(Path.of(job.getSpoolPath()))) {
+                // Another instance's upload, not on this instance's disk
+                continue;
+            }
+            log.info("Resuming product import job {} ({} rows done){}", job.getId(), job.getRowsDone(),
+                    own ? "" : ", taken over from " + job.getOwner());
+            enqueue(job.getId(), INTERRUPTED);
+        }
+    }
+
+    /**
+     * Keeps the leases of this instance's jobs alive; the interval must stay well below the lease.
+     */
+    @Scheduled(fixedDelayString = "${app.product-import.heartbeat-ms:30000}")
+    public void renewLeases() {
+        transactionTemplate.executeWithoutResult(status -> jobRepository.renewLeases(instanceId, leaseSeconds));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        // Running jobs stay RUNNING and are resumed from their checkpoint on the next start, or by another
+        // instance once their lease has expired
+        executor.shutdownNow();
+    }
+
+    private void enqueue(Integer id, Collection<String> from) {
+        try {
+            executor.execute(() -> run(id, from));
+        } catch (RejectedExecutionException e) {
+            finish(id, ProductImportJob.FAILED, "Import queue is full; resume the job later");
+        }
+    }
+
+    // ----------------------------------------------------------------- worker
+
+    private void run(Integer id, Collection<String> from) {
+        Integer claimed = transactionTemplate.execute(status ->
+                jobRepository.claim(id, from, instanceId, leaseSeconds));
+        if (claimed == null || claimed == 0) {
+            return;
+        }
+        try {
+            ProductImportJob job = findJob(id);
+            Path spool = Path.of(job.getSpoolPath());
+            if (job.getTotalRows() == null) {
+                long totalRows = countRows(spool);
+                transactionTemplate.executeWithoutResult(status -> findJob(id).setTotalRows(totalRows));
+            }
+            if (job.getPartitions() == null) {
+                int partitions = importService.getPartitions();
+                transactionTemplate.executeWithoutResult(status -> findJob(id).setPartitions(partitions));
+                job.setPartitions(partitions);
+            }
+
+            Map<Integer, Long> checkpoints = new HashMap<>();
+            Map<Integer, Long> storedErrors = new ConcurrentHashMap<>();
+            for (Object[] row : jobRepository.findCheckpoints(id)) {
+                int partition = ((Number) row[0]).intValue();
+                checkpoints.put(partition, ((Number) row[1]).longValue());
+                storedErrors.put(partition, errorRepository.countByJobIdAndPartitionNo(id, partition));
+            }
+            long previousMillis = job.getProcessingMillis();
+            long runStart = System.nanoTime();
+            try (Reader reader = open(spool)) {
+                importService.importCsv(reader, job.getCreatedBy(),
+                        new ProductImportService.ResumePoint(job.getPartitions(), checkpoints),
+                        result -> recordChunk(id, result, storedErrors,
+                                previousMillis + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - runStart)));
+            }
+            finish(id, ProductImportJob.COMPLETED, null);
+            Files.deleteIfExists(spool);
+        } catch (Exception e) {
+            log.error("Product import job {} failed", id, e);
+            finish(id, ProductImportJob.FAILED, e.getMessage());
+        }
+    }
+
+    /**
+     * Runs inside the chunk's transaction, so the checkpoint commits exactly when the rows do. Each partition
+     * keeps its lowest MAX_ERRORS row errors, which always include the job's lowest MAX_ERRORS overall.
+     */
+    private void recordChunk(Integer id, ProductImportService.ChunkResult result, Map<Integer, Long> storedErrors,
+                             long processingMillis) {
+        jobRepository.addChunk(id, result.rows(), result.imported(), result.failed(), processingMillis);
+        jobRepository.saveCheckpoint(id, result.partition(), result.lastRowNumber());
+
+        long stored = storedErrors.getOrDefault(result.partition(), 0L);
+        List<ProductImportJobError> errors = result.errors().stream()
+                .sorted(Comparator.comparingLong(ProductImportService.RowError::rowNumber))
+                .limit(Math.max(0, ProductImportService.MAX_ERRORS - stored))
+                .map(error -> ProductImportJobError.builder()
+                        .jobId(id)
+                        .partitionNo(result.partition())
+                        .rowNumber(error.rowNumber())
+                        .message(truncate(error.message()))
+                        .build())
+                .toList();
+        if (!errors.isEmpty()) {
+            errorRepository.saveAll(errors);
+            storedErrors.put(result.partition(), stored + errors.size());
+        }
+    }
+
+    private void finish(Integer id, String status, String message) {
+        transactionTemplate.executeWithoutResult(tx -> {
+            ProductImportJob job = findJob(id);
+            job.setStatus(status);
+            job.setMessage(truncate(message));
+            job.setFinishedAt(LocalDateTime.now());
+        });
+    }
+
+    private static long countRows(Path spool) throws IOException {
+        long rows = 0;
+        try (CsvReader csv = new CsvReader(open(spool))) {
+            csv.next();
+            List<String> record;
+            while ((record = csv.next()) != null) {
+                if (!(record.size() == 1 && record.get(0).isBlank())) {
+                    rows++;
+                }
+            }
+        }
+        return rows;
+    }
+
+    private static Reader open(Path spool) throws IOException {
+        return Files.newBufferedReader(spool, StandardCharsets.UTF_8);
+    }
+
+    private ProductImportJob findJob(Integer id) {
+        return jobRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("ProductImportJob", "id", id));
+    }
+
+    private static String truncate(String message) {
+        return message != null && message.length() > 500 ? message.substring(0, 500) : message;
+    }
+
+    private ProductImportJobDTO toDTO(ProductImportJob job) {
+        Long totalRows = job.getTotalRows();
+        List<String> errors = errorRepository
+                .findByJobIdOrderByRowNumberAsc(job.getId(), PageRequest.of(0, ProductImportService.MAX_ERRORS))
+                .stream()
+                .map(error -> new ProductImportService.RowError(error.getRowNumber(), error.getMessage()).toString())
+                .collect(Collectors.toCollection(ArrayList::new));
+        if (job.getFailed() > errors.size()) {
+            errors.add(ProductImportService.ERRORS_OMITTED);
+        }
+        return ProductImportJobDTO.builder()
+                .id(job.getId())
+                .status(job.getStatus())
+                .fileName(job.getFileName())
+                .totalRows(totalRows)
+                .rowsDone(job.getRowsDone())
+                .imported(job.getImported())
+                .failed(job.getFailed())
+                .percentComplete(totalRows != null && totalRows > 0 ? job.getRowsDone() * 100.0 / totalRows : null)
+                .rowsPerSecond(job.getProcessingMillis() > 0 ? job.getRowsDone() * 1000.0 / job.getProcessingMillis() : null)
+                .errors(errors)
+                .message(job.getMessage())
+                .startedAt(job.getStartedAt())
+                .finishedAt(job.getFinishedAt())
+                .createdAt(job.getCreatedAt())
+                .build();
+    }
+}
@@ -0,0 +1,594 @@
+package com.example.pos.service;
+
+import com.example.pos.dto.CreateProductRequest;
+import com.example.pos.dto.ProductImportReport;
+import com.example.pos.entity.Product;
+import com.example.pos.entity.ProductSnapshot;
+import com.example.pos.entity.ProductsChangedEvent;
+import com.example.pos.exception.BadRequestException;
+import com.example.pos.repository.ProductImportRepository;
+import com.example.pos.repository.ProductReferences;
+import com.example.pos.repository.ProductStockRepository;
+import com.example.pos.security.UserPrincipal;
+import com.example.pos.util.CsvReader;
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Bulk product import from CSV. The upload is parsed as a stream and processed in chunks: reference ids
+ * are checked against sets loaded once per import, uniqueness is checked with one query per column per
+ * chunk, and each chunk is inserted as one JDBC batch in its own transaction. A bad row fails on its own
+ * and never rolls back rows from other chunks.
+ * <p>
+ * Rows are partitioned by store and warehouse, so a single-store file with several warehouses still spreads
+ * over the partitions. The calling thread parses and validates rows in file order (so "repeated
+ * earlier in the file" means the same as in a sequential run) and hands full chunks to one virtual thread
+ * per partition. Chunk transactions across all imports share a fixed number of permits, a slice of the
+ * connection pool, so imports never starve request handling of connections.
+ */
+@Service
+@Slf4j
+public class ProductImportService {
+
+    // Matched case-insensitively against the header row
+    private static final List<String> REQUIRED_COLUMNS = List.of(
+            "name", "sku", "slug", "price", "quantity", "unitId", "categoryId", "brandId", "subCategoryId",
+            "storeId", "warehouseId"
+    );
+    // Report size stays bounded for files where most rows are bad
+    static final int MAX_ERRORS = 1000;
+    static final String ERRORS_OMITTED = "Further errors omitted";
+    // Full chunks waiting per partition; bounds memory when the database is slower than parsing
+    private static final int QUEUED_CHUNKS = 2;
+
+    private final ProductImportRepository importRepository;
+    private final ProductStockRepository productStockRepository;
+    private final StockService stockService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Validator validator;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+    private final int partitions;
+    private final Semaphore connectionPermits;
+
+    public ProductImportService(ProductImportRepository importRepository,
+                                ProductStockRepository productStockRepository,
+                                StockService stockService,
+                                ApplicationEventPublisher eventPublisher,
+                                Validator validator,
+                                PlatformTransactionManager transactionManager,
+                                DataSource dataSource,
+                                @Value("${app.product-import.chunk-size:1000}") int chunkSize,
+                                @Value("${app.product-import.parallelism:4}") int parallelism,
+                                @Value("${app.product-import.pool-share:0.5}") double poolShare) {
+        this.importRepository = importRepository;
+        this.productStockRepository = productStockRepository;
+        this.stockService = stockService;
+        this.eventPublisher = eventPublisher;
+        this.validator = validator;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+        int connections = Math.max(1, (int) (maximumPoolSize(dataSource, parallelism) * poolShare));
+        this.partitions = Math.max(1, Math.min(parallelism, connections));
+        this.connectionPermits = new Semaphore(connections);
+    }
+
+    private static int maximumPoolSize(DataSource dataSource, int fallback) {
+        try {
+            if (dataSource.isWrapperFor(HikariDataSource.class)) {
+                return dataSource.unwrap(HikariDataSource.class).getMaximumPoolSize();
+            }
+        } catch (SQLException e) {
+            log.warn("Could not read the connection pool size", e);
+        }
+        return fallback;
+    }
+
+    /**
+     * A row that was not imported, with its 1-based data row number in the source file.
+     */
+    public record RowError(long rowNumber, String message) {
+
+        @Override
+        public String toString() {
+            return "Row " + rowNumber + ": " + message;
+        }
+    }
+
+    /**
+     * Outcome of one chunk of a partition, up to and including {@code lastRowNumber}.
+     */
+    public record ChunkResult(int partition, long lastRowNumber, int rows, int imported, List<RowError> errors) {
+
+        public int failed() {
+            return rows - imported;
+        }
+    }
+
+    /**
+     * Called inside each chunk's transaction, so whatever it writes (a checkpoint) commits or rolls back
+     * together with the chunk's rows. Chunks of different partitions call it concurrently.
+     */
+    @FunctionalInterface
+    public interface ChunkListener {
+        void chunkCommitting(ChunkResult result);
+    }
+
+    /**
+     * Where an earlier run of the same file stopped: per partition, the last row whose chunk committed.
+     * Rows are assigned to partitions by store and warehouse, so the partition count must be the one of the earlier run.
+     */
+    public record ResumePoint(int partitions, Map<Integer, Long> checkpoints) {
+
+        long checkpoint(int partition) {
+            return checkpoints.getOrDefault(partition, 0L);
+        }
+    }
+
+    /**
+     * Partition count for new imports: the configured parallelism, capped by the connection pool slice.
+     */
+    public int getPartitions() {
+        return partitions;
+    }
+
+    public ProductImportReport importCsv(Reader reader, Authentication authentication) throws IOException {
+        Integer createdBy = null;
+        if (authentication != null && authentication.getPrincipal() instanceof UserPrincipal userPrincipal) {
+            createdBy = userPrincipal.getId();
+        }
+        return importCsv(reader, createdBy, new ResumePoint(partitions, Map.of()), result -> {
+        });
+    }
+
+    /**
+     * Imports the data rows above each partition's checkpoint and reports on those rows only. Row numbers
+     * are positions in the file, whichever run or partition processed them.
+     */
+    public ProductImportReport importCsv(Reader reader, Integer createdBy, ResumePoint resume, ChunkListener listener)
+            throws IOException {
+        try (CsvReader csv = new CsvReader(reader)) {
+            ImportSession session = new ImportSession(columnIndex(csv.next()), createdBy, listener);
+            List<Lane> lanes = new ArrayList<>(resume.partitions());
+            for (int p = 0; p < resume.partitions(); p++) {
+                lanes.add(new Lane(p, session));
+            }
+
+            try (ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor()) {
+                lanes.forEach(lane -> workers.execute(lane::drain));
+                try {
+                    List<String> record;
+                    while ((record = csv.next()) != null) {
+                        session.rethrowFailure();
+                        long rowNumber = csv.getRecordNumber() - 1;
+                        if (record.size() == 1 && record.get(0).isBlank()) {
+                            continue;
+                        }
+                        int partition = Math.floorMod(Objects.hash(session.text(record, "storeId"),
+                                session.text(record, "warehouseId")), lanes.size());
+                        if (rowNumber <= resume.checkpoint(partition)) {
+                            continue;
+                        }
+                        lanes.get(partition).add(session.parse(rowNumber, record));
+                    }
+                    lanes.forEach(Lane::flush);
+                } finally {
+                    lanes.forEach(Lane::close);
+                }
+            }
+            session.rethrowFailure();
+            return session.report();
+        }
+    }
+
+    /**
+     * Runs every check of the import without writing: rows are validated against the reference ids loaded
+     * once, codes against earlier rows of the file and, one IN query per column per chunk, against stored
+     * products. The report lists what the real import would reject, as long as nothing changes in between.
+     */
+    public ProductImportReport dryRun(Reader reader) throws IOException {
+        try (CsvReader csv = new CsvReader(reader)) {
+            ImportSession session = new ImportSession(columnIndex(csv.next()), null, result -> {
+            });
+            List<Entry> chunk = new ArrayList<>(chunkSize);
+            List<String> record;
+            while ((record = csv.next()) != null) {
+                if (record.size() == 1 && record.get(0).isBlank()) {
+                    continue;
+                }
+                chunk.add(session.parse(csv.getRecordNumber() - 1, record));
+                if (chunk.size() == chunkSize) {
+                    session.add(checkChunk(chunk));
+                    chunk.clear();
+                }
+            }
+            if (!chunk.isEmpty()) {
+                session.add(checkChunk(chunk));
+            }
+            ProductImportReport report = session.report();
+            report.setDryRun(true);
+            return report;
+        }
+    }
+
+    private ChunkResult checkChunk(List<Entry> entries) {
+        List<RowError> errors = new ArrayList<>();
+        List<Entry> candidates = new ArrayList<>(entries.size());
+        for (Entry entry : entries) {
+            if (entry.error() != null) {
+                errors.add(entry.error());
+            } else {
+                candidates.add(entry);
+            }
+        }
+        int accepted = rejectStoredCodes(candidates, errors).size();
+        return new ChunkResult(0, entries.get(entries.size() - 1).rowNumber(), entries.size(), accepted, errors);
+    }
+
+    /**
+     * Header name (lower case) to column position; fails when a required column is missing.
+     */
+    static Map<String, Integer> columnIndex(List<String> header) {
+        if (header == null) {
+            throw new BadRequestException("CSV content is empty");
+        }
+        Map<String, Integer> index = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            index.put(header.get(i).trim().toLowerCase(), i);
+        }
+        for (String column : REQUIRED_COLUMNS) {
+            if (!index.containsKey(column.toLowerCase())) {
+                throw new BadRequestException("Missing required column: " + column);
+            }
+        }
+        return index;
+    }
+
+    // ----------------------------------------------------------------- partitions
+
+    /**
+     * One partition: the calling thread fills chunks, a virtual thread commits them in order.
+     */
+    private class Lane {
+
+        private static final List<Entry> END = List.of();
+
+        private final int partition;
+        private final ImportSession session;
+        private final BlockingQueue<List<Entry>> queue = new ArrayBlockingQueue<>(QUEUED_CHUNKS);
+        private List<Entry> chunk = new ArrayList<>();
+
+        private Lane(int partition, ImportSession session) {
+            this.partition = partition;
+            this.session = session;
+        }
+
+        private void add(Entry entry) {
+            chunk.add(entry);
+            if (chunk.size() == chunkSize) {
+                flush();
+            }
+        }
+
+        private void flush() {
+            if (!chunk.isEmpty()) {
+                put(chunk);
+                chunk = new ArrayList<>();
+            }
+        }
+
+        private void close() {
+            put(END);
+        }
+
+        private void put(List<Entry> entries) {
+            try {
+                queue.put(entries);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while queueing import rows", e);
+            }
+        }
+
+        private void drain() {
+            try {
+                List<Entry> entries;
+                while ((entries = queue.take()) != END) {
+                    // After a failure elsewhere, keep taking so the reader never blocks, but write nothing
+                    if (session.failure.get() == null) {
+                        try {
+                            importChunk(session, partition, entries);
+                        } catch (RuntimeException e) {
+                            session.failure.compareAndSet(null, e);
+                        }
+                    }
+                }
+            } catch (InterruptedException e) {
+                session.failure.compareAndSet(null, new IllegalStateException("Import worker interrupted", e));
+            }
+        }
+    }
+
+    // ----------------------------------------------------------------- chunks
+
+    private void importChunk(ImportSession session, int partition, List<Entry> entries) {
+        long lastRowNumber = entries.get(entries.size() - 1).rowNumber();
+        List<RowError> parseErrors = new ArrayList<>();
+        List<Entry> candidates = new ArrayList<>(entries.size());
+        for (Entry entry : entries) {
+            if (entry.error() != null) {
+                parseErrors.add(entry.error());
+            } else {
+                candidates.add(entry);
+            }
+        }
+
+        connectionPermits.acquireUninterruptibly();
+        try {
+            // A concurrent writer can take a code between the check and the insert; the re-run sees it
+            ChunkResult result = null;
+            for (int attempt = 1; result == null; attempt++) {
+                try {
+                    result = transactionTemplate.execute(status ->
+                            insertChunk(session, partition, lastRowNumber, entries.size(), candidates, parseErrors));
+                } catch (DuplicateKeyException e) {
+                    if (attempt == 2) {
+                        log.warn("Product import chunk ending at row {} failed on a unique constraint twice", lastRowNumber, e);
+                        List<RowError> errors = new ArrayList<>(parseErrors);
+                        candidates.forEach(c -> errors.add(new RowError(c.rowNumber(), "SKU, slug or item code already in use")));
+                        ChunkResult rejected = new ChunkResult(partition, lastRowNumber, entries.size(), 0, errors);
+                        transactionTemplate.executeWithoutResult(status -> session.listener.chunkCommitting(rejected));
+                        result = rejected;
+                    }
+                }
+            }
+            session.add(result);
+        } finally {
+            connectionPermits.release();
+        }
+    }
+
+    /**
+     * Drops candidates whose codes already exist, batch-inserts the rest and publishes them.
+     */
+    private ChunkResult insertChunk(ImportSession session, int partition, long lastRowNumber, int rows,
+                                    List<Entry> candidates, List<RowError> parseErrors) {
+        List<RowError> errors = new ArrayList<>(parseErrors);
+        List<Product> accepted = rejectStoredCodes(candidates, errors);
+
+        if (!accepted.isEmpty()) {
+            LocalDateTime now = LocalDateTime.now();
+            accepted.forEach(p -> {
+                p.setCreatedAt(now);
+                p.setUpdatedAt(now);
+            });
+            importRepository.insertAll(accepted);
+            productStockRepository.syncHome(accepted.stream().map(Product::getId).toList());
+            stockService.recordOpeningStock(accepted, session.createdBy);
+            // JDBC inserts bypass the entity listener
+            eventPublisher.publishEvent(new ProductsChangedEvent(
+                    accepted.stream().map(ProductSnapshot::of).toList(), List.of()));
+        }
+
+        ChunkResult result = new ChunkResult(partition, lastRowNumber, rows, accepted.size(), errors);
+        session.listener.chunkCommitting(result);
+        return result;
+    }
+
+    /**
+     * The candidates whose sku, slug and item code are all free in the database; the others are added to
+     * {@code errors}.
+     */
+    private List<Product> rejectStoredCodes(List<Entry> candidates, List<RowError> errors) {
+        Set<String> skus = importRepository.findExisting("sku", codes(candidates, Product::getSku));
+        Set<String> slugs = importRepository.findExisting("slug", codes(candidates, Product::getSlug));
+        Set<String> itemCodes = importRepository.findExisting("item_code", codes(candidates, Product::getItemCode));
+
+        List<Product> accepted = new ArrayList<>(candidates.size());
+        for (Entry candidate : candidates) {
+            Product p = candidate.product();
+            if (skus.contains(p.getSku())) {
+                errors.add(new RowError(candidate.rowNumber(), "SKU already in use"));
+            } else if (slugs.contains(p.getSlug())) {
+                errors.add(new RowError(candidate.rowNumber(), "Slug already in use"));
+            } else if (p.getItemCode() != null && itemCodes.contains(p.getItemCode())) {
+                errors.add(new RowError(candidate.rowNumber(), "Item code already in use"));
+            } else {
+                accepted.add(p);
+            }
+        }
+        return accepted;
+    }
+
+    private static Set<String> codes(List<Entry> candidates, Function<Product, String> code) {
+        return candidates.stream()
+                .map(c -> code.apply(c.product()))
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+    }
+
+    /**
+     * A parsed row: the product to insert, or the reason it cannot be.
+     */
+    private record Entry(long rowNumber, Product product, RowError error) {
+    }
+
+    // ----------------------------------------------------------------- per-import state
+
+    /**
+     * Reference ids loaded once, codes seen so far in the file (reader thread only), and the running
+     * report (updated by the partition workers).
+     */
+    private class ImportSession {
+
+        private final Map<String, Integer> columns;
+        private final Integer createdBy;
+        private final ChunkListener listener;
+        private final ProductReferences references = importRepository.findReferences();
+        private final Set<String> seenSkus = new HashSet<>();
+        private final Set<String> seenSlugs = new HashSet<>();
+        private final Set<String> seenItemCodes = new HashSet<>();
+        private final AtomicReference<RuntimeException> failure = new AtomicReference<>();
+
+        private int totalRows;
+        private int imported;
+        private int failed;
+        // The MAX_ERRORS lowest row numbers, so the report does not depend on which partition finished first
+        private final PriorityQueue<RowError> errors =
+                new PriorityQueue<>(Comparator.comparingLong(RowError::rowNumber).reversed());
+
+        private ImportSession(Map<String, Integer> columns, Integer createdBy, ChunkListener listener) {
+            this.columns = columns;
+            this.createdBy = createdBy;
+            this.listener = listener;
+        }
+
+        private synchronized void add(ChunkResult result) {
+            totalRows += result.rows();
+            imported += result.imported();
+            failed += result.failed();
+            for (RowError error : result.errors()) {
+                errors.add(error);
+                if (errors.size() > MAX_ERRORS) {
+                    errors.poll();
+                }
+            }
+        }
+
+        private synchronized ProductImportReport report() {
+            List<String> messages = errors.stream()
+                    .sorted(Comparator.comparingLong(RowError::rowNumber))
+                    .map(RowError::toString)
+                    .collect(Collectors.toCollection(ArrayList::new));
+            if (failed > messages.size()) {
+                messages.add(ERRORS_OMITTED);
+            }
+            return ProductImportReport.builder()
+                    .totalRows(totalRows)
+                    .imported(imported)
+                    .failed(failed)
+                    .errors(messages)
+                    .build();
+        }
+
+        private void rethrowFailure() {
+            RuntimeException e = failure.get();
+            if (e != null) {
+                throw e;
+            }
+        }
+
+        private Entry parse(long rowNumber, List<String> record) {
+            try {
+                Product product = toProduct(record);
+                if (!claimCodes(product)) {
+                    return new Entry(rowNumber, null,
+                            new RowError(rowNumber, "SKU, slug or item code repeated earlier in the file"));
+                }
+                return new Entry(rowNumber, product, null);
+            } catch (BadRequestException e) {
+                return new Entry(rowNumber, null, new RowError(rowNumber, e.getMessage()));
+            }
+        }
+
+        private boolean claimCodes(Product p) {
+            boolean fresh = !seenSkus.contains(p.getSku()) && !seenSlugs.contains(p.getSlug())
+                    && (p.getItemCode() == null || !seenItemCodes.contains(p.getItemCode()));
+            seenSkus.add(p.getSku());
+            seenSlugs.add(p.getSlug());
+            if (p.getItemCode() != null) {
+                seenItemCodes.add(p.getItemCode());
+            }
+            return fresh;
+        }
+
+        private Product toProduct(List<String> record) {
+            CreateProductRequest req = CreateProductRequest.builder()
+                    .name(text(record, "name"))
+                    .sku(text(record, "sku"))
+                    .slug(text(record, "slug"))
+                    .price(decimal(record, "price"))
+                    .quantity(integer(record, "quantity"))
+                    .qtyAlert(integer(record, "qtyAlert"))
+                    .unitId(integer(record, "unitId"))
+                    .categoryId(integer(record, "categoryId"))
+                    .brandId(integer(record, "brandId"))
+                    .subCategoryId(integer(record, "subCategoryId"))
+                    .storeId(integer(record, "storeId"))
+                    .warehouseId(integer(record, "warehouseId"))
+                    .itemCode(text(record, "itemCode"))
+                    .barcodeSymbology(text(record, "barcodeSymbology"))
+                    .barcodeValue(text(record, "barcodeValue"))
+                    .sellingType(text(record, "sellingType"))
+                    .productType(text(record, "productType"))
+                    .taxType(text(record, "taxType"))
+                    .discountType(text(record, "discountType"))
+                    .discountValue(decimal(record, "discountValue"))
+                    .description(text(record, "description"))
+                    .manufacturer(text(record, "manufacturer"))
+                    .imageUrl(text(record, "imageUrl"))
+                    .manufacturedDate(date(record, "manufacturedDate"))
+                    .expiredDate(date(record, "expiredDate"))
+                    .build();
+            return ProductRules.toProduct(req, validator, references, createdBy);
+        }
+
+        private String text(List<String> record, String column) {
+            Integer i = columns.get(column.toLowerCase());
+            if (i == null || i >= record.size()) {
+                return null;
+            }
+            String value = record.get(i).trim();
+            return value.isEmpty() ? null : value;
+        }
+
+        private Integer integer(List<String> record, String column) {
+            String value = text(record, column);
+            try {
+                return value != null ? Integer.valueOf(value) : null;
+            } catch (NumberFormatException e) {
+                throw new BadRequestException("Invalid " + column + ": " + value);
+            }
+        }
+
+        private BigDecimal decimal(List<String> record, String column) {
+            String value = text(record, column);
+            try {
+                return value != null ? new BigDecimal(value) : null;
+            } catch (NumberFormatException e) {
+                throw new BadRequestException("Invalid " + column + ": " + value);
+            }
+        }
+
+        private LocalDate date(List<String> record, String column) {
+            String value = text(record, column);
+            try {
+                return value != null ? LocalDate.parse(value) : null;
+            } catch (DateTimeParseException e) {
+                throw new BadRequestException("Invalid " + column + ": " + value);
+            }
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.pos.service;
+
+import com.example.pos.dto.CreateProductRequest;
+import com.example.pos.entity.Product;
+import com.example.pos.exception.BadRequestException;
+import com.example.pos.repository.ProductReferences;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * The checks of a product create, shared by {@link ProductService#createProduct} and the bulk writes, with the
+ * referenced ids looked up in sets loaded up front instead of one findById per row. Code uniqueness is left to
+ * the caller, which checks it per batch.
+ */
+final class ProductRules {
+
+    static final Set<String> BARCODE_SYMBOLOGIES = Set.of("ean13", "upc_a", "code128", "code39", "qr");
+    static final Set<String> SELLING_TYPES = Set.of("unit", "weight", "service");
+    static final Set<String> PRODUCT_TYPES = Set.of("single", "variable");
+    static final Set<String> TAX_TYPES = Set.of("inclusive", "exclusive", "none");
+    static final Set<String> DISCOUNT_TYPES = Set.of("percent", "amount");
+
+    private ProductRules() {
+    }
+
+    /**
+     * Validates the request and builds the (unsaved) product, or throws BadRequestException with the same
+     * message the single-product create would give.
+     */
+    static Product toProduct(CreateProductRequest req, Validator validator, ProductReferences refs, Integer createdBy) {
+        Set<ConstraintViolation<CreateProductRequest>> violations = validator.validate(req);
+        if (!violations.isEmpty()) {
+            throw new BadRequestException(violations.stream()
+                    .map(v -> v.getPropertyPath() + " " + v.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining(", ")));
+        }
+
+        requireReference(refs.unitIds(), req.getUnitId(), "Unit not found");
+        requireReference(refs.subCategoryIds(), req.getSubCategoryId(), "Sub category not found");
+        requireReference(refs.categoryIds(), req.getCategoryId(), "Category not found");
+        requireReference(refs.brandIds(), req.getBrandId(), "Brand not found");
+        requireReference(refs.storeWarehouses().keySet(), req.getStoreId(), "Store not found");
+        requireReference(refs.warehouseIds(), req.getWarehouseId(), "Warehouse not found");
+        Integer storeWarehouse = refs.storeWarehouses().get(req.getStoreId());
+        if (storeWarehouse != null && !storeWarehouse.equals(req.getWarehouseId())) {
+            throw new BadRequestException("Store and warehouse mismatch");
+        }
+
+        if (req.getBarcodeSymbology() != null) {
+            validateEnum(req.getBarcodeSymbology(), BARCODE_SYMBOLOGIES, "barcodeSymbology");
+        }
+        if (req.getSellingType() != null) {
+            validateEnum(req.getSellingType(), SELLING_TYPES, "sellingType");
+        }
+        String productType = req.getProductType() != null ? req.getProductType() : "single";
+        validateEnum(productType, PRODUCT_TYPES, "productType");
+        if (req.getTaxType() != null) {
+            validateEnum(req.getTaxType(), TAX_TYPES, "taxType");
+        }
+        if (req.getDiscountType() != null) {
+            validateEnum(req.getDiscountType(), DISCOUNT_TYPES, "discountType");
+        }
+        if (req.getManufacturedDate() != null && req.getExpiredDate() != null
+                && req.getExpiredDate().isBefore(req.getManufacturedDate())) {
+            throw new BadRequestException("expiredDate must be after manufacturedDate");
+        }
+
+        return Product.builder()
+                .name(req.getName())
+                .sku(req.getSku())
+                .slug(req.getSlug())
+                .price(req.getPrice())
+                .quantity(req.getQuantity())
+                .qtyAlert(req.getQtyAlert() != null ? req.getQtyAlert() : 10)
+                .unitId(req.getUnitId())
+                .subCategoryId(req.getSubCategoryId())
+                .categoryId(req.getCategoryId())
+                .brandId(req.getBrandId())
+                .storeId(req.getStoreId())
+                .warehouseId(req.getWarehouseId())
+                .itemCode(req.getItemCode())
+                .barcodeSymbology(req.getBarcodeSymbology())
+                .barcodeValue(req.getBarcodeValue())
+                .sellingType(req.getSellingType())
+                .productType(productType)
+                .taxType(req.getTaxType())
+                .discountType(req.getDiscountType())
+                .discountValue(req.getDiscountValue())
+                .description(req.getDescription())
+                .manufacturer(req.getManufacturer())
+                .imageUrl(req.getImageUrl())
+                .manufacturedDate(req.getManufacturedDate())
+                .expiredDate(req.getExpiredDate())
+                .createdBy(createdBy)
+                .build();
+    }
+
+    private static void requireReference(Set<Integer> ids, Integer id, String message) {
+        if (!ids.contains(id)) {
+            throw new BadRequestException(message);
+        }
+    }
+
+    static void validateEnum(String value, Set<String> allowed, String field) {
+        if (!allowed.contains(value.toLowerCase())) {
+            throw new BadRequestException("Invalid " + field + ": must be one of " + String.join(", ", allowed));
+        }
+    }
+}
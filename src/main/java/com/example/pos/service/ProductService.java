@@ -2,7 +2,9 @@ package com.example.pos.service;
 
 import com.example.pos.dto.CreateProductRequest;
 import com.example.pos.dto.ProductDTO;
+import com.example.pos.dto.ProductFacetsResponse;
 import com.example.pos.dto.ProductListResponse;
+import com.example.pos.dto.ProductSuggestion;
 import com.example.pos.dto.UpdateProductRequest;
 import com.example.pos.entity.Product;
 import com.example.pos.entity.User;
@@ -10,18 +12,29 @@ import com.example.pos.exception.BadRequestException;
 import com.example.pos.exception.ResourceNotFoundException;
 import com.example.pos.repository.*;
 import com.example.pos.security.UserPrincipal;
+import jakarta.validation.Validator;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.data.domain.Sort;
 import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Set;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -29,19 +42,27 @@ import java.util.stream.Collectors;
 public class ProductService {
 
     private final ProductRepository productRepository;
-    private final UnitRepository unitRepository;
-    private final SubCategoryRepository subCategoryRepository;
-    private final CategoryRepository categoryRepository;
-    private final BrandRepository brandRepository;
     private final StoreRepository storeRepository;
     private final WarehouseRepository warehouseRepository;
     private final UserRepository userRepository;
+    private final ListTotals listTotals;
+    private final ProductCatalogIndex catalogIndex;
+    private final ProductSuggestIndex suggestIndex;
+    private final ProductCodeIndex codeIndex;
+    private final ProductBulkService productBulkService;
+    private final StockService stockService;
+    private final LowStockIndex lowStockIndex;
+    private final StockReservations stockReservations;
+    private final ProductStockRepository productStockRepository;
+    private final ProductImportRepository importRepository;
+    private final Validator validator;
 
     @Transactional(readOnly = true)
     public ProductListResponse getProducts(
             int page,
             int size,
             String search,
+            String searchMode,
             String status,
             Integer categoryId,
             Integer brandId,
@@ -52,107 +73,339 @@ public class ProductService {
             String productType,
             String sellingType,
             String sortBy,
-            String sortDir
+            String sortDir,
+            String cursor,
+            String includeTotal
     ) {
         Sort sort = sortDir.equalsIgnoreCase("desc") ? Sort.by(sortBy).descending() : Sort.by(sortBy).ascending();
         Pageable pageable = PageRequest.of(page, size, sort);
+        ListTotalMode totalMode = ListTotalMode.parse(includeTotal);
 
-        String searchLower = (search != null && !search.trim().isEmpty()) ? search.trim().toLowerCase() : null;
-        String productTypeLower = (productType != null && !productType.trim().isEmpty()) ? productType.trim().toLowerCase() : null;
-        String sellingTypeLower = (sellingType != null && !sellingType.trim().isEmpty()) ? sellingType.trim().toLowerCase() : null;
+        ProductFilter filter = productFilter(search, searchMode, status, categoryId, brandId, unitId, subCategoryId,
+                storeId, warehouseId, productType, sellingType);
+        boolean fuzzy = filter.isFuzzySearch();
+
+        if (cursor != null) {
+            if (fuzzy) {
+                throw new BadRequestException("Cursor pagination is not available with searchMode=fuzzy");
+            }
+            return getProductsByCursor(filter, cursor, size, sortBy, sortDir.equalsIgnoreCase("desc"));
+        }
+
+        Slice<Product> productPage;
+        if (catalogIndex.supports(filter, sortBy)) {
+            productPage = loadInOrder(catalogIndex.findIds(filter, sortBy, sortDir.equalsIgnoreCase("desc"), pageable));
+            // The bitmap cardinality is exact and costs nothing, so totals are always included
+            totalMode = ListTotalMode.EXACT;
+        } else {
+            productPage = searchProducts(filter, fuzzy, totalMode, pageable);
+        }
+
+        List<ProductDTO> products = toDTOs(productPage.getContent());
+
+        ListTotals.Totals totals = totalMode == ListTotalMode.ESTIMATE
+                ? listTotals.estimated(productPage, productRepository.estimateProducts(filter))
+                : listTotals.resolve(productPage, totalMode, "products", true);
+
+        return ProductListResponse.builder()
+                .products(products)
+                .currentPage(productPage.getNumber())
+                .totalPages(totals.totalPages())
+                .totalItems(totals.totalItems())
+                .hasNext(productPage.hasNext())
+                .build();
+    }
 
-        Page<Product> productPage = productRepository.searchProducts(
-                status,
-                searchLower,
-                categoryId,
-                brandId,
-                unitId,
-                subCategoryId,
-                storeId,
-                warehouseId,
-                productTypeLower,
-                sellingTypeLower,
-                pageable
+    private Slice<Product> searchProducts(ProductFilter f, boolean fuzzy, ListTotalMode totalMode, Pageable pageable) {
+        boolean exact = totalMode == ListTotalMode.EXACT;
+        if (fuzzy) {
+            // Trigram results are ordered by word similarity, so sortBy/sortDir do not apply here
+            Pageable unsorted = PageRequest.of(pageable.getPageNumber(), pageable.getPageSize());
+            Slice<Integer> ids = exact
+                    ? productRepository.searchProductIdsTrigram(f.getStatus(), f.getSearchLower(), f.getCategoryId(),
+                            f.getBrandId(), f.getUnitId(), f.getSubCategoryId(), f.getStoreId(), f.getWarehouseId(),
+                            f.getProductTypeLower(), f.getSellingTypeLower(), unsorted)
+                    : productRepository.searchProductIdsTrigramSlice(f.getStatus(), f.getSearchLower(), f.getCategoryId(),
+                            f.getBrandId(), f.getUnitId(), f.getSubCategoryId(), f.getStoreId(), f.getWarehouseId(),
+                            f.getProductTypeLower(), f.getSellingTypeLower(), unsorted);
+            return loadInOrder(ids);
+        }
+        return exact
+                ? productRepository.searchProducts(f.getStatus(), f.getSearchLower(), f.getCategoryId(),
+                        f.getBrandId(), f.getUnitId(), f.getSubCategoryId(), f.getStoreId(), f.getWarehouseId(),
+                        f.getProductTypeLower(), f.getSellingTypeLower(), pageable)
+                : productRepository.searchProductsSlice(f.getStatus(), f.getSearchLower(), f.getCategoryId(),
+                        f.getBrandId(), f.getUnitId(), f.getSubCategoryId(), f.getStoreId(), f.getWarehouseId(),
+                        f.getProductTypeLower(), f.getSellingTypeLower(), pageable);
+    }
+
+    // Loads the rows (with relations) for a page of ids, keeping the id order. Ids that no longer
+    // exist (deleted since the ids were read) are dropped.
+    private Slice<Product> loadInOrder(Slice<Integer> ids) {
+        Map<Integer, Product> byId = productRepository.findAllWithRelationsByIdIn(ids.getContent()).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+        List<Product> rows = ids.getContent().stream()
+                .map(byId::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+        return ids instanceof Page<Integer> page
+                ? new PageImpl<>(rows, page.getPageable(), page.getTotalElements())
+                : new SliceImpl<>(rows, ids.getPageable(), ids.hasNext());
+    }
+
+    /**
+     * Keyset pagination: seeks on (sortBy, id) after the cursor instead of using OFFSET, and skips the
+     * COUNT query, so every page costs the same. An empty cursor starts from the first page; a non-empty
+     * cursor carries its own sort key and direction.
+     */
+    private ProductListResponse getProductsByCursor(ProductFilter filter, String cursor, int size,
+                                                    String sortBy, boolean descending) {
+        ProductCursor after = null;
+        if (!cursor.isBlank()) {
+            after = ProductCursor.decode(cursor);
+            sortBy = after.sortBy();
+            descending = after.descending();
+        } else if (!ProductRepositoryCustomImpl.KEYSET_SORT_KEYS.contains(sortBy)) {
+            throw new BadRequestException("Cursor pagination supports sortBy: "
+                    + String.join(", ", ProductRepositoryCustomImpl.KEYSET_SORT_KEYS));
+        }
+
+        List<Product> rows = productRepository.findProductsAfter(
+                filter,
+                sortBy,
+                descending,
+                after != null ? after.value() : null,
+                after != null ? after.id() : null,
+                size + 1
         );
+        boolean hasNext = rows.size() > size;
+        if (hasNext) {
+            rows = rows.subList(0, size);
+        }
+
+        List<ProductDTO> products = toDTOs(rows);
+
+        return ProductListResponse.builder()
+                .products(products)
+                .hasNext(hasNext)
+                .nextCursor(hasNext ? ProductCursor.after(rows.get(rows.size() - 1), sortBy, descending).encode() : null)
+                .build();
+    }
+
+    /**
+     * Facet counts for the product list sidebar, for the same filters as {@link #getProducts}.
+     * Served from the catalog index when it can evaluate the filter, otherwise by one GROUPING SETS query.
+     */
+    @Transactional(readOnly = true)
+    public ProductFacetsResponse getFacets(String search, String searchMode, String status, Integer categoryId,
+                                           Integer brandId, Integer unitId, Integer subCategoryId, Integer storeId,
+                                           Integer warehouseId, String productType, String sellingType) {
+        ProductFilter filter = productFilter(search, searchMode, status, categoryId, brandId, unitId, subCategoryId,
+                storeId, warehouseId, productType, sellingType);
+        ProductFacetsResponse facets = catalogIndex.supports(filter)
+                ? catalogIndex.facets(filter)
+                : facetsFromDatabase(filter);
+
+        facets.setCategories(byCountDesc(facets.getCategories()));
+        facets.setBrands(byCountDesc(facets.getBrands()));
+        facets.setUnits(byCountDesc(facets.getUnits()));
+        facets.setStores(byCountDesc(facets.getStores()));
+        facets.setProductTypes(byCountDesc(facets.getProductTypes()));
+        facets.setSellingTypes(byCountDesc(facets.getSellingTypes()));
+        return facets;
+    }
 
-        List<ProductDTO> products = productPage.getContent().stream()
+    private ProductFacetsResponse facetsFromDatabase(ProductFilter filter) {
+        ProductFacetsResponse facets = ProductFacetsResponse.builder()
+                .categories(new HashMap<>())
+                .brands(new HashMap<>())
+                .units(new HashMap<>())
+                .stores(new HashMap<>())
+                .productTypes(new HashMap<>())
+                .sellingTypes(new HashMap<>())
+                .build();
+        for (ProductRepositoryCustom.FacetRow row : productRepository.countFacets(filter)) {
+            if ("total".equals(row.facet())) {
+                facets.setTotalItems(row.count());
+            } else if (row.value() != null) {
+                switch (row.facet()) {
+                    case "category" -> facets.getCategories().put(Integer.valueOf(row.value()), row.count());
+                    case "brand" -> facets.getBrands().put(Integer.valueOf(row.value()), row.count());
+                    case "unit" -> facets.getUnits().put(Integer.valueOf(row.value()), row.count());
+                    case "store" -> facets.getStores().put(Integer.valueOf(row.value()), row.count());
+                    case "productType" -> facets.getProductTypes().put(row.value(), row.count());
+                    case "sellingType" -> facets.getSellingTypes().put(row.value(), row.count());
+                    default -> { }
+                }
+            }
+        }
+        return facets;
+    }
+
+    private static <K> Map<K, Long> byCountDesc(Map<K, Long> counts) {
+        Map<K, Long> sorted = new LinkedHashMap<>();
+        counts.entrySet().stream()
+                .sorted(Map.Entry.<K, Long>comparingByValue().reversed())
+                .forEach(e -> sorted.put(e.getKey(), e.getValue()));
+        return sorted;
+    }
+
+    /**
+     * Typeahead for the till: top matches by name word, sku or item code prefix, with only id, name, sku and price.
+     */
+    @Transactional(readOnly = true)
+    public List<ProductSuggestion> suggestProducts(String q, int limit) {
+        if (q == null || q.isBlank()) {
+            return List.of();
+        }
+        int cappedLimit = Math.max(1, Math.min(limit, 50));
+        if (suggestIndex.isReady()) {
+            return suggestIndex.suggest(q, cappedLimit);
+        }
+        // Index disabled or still warming up: contains search without the COUNT query
+        return productRepository.searchProductsSlice(null, q.trim().toLowerCase(), null, null, null, null, null, null,
+                        null, null, PageRequest.of(0, cappedLimit, Sort.by("name")))
+                .map(p -> ProductSuggestion.builder()
+                        .id(p.getId())
+                        .name(p.getName())
+                        .sku(p.getSku())
+                        .price(p.getPrice())
+                        .build())
+                .getContent();
+    }
+
+    /**
+     * Resolves a scanned barcode value, sku or item code to one product (barcode first, then sku, then item code).
+     */
+    @Transactional(readOnly = true)
+    public ProductDTO getProductByCode(String code) {
+        String trimmed = code.trim();
+        Integer id = codeIndex.isReady() ? codeIndex.findId(trimmed) : null;
+        if (id != null) {
+            Optional<Product> hit = productRepository.findByIdWithRelations(id)
+                    .filter(p -> !"DELETED".equalsIgnoreCase(p.getStatus()));
+            if (hit.isPresent()) {
+                return toDTO(hit.get());
+            }
+        }
+        // Not in the code map (index warming up or disabled, or a stale entry): ask the database
+        return productRepository.findActiveByCode(trimmed).stream()
+                .min(Comparator.comparingInt(p -> trimmed.equals(p.getBarcodeValue()) ? 0 : trimmed.equals(p.getSku()) ? 1 : 2))
                 .map(this::toDTO)
-                .collect(Collectors.toList());
+                .orElseThrow(() -> new ResourceNotFoundException("Product", "code", code));
+    }
 
+    /**
+     * Normalizes the list filters into a {@link ProductFilter}; rejects an unknown searchMode.
+     */
+    public ProductFilter productFilter(String search, String searchMode, String status, Integer categoryId,
+                                       Integer brandId, Integer unitId, Integer subCategoryId, Integer storeId,
+                                       Integer warehouseId, String productType, String sellingType) {
+        String searchLower = (search != null && !search.trim().isEmpty()) ? search.trim().toLowerCase() : null;
+        String productTypeLower = (productType != null && !productType.trim().isEmpty()) ? productType.trim().toLowerCase() : null;
+        String sellingTypeLower = (sellingType != null && !sellingType.trim().isEmpty()) ? sellingType.trim().toLowerCase() : null;
+        boolean fuzzy = searchLower != null && isFuzzySearch(searchMode);
+
+        return ProductFilter.builder()
+                .status(status)
+                .searchLower(searchLower)
+                .categoryId(categoryId)
+                .brandId(brandId)
+                .unitId(unitId)
+                .subCategoryId(subCategoryId)
+                .storeId(storeId)
+                .warehouseId(warehouseId)
+                .productTypeLower(productTypeLower)
+                .sellingTypeLower(sellingTypeLower)
+                .fuzzySearch(fuzzy)
+                .build();
+    }
+
+    private boolean isFuzzySearch(String searchMode) {
+        if (searchMode == null || searchMode.trim().isEmpty() || searchMode.equalsIgnoreCase("contains")) {
+            return false;
+        }
+        if (searchMode.equalsIgnoreCase("fuzzy")) {
+            return true;
+        }
+        throw new BadRequestException("Invalid searchMode: must be one of contains, fuzzy");
+    }
+
+    @Transactional(readOnly = true)
+    public ProductListResponse getLowStocks(int page, int size, Integer storeId, Integer threshold, String sortBy,
+                                            String sortDir, String includeTotal) {
+        Sort sort = sortDir.equalsIgnoreCase("desc") ? Sort.by(sortBy).descending() : Sort.by(sortBy).ascending();
+        Pageable pageable = PageRequest.of(page, size, sort);
+        ListTotalMode totalMode = ListTotalMode.parse(includeTotal);
+        Slice<Product> productPage;
+        if (lowStockIndex.isReady() && "quantity".equals(sortBy)) {
+            productPage = loadInOrder(lowStockIndex.findIds(storeId, threshold, sortDir.equalsIgnoreCase("desc"),
+                    PageRequest.of(page, size)));
+            // The in-memory total is exact and free
+            totalMode = ListTotalMode.EXACT;
+        } else {
+            productPage = totalMode == ListTotalMode.EXACT
+                    ? productRepository.findLowStocks(storeId, threshold, pageable)
+                    : productRepository.findLowStocksSlice(storeId, threshold, pageable);
+        }
+        List<ProductDTO> products = toDTOs(productPage.getContent());
+        ListTotals.Totals totals = listTotals.resolve(productPage, totalMode, "products", true);
         return ProductListResponse.builder()
                 .products(products)
                 .currentPage(productPage.getNumber())
-                .totalPages(productPage.getTotalPages())
-                .totalItems(productPage.getTotalElements())
+                .totalPages(totals.totalPages())
+                .totalItems(totals.totalItems())
+                .hasNext(productPage.hasNext())
                 .build();
     }
 
     @Transactional(readOnly = true)
-    public ProductListResponse getLowStocks(int page, int size, Integer threshold, String sortBy, String sortDir) {
+    public ProductListResponse getExpiredProducts(int page, int size, String sortBy, String sortDir, String includeTotal) {
         Sort sort = sortDir.equalsIgnoreCase("desc") ? Sort.by(sortBy).descending() : Sort.by(sortBy).ascending();
         Pageable pageable = PageRequest.of(page, size, sort);
-        Page<Product> productPage = productRepository.findLowStocks(threshold, pageable);
-        List<ProductDTO> products = productPage.getContent().stream().map(this::toDTO).collect(Collectors.toList());
+        ListTotalMode totalMode = ListTotalMode.parse(includeTotal);
+        Slice<Product> productPage = totalMode == ListTotalMode.EXACT
+                ? productRepository.findExpiredProducts(java.time.LocalDate.now(), pageable)
+                : productRepository.findExpiredProductsSlice(java.time.LocalDate.now(), pageable);
+        List<ProductDTO> products = toDTOs(productPage.getContent());
+        ListTotals.Totals totals = listTotals.resolve(productPage, totalMode, "products", true);
         return ProductListResponse.builder()
                 .products(products)
                 .currentPage(productPage.getNumber())
-                .totalPages(productPage.getTotalPages())
-                .totalItems(productPage.getTotalElements())
+                .totalPages(totals.totalPages())
+                .totalItems(totals.totalItems())
+                .hasNext(productPage.hasNext())
                 .build();
     }
 
-    @Transactional(readOnly = true)
-    public ProductListResponse getExpiredProducts(int page, int size, String sortBy, String sortDir) {
+    /**
+     * Products expiring after today and within the next {@code withinDays} days.
+     */
+    public ProductListResponse getExpiringProducts(int withinDays, int page, int size, String sortBy, String sortDir,
+                                                   String includeTotal) {
+        java.time.LocalDate today = java.time.LocalDate.now();
+        java.time.LocalDate until = today.plusDays(ProductExpiryService.requireWithinDays(withinDays));
         Sort sort = sortDir.equalsIgnoreCase("desc") ? Sort.by(sortBy).descending() : Sort.by(sortBy).ascending();
         Pageable pageable = PageRequest.of(page, size, sort);
-        Page<Product> productPage = productRepository.findExpiredProducts(java.time.LocalDate.now(), pageable);
-        List<ProductDTO> products = productPage.getContent().stream().map(this::toDTO).collect(Collectors.toList());
+        ListTotalMode totalMode = ListTotalMode.parse(includeTotal);
+        Slice<Product> productPage = totalMode == ListTotalMode.EXACT
+                ? productRepository.findExpiringProducts(today, until, pageable)
+                : productRepository.findExpiringProductsSlice(today, until, pageable);
+        List<ProductDTO> products = toDTOs(productPage.getContent());
+        ListTotals.Totals totals = listTotals.resolve(productPage, totalMode, "products", true);
         return ProductListResponse.builder()
                 .products(products)
                 .currentPage(productPage.getNumber())
-                .totalPages(productPage.getTotalPages())
-                .totalItems(productPage.getTotalElements())
+                .totalPages(totals.totalPages())
+                .totalItems(totals.totalItems())
+                .hasNext(productPage.hasNext())
                 .build();
     }
 
     @Transactional
-    public ProductDTO duplicateProduct(Integer id) {
-        Product original = productRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Product", "id", id));
-        if ("DELETED".equalsIgnoreCase(original.getStatus())) {
-            throw new ResourceNotFoundException("Product", "id", id);
-        }
-        Product copy = Product.builder()
-                .name(original.getName())
-                .sku(generateUniqueSku(original.getSku()))
-                .slug(generateUniqueSlug(original.getSlug()))
-                .price(original.getPrice())
-                .quantity(original.getQuantity())
-                .qtyAlert(original.getQtyAlert())
-                .status(original.getStatus())
-                .unitId(original.getUnitId())
-                .subCategoryId(original.getSubCategoryId())
-                .categoryId(original.getCategoryId())
-                .brandId(original.getBrandId())
-                .storeId(original.getStoreId())
-                .warehouseId(original.getWarehouseId())
-                .itemCode(original.getItemCode() != null ? generateUniqueItemCode(original.getItemCode()) : null)
-                .barcodeSymbology(original.getBarcodeSymbology())
-                .barcodeValue(original.getBarcodeValue())
-                .sellingType(original.getSellingType())
-                .productType(original.getProductType())
-                .taxType(original.getTaxType())
-                .discountType(original.getDiscountType())
-                .discountValue(original.getDiscountValue())
-                .description(original.getDescription())
-                .manufacturer(original.getManufacturer())
-                .imageUrl(original.getImageUrl())
-                .manufacturedDate(original.getManufacturedDate())
-                .expiredDate(original.getExpiredDate())
-                .createdBy(original.getCreatedBy())
-                .build();
-        Product saved = productRepository.save(copy);
-        return toDTO(saved);
+    public ProductDTO duplicateProduct(Integer id, Authentication authentication) {
+        Integer copyId = productBulkService.duplicateProduct(id, 1, null, authentication).getResults().get(0).getId();
+        return getProductById(copyId);
     }
 
     @Transactional
@@ -170,125 +423,6 @@ public class ProductService {
         return toDTO(updated);
     }
 
-    private String generateUniqueSku(String baseSku) {
-        String candidate;
-        String suffix = randomSuffix();
-        candidate = baseSku + "-" + suffix;
-        while (productRepository.existsBySku(candidate)) {
-            candidate = baseSku + "-" + randomSuffix();
-        }
-        return candidate;
-    }
-
-    private String generateUniqueSlug(String baseSlug) {
-        String candidate = baseSlug + "-copy";
-        if (!productRepository.existsBySlug(candidate)) return candidate;
-        candidate = baseSlug + "-copy-" + randomSuffix();
-        while (productRepository.existsBySlug(candidate)) {
-            candidate = baseSlug + "-copy-" + randomSuffix();
-        }
-        return candidate;
-    }
-
-    private String generateUniqueItemCode(String baseCode) {
-        String candidate = baseCode + "-" + randomSuffix();
-        while (productRepository.existsByItemCode(candidate)) {
-            candidate = baseCode + "-" + randomSuffix();
-        }
-        return candidate;
-    }
-
-    private String randomSuffix() {
-        return java.util.UUID.randomUUID().toString().substring(0, 5).toUpperCase();
-    }
-
-    @Transactional
-    public com.example.pos.dto.ProductImportReport importProductsFromCsv(String csv) {
-        if (csv == null || csv.trim().isEmpty()) {
-            throw new BadRequestException("CSV content is empty");
-        }
-
-        String[] lines = csv.split("\r?\n");
-        int total = Math.max(lines.length - 1, 0);
-        int imported = 0;
-        java.util.List<String> errors = new java.util.ArrayList<>();
-
-        if (lines.length < 2) {
-            return com.example.pos.dto.ProductImportReport.builder()
-                    .totalRows(0)
-                    .imported(0)
-                    .failed(0)
-                    .errors(java.util.Collections.singletonList("No data rows in CSV"))
-                    .build();
-        }
-
-        String header = lines[0];
-        String[] cols = header.split(",");
-        java.util.Map<String, Integer> idx = new java.util.HashMap<>();
-        for (int i = 0; i < cols.length; i++) {
-            idx.put(cols[i].trim().toLowerCase(), i);
-        }
-
-        // Required minimal columns
-        String[] required = new String[]{"name","sku","slug","price","quantity","unitId","categoryId","brandId","subCategoryId","storeId","warehouseId"};
-        for (String r : required) {
-            if (!idx.containsKey(r.toLowerCase())) {
-                throw new BadRequestException("Missing required column: " + r);
-            }
-        }
-
-        for (int r = 1; r < lines.length; r++) {
-            String row = lines[r];
-            if (row.trim().isEmpty()) continue;
-            String[] vals = row.split(",");
-            try {
-                CreateProductRequest req = new CreateProductRequest();
-                req.setName(getStr(vals, idx, "name"));
-                req.setSku(getStr(vals, idx, "sku"));
-                req.setSlug(getStr(vals, idx, "slug"));
-                req.setPrice(new java.math.BigDecimal(getStr(vals, idx, "price")));
-                req.setQuantity(Integer.valueOf(getStr(vals, idx, "quantity")));
-                req.setUnitId(Integer.valueOf(getStr(vals, idx, "unitId")));
-                req.setCategoryId(Integer.valueOf(getStr(vals, idx, "categoryId")));
-                req.setBrandId(Integer.valueOf(getStr(vals, idx, "brandId")));
-                req.setSubCategoryId(Integer.valueOf(getStr(vals, idx, "subCategoryId")));
-                req.setStoreId(Integer.valueOf(getStr(vals, idx, "storeId")));
-                req.setWarehouseId(Integer.valueOf(getStr(vals, idx, "warehouseId")));
-
-                if (idx.containsKey("itemCode")) req.setItemCode(getStr(vals, idx, "itemCode"));
-                if (idx.containsKey("barcodeSymbology")) req.setBarcodeSymbology(getStr(vals, idx, "barcodeSymbology"));
-                if (idx.containsKey("barcodeValue")) req.setBarcodeValue(getStr(vals, idx, "barcodeValue"));
-                if (idx.containsKey("sellingType")) req.setSellingType(getStr(vals, idx, "sellingType"));
-                if (idx.containsKey("productType")) req.setProductType(getStr(vals, idx, "productType"));
-                if (idx.containsKey("taxType")) req.setTaxType(getStr(vals, idx, "taxType"));
-                if (idx.containsKey("discountType")) req.setDiscountType(getStr(vals, idx, "discountType"));
-                if (idx.containsKey("discountValue")) req.setDiscountValue(new java.math.BigDecimal(getStr(vals, idx, "discountValue")));
-                if (idx.containsKey("description")) req.setDescription(getStr(vals, idx, "description"));
-                if (idx.containsKey("manufacturer")) req.setManufacturer(getStr(vals, idx, "manufacturer"));
-                if (idx.containsKey("imageUrl")) req.setImageUrl(getStr(vals, idx, "imageUrl"));
-                if (idx.containsKey("manufacturedDate")) req.setManufacturedDate(java.time.LocalDate.parse(getStr(vals, idx, "manufacturedDate")));
-                if (idx.containsKey("expiredDate")) req.setExpiredDate(java.time.LocalDate.parse(getStr(vals, idx, "expiredDate")));
-
-                ProductDTO dto = createProduct(req, null);
-                if (dto != null) imported++;
-            } catch (Exception e) {
-                errors.add("Row " + r + ": " + e.getMessage());
-            }
-        }
-
-        return com.example.pos.dto.ProductImportReport.builder()
-                .totalRows(total)
-                .imported(imported)
-                .failed(total - imported)
-                .errors(errors)
-                .build();
-    }
-
-    private String getStr(String[] vals, java.util.Map<String,Integer> idx, String key) {
-        Integer i = idx.get(key.toLowerCase());
-        if (i == null || i >= vals.length) return null;
-        return vals[i].trim();
-    }
     @Transactional
     public ProductDTO createProduct(CreateProductRequest request, Authentication authentication) {
         if (productRepository.existsBySku(request.getSku())) {
@@ -301,79 +435,22 @@ public class ProductService {
             throw new BadRequestException("Slug already in use");
         }
 
-        unitRepository.findById(request.getUnitId())
-                .orElseThrow(() -> new BadRequestException("Unit not found"));
-        subCategoryRepository.findById(request.getSubCategoryId())
-                .orElseThrow(() -> new BadRequestException("Sub category not found"));
-        categoryRepository.findById(request.getCategoryId())
-                .orElseThrow(() -> new BadRequestException("Category not found"));
-        brandRepository.findById(request.getBrandId())
-                .orElseThrow(() -> new BadRequestException("Brand not found"));
-        var store = storeRepository.findById(request.getStoreId())
-                .orElseThrow(() -> new BadRequestException("Store not found"));
-        var warehouse = warehouseRepository.findById(request.getWarehouseId())
-                .orElseThrow(() -> new BadRequestException("Warehouse not found"));
-
-        if (store.getWarehouseId() != null && !store.getWarehouseId().equals(request.getWarehouseId())) {
-            throw new BadRequestException("Store and warehouse mismatch");
-        }
-
-        if (request.getBarcodeSymbology() != null) {
-            validateEnum(request.getBarcodeSymbology(), Set.of("ean13", "upc_a", "code128", "code39", "qr"), "barcodeSymbology");
-        }
-        if (request.getSellingType() != null) {
-            validateEnum(request.getSellingType(), Set.of("unit", "weight", "service"), "sellingType");
-        }
-        String productType = request.getProductType() != null ? request.getProductType() : "single";
-        validateEnum(productType, Set.of("single", "variable"), "productType");
-        if (request.getTaxType() != null) {
-            validateEnum(request.getTaxType(), Set.of("inclusive", "exclusive", "none"), "taxType");
-        }
-        if (request.getDiscountType() != null) {
-            validateEnum(request.getDiscountType(), Set.of("percent", "amount"), "discountType");
-        }
-        if (request.getManufacturedDate() != null && request.getExpiredDate() != null) {
-            if (request.getExpiredDate().isBefore(request.getManufacturedDate())) {
-                throw new BadRequestException("expiredDate must be after manufacturedDate");
-            }
-        }
-
         Integer createdBy = null;
         if (authentication != null && authentication.getPrincipal() instanceof UserPrincipal userPrincipal) {
             createdBy = userPrincipal.getId();
         }
-
-        Product product = Product.builder()
-                .name(request.getName())
-                .sku(request.getSku())
-                .slug(request.getSlug())
-                .price(request.getPrice())
-                .quantity(request.getQuantity())
-                .qtyAlert(request.getQtyAlert() != null ? request.getQtyAlert() : 10)
-                .unitId(request.getUnitId())
-                .subCategoryId(request.getSubCategoryId())
-                .categoryId(request.getCategoryId())
-                .brandId(request.getBrandId())
-                .storeId(request.getStoreId())
-                .warehouseId(request.getWarehouseId())
-                .itemCode(request.getItemCode())
-                .barcodeSymbology(request.getBarcodeSymbology())
-                .barcodeValue(request.getBarcodeValue())
-                .sellingType(request.getSellingType())
-                .productType(productType)
-                .taxType(request.getTaxType())
-                .discountType(request.getDiscountType())
-                .discountValue(request.getDiscountValue())
-                .description(request.getDescription())
-                .manufacturer(request.getManufacturer())
-                .imageUrl(request.getImageUrl())
-                .manufacturedDate(request.getManufacturedDate())
-                .expiredDate(request.getExpiredDate())
-                .createdBy(createdBy)
-                .build();
+        // The same rules as bulk writes, with the references this request names loaded in one query
+        ProductReferences references = importRepository.findReferences(
+                Collections.singleton(request.getUnitId()), Collections.singleton(request.getSubCategoryId()),
+                Collections.singleton(request.getCategoryId()), Collections.singleton(request.getBrandId()),
+                Collections.singleton(request.getStoreId()), Collections.singleton(request.getWarehouseId()));
+        Product product = ProductRules.toProduct(request, validator, references, createdBy);
 
         Product saved = productRepository.save(product);
-        return toDTO(saved);
+        productStockRepository.syncHome(List.of(saved.getId()));
+        stockService.recordOpeningStock(List.of(saved), createdBy);
+        // A new product's stock is all in its own warehouse
+        return toDTO(saved, saved.getWarehouseId() != null && saved.getQuantity() > 0 ? 1 : 0);
     }
 
     @Transactional
@@ -399,7 +476,10 @@ public class ProductService {
             product.setSlug(request.getSlug());
         }
         if (request.getPrice() != null) product.setPrice(request.getPrice());
-        if (request.getQuantity() != null) product.setQuantity(request.getQuantity());
+        if (request.getQuantity() != null) {
+            // Applied as a ledgered adjustment against the locked row; JPA never writes quantity on update
+            product.setQuantity(stockService.setQuantity(id, request.getQuantity(), null));
+        }
         if (request.getQtyAlert() != null) product.setQtyAlert(request.getQtyAlert());
         if (request.getUnitId() != null) product.setUnitId(request.getUnitId());
         if (request.getSubCategoryId() != null) product.setSubCategoryId(request.getSubCategoryId());
@@ -435,24 +515,24 @@ public class ProductService {
             product.setItemCode(request.getItemCode());
         }
         if (request.getBarcodeSymbology() != null) {
-            validateEnum(request.getBarcodeSymbology(), Set.of("ean13", "upc_a", "code128", "code39", "qr"), "barcodeSymbology");
+            ProductRules.validateEnum(request.getBarcodeSymbology(), ProductRules.BARCODE_SYMBOLOGIES, "barcodeSymbology");
             product.setBarcodeSymbology(request.getBarcodeSymbology());
         }
         if (request.getBarcodeValue() != null) product.setBarcodeValue(request.getBarcodeValue());
         if (request.getSellingType() != null) {
-            validateEnum(request.getSellingType(), Set.of("unit", "weight", "service"), "sellingType");
+            ProductRules.validateEnum(request.getSellingType(), ProductRules.SELLING_TYPES, "sellingType");
             product.setSellingType(request.getSellingType());
         }
         if (request.getProductType() != null) {
-            validateEnum(request.getProductType(), Set.of("single", "variable"), "productType");
+            ProductRules.validateEnum(request.getProductType(), ProductRules.PRODUCT_TYPES, "productType");
             product.setProductType(request.getProductType());
         }
         if (request.getTaxType() != null) {
-            validateEnum(request.getTaxType(), Set.of("inclusive", "exclusive", "none"), "taxType");
+            ProductRules.validateEnum(request.getTaxType(), ProductRules.TAX_TYPES, "taxType");
             product.setTaxType(request.getTaxType());
         }
         if (request.getDiscountType() != null) {
-            validateEnum(request.getDiscountType(), Set.of("percent", "amount"), "discountType");
+            ProductRules.validateEnum(request.getDiscountType(), ProductRules.DISCOUNT_TYPES, "discountType");
             product.setDiscountType(request.getDiscountType());
         }
         if (request.getDiscountValue() != null) product.setDiscountValue(request.getDiscountValue());
@@ -469,12 +549,22 @@ public class ProductService {
         if (request.getStatus() != null) product.setStatus(request.getStatus());
 
         Product updated = productRepository.save(product);
+        if (request.getWarehouseId() != null) {
+            // Stock stays where it is; the new warehouse's row takes whatever is not stocked elsewhere
+            productRepository.flush();
+            productStockRepository.syncHome(List.of(id));
+        }
+        if (request.getQuantity() != null || request.getWarehouseId() != null) {
+            // Stock moved after the entity was loaded
+            ProductStockRepository.Totals stock = productStockRepository.findTotals(List.of(id)).get(id);
+            return toDTO(updated, stock != null ? stock.warehouses() : 0);
+        }
         return toDTO(updated);
     }
 
     @Transactional(readOnly = true)
     public ProductDTO getProductById(Integer id) {
-        Product product = productRepository.findById(id)
+        Product product = productRepository.findByIdWithRelations(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Product", "id", id));
         if ("DELETED".equalsIgnoreCase(product.getStatus())) {
             throw new ResourceNotFoundException("Product", "id", id);
@@ -482,13 +572,6 @@ public class ProductService {
         return toDTO(product);
     }
 
-    private void validateEnum(String value, Set<String> allowed, String field) {
-        String v = value.toLowerCase();
-        if (!allowed.contains(v)) {
-            throw new BadRequestException("Invalid " + field + ": must be one of " + String.join(", ", allowed));
-        }
-    }
-
     @Transactional(readOnly = true)
     public com.example.pos.dto.BarcodeDataResponse getBarcodeData(Integer id) {
         Product p = productRepository.findById(id)
@@ -513,7 +596,17 @@ public class ProductService {
         productRepository.save(product);
     }
 
+    private List<ProductDTO> toDTOs(List<Product> products) {
+        return products.stream()
+                .map(this::toDTO)
+                .collect(Collectors.toList());
+    }
+
     private ProductDTO toDTO(Product p) {
+        return toDTO(p, p.getWarehouseCount() != null ? p.getWarehouseCount() : 0);
+    }
+
+    private ProductDTO toDTO(Product p, int warehouseCount) {
         String unitShortName = null;
         String categoryName = null;
         String brandName = null;
@@ -527,6 +620,7 @@ public class ProductService {
         if (p.getCreatedByUser() != null) createdByName = p.getCreatedByUser().getName();
         if (p.getStore() != null) storeName = p.getStore().getName();
         if (p.getWarehouse() != null) warehouseName = p.getWarehouse().getName();
+        int reserved = stockReservations.reserved(p.getId());
 
         return ProductDTO.builder()
                 .id(p.getId())
@@ -535,6 +629,9 @@ public class ProductService {
                 .slug(p.getSlug())
                 .price(p.getPrice())
                 .quantity(p.getQuantity())
+                .reserved(reserved)
+                .availableToSell(Math.max(0, (p.getQuantity() != null ? p.getQuantity() : 0) - reserved))
+                .warehouseCount(warehouseCount)
                 .qtyAlert(p.getQtyAlert())
                 .status(p.getStatus())
                 .unitId(p.getUnitId())
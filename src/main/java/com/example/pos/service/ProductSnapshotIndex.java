@@ -0,0 +1,103 @@
+package com.example.pos.service;
+
+import com.example.pos.entity.ProductSnapshot;
+import com.example.pos.entity.ProductsChangedEvent;
+import com.example.pos.repository.ProductRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Base for in-memory product lookups built from {@link ProductSnapshot}s: warmed up on startup,
+ * then kept current by {@link ProductsChangedEvent}s applied after commit. Changes that arrive while
+ * the table is being streamed are queued and replayed once the rebuild finishes.
+ * <p>
+ * Subclasses implement the writes; they are always called while holding {@link #writeLock}. They are
+ * switched by {@code app.catalog-index.enabled} unless they override {@link #isEnabled()}.
+ */
+@Slf4j
+public abstract class ProductSnapshotIndex {
+
+    protected final ProductRepository productRepository;
+    protected final Object writeLock = new Object();
+
+    @Value("${app.catalog-index.enabled:false}")
+    private boolean catalogIndexEnabled;
+
+    private List<ProductsChangedEvent> pendingDuringRebuild;
+    private volatile boolean ready;
+
+    protected ProductSnapshotIndex(ProductRepository productRepository) {
+        this.productRepository = productRepository;
+    }
+
+    protected abstract void clear();
+
+    protected abstract void upsert(ProductSnapshot snapshot);
+
+    protected abstract void remove(Integer id);
+
+    protected abstract int size();
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        if (!isEnabled()) {
+            return;
+        }
+        long started = System.currentTimeMillis();
+        synchronized (writeLock) {
+            ready = false;
+            pendingDuringRebuild = new ArrayList<>();
+            clear();
+        }
+        try (Stream<ProductSnapshot> snapshots = productRepository.streamCatalogSnapshots()) {
+            snapshots.forEach(snapshot -> {
+                synchronized (writeLock) {
+                    upsert(snapshot);
+                }
+            });
+        }
+        synchronized (writeLock) {
+            pendingDuringRebuild.forEach(this::apply);
+            pendingDuringRebuild = null;
+            ready = true;
+        }
+        log.info("{} built: {} products in {} ms", getClass().getSimpleName(), size(),
+                System.currentTimeMillis() - started);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductsChanged(ProductsChangedEvent event) {
+        if (!isEnabled()) {
+            return;
+        }
+        synchronized (writeLock) {
+            if (pendingDuringRebuild != null) {
+                pendingDuringRebuild.add(event);
+            } else {
+                apply(event);
+            }
+        }
+    }
+
+    public boolean isEnabled() {
+        return catalogIndexEnabled;
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    private void apply(ProductsChangedEvent event) {
+        event.removedIds().forEach(this::remove);
+        event.upserted().forEach(this::upsert);
+    }
+}
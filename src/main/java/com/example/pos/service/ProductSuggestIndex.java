@@ -0,0 +1,133 @@
+package com.example.pos.service;
+
+import com.example.pos.dto.ProductSuggestion;
+import com.example.pos.entity.ProductSnapshot;
+import com.example.pos.repository.ProductRepository;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Prefix index over product name words, sku and item code for cashier typeahead.
+ * <p>
+ * Keys are "token\0id" in a sorted map, so a prefix lookup is a range scan that stops as soon as
+ * enough products are found.
+ */
+@Component
+public class ProductSuggestIndex extends ProductSnapshotIndex {
+
+    private static final char SEPARATOR = '\0';
+    // Upper bound on keys examined per lookup when extra terms reject most candidates
+    private static final int MAX_SCANNED_PER_RESULT = 50;
+
+    private final ConcurrentSkipListMap<String, Integer> keys = new ConcurrentSkipListMap<>();
+    private final Map<Integer, Entry> entries = new ConcurrentHashMap<>();
+
+    private record Entry(ProductSuggestion suggestion, Set<String> tokens) {
+    }
+
+    public ProductSuggestIndex(ProductRepository productRepository) {
+        super(productRepository);
+    }
+
+    /**
+     * Products with a name word, sku or item code starting with the first term of the query (the longest
+     * one, when several are given) and with every other term as a prefix of one of their words.
+     */
+    public List<ProductSuggestion> suggest(String query, int limit) {
+        List<String> terms = new ArrayList<>(tokenize(query));
+        if (terms.isEmpty()) {
+            return List.of();
+        }
+        terms.sort(Comparator.comparingInt(String::length).reversed());
+        String lead = terms.get(0);
+        List<String> others = terms.subList(1, terms.size());
+
+        Set<Integer> seen = new HashSet<>();
+        List<ProductSuggestion> result = new ArrayList<>(limit);
+        int budget = limit * MAX_SCANNED_PER_RESULT;
+        for (Map.Entry<String, Integer> key : keys.subMap(lead, lead + Character.MAX_VALUE).entrySet()) {
+            if (result.size() == limit || budget-- == 0) {
+                break;
+            }
+            Integer id = key.getValue();
+            Entry entry = entries.get(id);
+            if (entry != null && seen.add(id) && matchesAll(entry.tokens(), others)) {
+                result.add(entry.suggestion());
+            }
+        }
+        return result;
+    }
+
+    private static boolean matchesAll(Set<String> tokens, List<String> terms) {
+        for (String term : terms) {
+            if (tokens.stream().noneMatch(token -> token.startsWith(term))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // ----------------------------------------------------------------- writes (under writeLock)
+
+    @Override
+    protected void clear() {
+        keys.clear();
+        entries.clear();
+    }
+
+    @Override
+    protected int size() {
+        return entries.size();
+    }
+
+    @Override
+    protected void upsert(ProductSnapshot p) {
+        if (p.id() == null) {
+            return;
+        }
+        remove(p.id());
+        if (p.isDeleted()) {
+            return;
+        }
+        Set<String> tokens = new LinkedHashSet<>(tokenize(p.name()));
+        tokens.addAll(tokenize(p.sku()));
+        tokens.addAll(tokenize(p.itemCode()));
+
+        ProductSuggestion suggestion = ProductSuggestion.builder()
+                .id(p.id())
+                .name(p.name())
+                .sku(p.sku())
+                .price(p.price())
+                .build();
+        entries.put(p.id(), new Entry(suggestion, tokens));
+        for (String token : tokens) {
+            keys.put(token + SEPARATOR + p.id(), p.id());
+        }
+    }
+
+    @Override
+    protected void remove(Integer id) {
+        Entry previous = entries.remove(id);
+        if (previous != null) {
+            for (String token : previous.tokens()) {
+                keys.remove(token + SEPARATOR + id);
+            }
+        }
+    }
+
+    private static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        List<String> tokens = new ArrayList<>();
+        for (String token : text.trim().toLowerCase().split("\\s+")) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+}
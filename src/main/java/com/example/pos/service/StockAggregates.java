@@ -0,0 +1,214 @@
+package com.example.pos.service;
+
+import com.example.pos.entity.ProductSnapshot;
+import com.example.pos.entity.ProductsChangedEvent;
+import com.example.pos.repository.StockAggregateRepository;
+import com.example.pos.repository.StockAggregateRepository.Holding;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.*;
+
+/**
+ * Keeps the product aggregates on stores and warehouses current. Each product's last seen holding (store and
+ * total quantity, units per warehouse from product_stock) is held in memory; a change event re-reads the
+ * holdings of the changed products and turns the difference into +/- deltas per store and warehouse, which
+ * are coalesced and flushed as one batched UPDATE per table every few seconds. Re-reading rather than trusting
+ * the event makes the deltas independent of the order in which after-commit events arrive.
+ * <p>
+ * A full recompute runs after warm-up and on a schedule, and corrects any drift (a flush lost in a crash,
+ * writes from other instances). It reads one snapshot and reloads the in-memory holdings from that same
+ * snapshot; products changed while it runs are re-read once it is done, against those holdings.
+ * <p>
+ * Switched by {@code app.stock-aggregates.enabled}, independent of the in-memory catalog indexes: turning
+ * those off for a clustered deployment must not stop the aggregates.
+ */
+@Component
+@Slf4j
+public class StockAggregates {
+
+    private final StockAggregateRepository aggregateRepository;
+    private final TransactionTemplate transactionTemplate;
+    // One snapshot for the recompute and the holdings it is based on
+    private final TransactionTemplate reconcileTemplate;
+    // Serialises flushes with the recompute, so pending deltas are never applied on top of a fresh recompute
+    private final Object flushLock = new Object();
+    private final Object lock = new Object();
+
+    @Value("${app.stock-aggregates.enabled:true}")
+    private boolean enabled;
+
+    // Guarded by lock
+    private Map<Integer, Holding> holdings = new HashMap<>();
+    private SortedMap<Integer, long[]> storeDeltas = new TreeMap<>();
+    private SortedMap<Integer, long[]> warehouseDeltas = new TreeMap<>();
+    // False until the first recompute has loaded the holdings; changes before it are part of its snapshot
+    private boolean ready;
+    // While a reconcile runs: the products changed meanwhile
+    private Set<Integer> changedDuringReconcile;
+
+    public StockAggregates(StockAggregateRepository aggregateRepository,
+                           PlatformTransactionManager transactionManager) {
+        this.aggregateRepository = aggregateRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.reconcileTemplate = new TransactionTemplate(transactionManager);
+        this.reconcileTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.reconcileTemplate.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        if (!enabled) {
+            log.warn("Store and warehouse aggregates are not maintained (app.stock-aggregates.enabled=false)");
+            return;
+        }
+        reconcile();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductsChanged(ProductsChangedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        Set<Integer> ids = new HashSet<>(event.removedIds());
+        event.upserted().stream().map(ProductSnapshot::id).filter(Objects::nonNull).forEach(ids::add);
+        if (ids.isEmpty()) {
+            return;
+        }
+        synchronized (lock) {
+            if (changedDuringReconcile != null) {
+                changedDuringReconcile.addAll(ids);
+            } else if (ready) {
+                refresh(ids);
+            }
+        }
+    }
+
+    /**
+     * Writes the coalesced deltas; on failure they are merged back and retried on the next run.
+     */
+    @Scheduled(fixedDelayString = "${app.stock-aggregates.flush-interval-ms:5000}")
+    public void flush() {
+        synchronized (flushLock) {
+            SortedMap<Integer, long[]> stores;
+            SortedMap<Integer, long[]> warehouses;
+            synchronized (lock) {
+                if (storeDeltas.isEmpty() && warehouseDeltas.isEmpty()) {
+                    return;
+                }
+                stores = storeDeltas;
+                warehouses = warehouseDeltas;
+                storeDeltas = new TreeMap<>();
+                warehouseDeltas = new TreeMap<>();
+            }
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    aggregateRepository.addStoreDeltas(stores);
+                    aggregateRepository.addWarehouseDeltas(warehouses);
+                });
+            } catch (RuntimeException e) {
+                log.warn("Store and warehouse aggregate flush failed; retrying on the next run", e);
+                synchronized (lock) {
+                    stores.forEach((id, delta) -> merge(storeDeltas, id, delta));
+                    warehouses.forEach((id, delta) -> merge(warehouseDeltas, id, delta));
+                }
+            }
+        }
+    }
+
+    /**
+     * Recomputes every aggregate from the products and product_stock tables. Deltas not yet flushed are
+     * dropped, as the recompute already sees the committed changes they describe. If the recompute fails,
+     * they are kept, and the products changed meanwhile are re-read against the holdings held before.
+     */
+    @Scheduled(cron = "${app.stock-aggregates.reconcile-cron:0 30 3 * * *}")
+    public void reconcile() {
+        if (!enabled) {
+            return;
+        }
+        synchronized (flushLock) {
+            SortedMap<Integer, long[]> stores;
+            SortedMap<Integer, long[]> warehouses;
+            synchronized (lock) {
+                stores = storeDeltas;
+                warehouses = warehouseDeltas;
+                storeDeltas = new TreeMap<>();
+                warehouseDeltas = new TreeMap<>();
+                changedDuringReconcile = new HashSet<>();
+            }
+            Recompute recompute;
+            try {
+                recompute = reconcileTemplate.execute(status ->
+                        new Recompute(aggregateRepository.recomputeAll(), aggregateRepository.findAllHoldings()));
+            } catch (RuntimeException e) {
+                synchronized (lock) {
+                    stores.forEach((id, delta) -> merge(storeDeltas, id, delta));
+                    warehouses.forEach((id, delta) -> merge(warehouseDeltas, id, delta));
+                    Set<Integer> changed = changedDuringReconcile;
+                    changedDuringReconcile = null;
+                    if (ready && !changed.isEmpty()) {
+                        refresh(changed);
+                    }
+                }
+                throw e;
+            }
+            synchronized (lock) {
+                holdings = recompute.holdings();
+                ready = true;
+                Set<Integer> changed = changedDuringReconcile;
+                changedDuringReconcile = null;
+                if (!changed.isEmpty()) {
+                    refresh(changed);
+                }
+            }
+            if (recompute.corrected() > 0) {
+                log.info("Store and warehouse aggregates recomputed: {} rows corrected", recompute.corrected());
+            }
+        }
+    }
+
+    private record Recompute(int corrected, Map<Integer, Holding> holdings) {
+    }
+
+    // ----------------------------------------------------------------- deltas (under lock)
+
+    // Reads the products' committed holdings and records the difference to the last seen ones
+    private void refresh(Set<Integer> ids) {
+        Map<Integer, Holding> current = aggregateRepository.findHoldings(ids);
+        for (Integer id : ids) {
+            Holding before = holdings.remove(id);
+            Holding after = current.get(id);
+            if (before != null) {
+                record(before, -1);
+            }
+            if (after != null) {
+                holdings.put(id, after);
+                record(after, 1);
+            }
+        }
+    }
+
+    private void record(Holding h, int sign) {
+        if (h.storeId() != null) {
+            merge(storeDeltas, h.storeId(), new long[]{sign, (long) sign * h.quantity()});
+        }
+        h.warehouses().forEach((warehouseId, quantity) -> merge(warehouseDeltas, warehouseId,
+                new long[]{sign, (long) sign * quantity, quantity > 0 ? sign : 0}));
+    }
+
+    private static void merge(Map<Integer, long[]> deltas, Integer id, long[] delta) {
+        long[] total = deltas.computeIfAbsent(id, k -> new long[delta.length]);
+        for (int i = 0; i < delta.length; i++) {
+            total[i] += delta[i];
+        }
+    }
+}
@@ -0,0 +1,445 @@
+package com.example.pos.service;
+
+import com.example.pos.dto.StockReservationDTO;
+import com.example.pos.dto.StockReservationRequest;
+import com.example.pos.entity.ProductSnapshot;
+import com.example.pos.entity.StockReservation;
+import com.example.pos.exception.BadRequestException;
+import com.example.pos.exception.ResourceNotFoundException;
+import com.example.pos.repository.ProductRepository;
+import com.example.pos.repository.ProductStockRepository;
+import com.example.pos.repository.StockLedgerRepository;
+import com.example.pos.repository.StockReservationRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Stock reservations for in-progress carts, held in memory. Products are spread over lock stripes; reserving
+ * or releasing takes one stripe lock and updates the product's running reserved total, so neither depends
+ * on how many reservations exist. A reservation is refused when it would take the product's
+ * available-to-sell (quantity less reserved) below zero, and sales in {@link StockService} may not dip into
+ * stock reserved by other carts.
+ * <p>
+ * A reservation is checked against the product's row, locked as {@link StockService} locks it, so a sale and
+ * a reservation of the same product are serialized: whichever takes the lock second sees the other. Quantities
+ * shown with existing reservations come from the snapshot index this class keeps.
+ * <p>
+ * Reservations expire after their TTL. They are written behind in batches: to stock_reservations, so that
+ * they survive a restart, and each product's reserved total to the product_stock row of its warehouse. The
+ * in-memory state is authoritative, so like the other catalog indexes this assumes a single instance.
+ */
+@Component
+@Slf4j
+public class StockReservations extends ProductSnapshotIndex {
+
+    private static final int STRIPES = 64;
+
+    // A product's live reservations and their total, guarded by the product's stripe
+    private static final class Holds {
+        private int reserved;
+        private final Map<UUID, StockReservation> reservations = new LinkedHashMap<>();
+    }
+
+    private static final class Stripe {
+        private final Map<Integer, Holds> products = new HashMap<>();
+    }
+
+    private record Expiry(UUID id, LocalDateTime expiresAt) implements Delayed {
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(Duration.between(LocalDateTime.now(), expiresAt));
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            return expiresAt.compareTo(((Expiry) other).expiresAt);
+        }
+    }
+
+    private final StockReservationRepository reservationRepository;
+    private final ProductStockRepository productStockRepository;
+    private final StockLedgerRepository ledgerRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int defaultTtlSeconds;
+    private final int maxTtlSeconds;
+
+    private final Stripe[] stripes = new Stripe[STRIPES];
+    // Every live reservation; changed only under the stripe of its product
+    private final Map<UUID, StockReservation> byId = new ConcurrentHashMap<>();
+    // Checked by the expiry sweep; entries of released or extended reservations are skipped there
+    private final DelayQueue<Expiry> expiries = new DelayQueue<>();
+    // Written under writeLock, read without it
+    private final Map<Integer, Integer> quantities = new ConcurrentHashMap<>();
+    // Latest reservation change, for the validators of product responses that show availableToSell
+    private volatile LocalDateTime lastChanged = LocalDateTime.now();
+
+    // Write-behind queue, guarded by persistLock
+    private final Object persistLock = new Object();
+    private Map<UUID, StockReservation> pendingUpserts = new LinkedHashMap<>();
+    private Set<UUID> pendingDeletes = new HashSet<>();
+    // Products whose reserved total changed, copied to their product_stock row on flush
+    private Set<Integer> pendingProducts = new HashSet<>();
+
+    public StockReservations(ProductRepository productRepository,
+                             StockReservationRepository reservationRepository,
+                             ProductStockRepository productStockRepository,
+                             StockLedgerRepository ledgerRepository,
+                             PlatformTransactionManager transactionManager,
+                             @Value("${app.stock-reservations.default-ttl-seconds:900}") int defaultTtlSeconds,
+                             @Value("${app.stock-reservations.max-ttl-seconds:7200}") int maxTtlSeconds) {
+        super(productRepository);
+        this.reservationRepository = reservationRepository;
+        this.productStockRepository = productStockRepository;
+        this.ledgerRepository = ledgerRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.defaultTtlSeconds = defaultTtlSeconds;
+        this.maxTtlSeconds = maxTtlSeconds;
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe();
+        }
+    }
+
+    @Override
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        recover();
+        super.rebuild();
+    }
+
+    /**
+     * Holds {@code quantity} of the product for {@code ttlSeconds}, or throws BadRequestException when less
+     * than that is available to sell.
+     */
+    public StockReservationDTO reserve(StockReservationRequest request, Integer createdBy) {
+        if (request == null || request.getProductId() == null || request.getQuantity() == null
+                || request.getQuantity() <= 0) {
+            throw new BadRequestException("A reservation needs a productId and a positive quantity");
+        }
+        Integer productId = request.getProductId();
+        LocalDateTime now = LocalDateTime.now();
+        StockReservation reservation = StockReservation.builder()
+                .id(UUID.randomUUID())
+                .productId(productId)
+                .quantity(request.getQuantity())
+                .reference(request.getReference())
+                .createdBy(createdBy)
+                .createdAt(now)
+                .expiresAt(now.plusSeconds(ttl(request.getTtlSeconds())))
+                .build();
+
+        // Held until the reservation is in place: a sale locking the row after this sees it in reserved()
+        int available = transactionTemplate.execute(status -> {
+            Integer onHand = ledgerRepository.lockQuantities(List.of(productId)).get(productId);
+            if (onHand == null) {
+                throw new ResourceNotFoundException("Product", "id", productId);
+            }
+            Stripe stripe = stripeOf(productId);
+            synchronized (stripe) {
+                Holds holds = stripe.products.get(productId);
+                int alreadyReserved = holds != null ? holds.reserved : 0;
+                if (onHand - alreadyReserved < reservation.getQuantity()) {
+                    throw new BadRequestException("Insufficient stock for product " + productId + ": "
+                            + Math.max(0, onHand - alreadyReserved) + " available");
+                }
+                if (holds == null) {
+                    holds = new Holds();
+                    stripe.products.put(productId, holds);
+                }
+                holds.reserved += reservation.getQuantity();
+                holds.reservations.put(reservation.getId(), reservation);
+                byId.put(reservation.getId(), reservation);
+                return Math.max(0, onHand - holds.reserved);
+            }
+        });
+        expiries.add(new Expiry(reservation.getId(), reservation.getExpiresAt()));
+        persist(reservation);
+        lastChanged = now;
+        return toDTO(reservation, available);
+    }
+
+    /**
+     * Moves the reservation's expiry to {@code ttlSeconds} from now.
+     */
+    public StockReservationDTO extend(UUID id, Integer ttlSeconds) {
+        StockReservation current = find(id)
+                .orElseThrow(() -> new ResourceNotFoundException("StockReservation", "id", id));
+        StockReservation extended = StockReservation.builder()
+                .id(current.getId())
+                .productId(current.getProductId())
+                .quantity(current.getQuantity())
+                .reference(current.getReference())
+                .createdBy(current.getCreatedBy())
+                .createdAt(current.getCreatedAt())
+                .expiresAt(LocalDateTime.now().plusSeconds(ttl(ttlSeconds)))
+                .build();
+        Stripe stripe = stripeOf(current.getProductId());
+        synchronized (stripe) {
+            if (!byId.replace(id, current, extended)) {
+                throw new ResourceNotFoundException("StockReservation", "id", id);
+            }
+            stripe.products.get(current.getProductId()).reservations.put(id, extended);
+        }
+        expiries.add(new Expiry(id, extended.getExpiresAt()));
+        persist(extended);
+        return toDTO(extended, availableToSell(current.getProductId(), quantityOf(current.getProductId())));
+    }
+
+    public void release(UUID id) {
+        StockReservation reservation = byId.get(id);
+        if (reservation == null || !drop(reservation)) {
+            throw new ResourceNotFoundException("StockReservation", "id", id);
+        }
+    }
+
+    /**
+     * Releases the reservations a committed sale has used; those already gone are ignored.
+     */
+    public void consume(Collection<UUID> ids) {
+        for (UUID id : ids) {
+            StockReservation reservation = byId.get(id);
+            if (reservation != null) {
+                drop(reservation);
+            }
+        }
+    }
+
+    public Optional<StockReservation> find(UUID id) {
+        return Optional.ofNullable(byId.get(id));
+    }
+
+    /**
+     * Units of the product held by live reservations.
+     */
+    public int reserved(Integer productId) {
+        Stripe stripe = stripeOf(productId);
+        synchronized (stripe) {
+            Holds holds = stripe.products.get(productId);
+            return holds != null ? holds.reserved : 0;
+        }
+    }
+
+    /**
+     * The quantity less the reserved units, not below zero.
+     */
+    public int availableToSell(Integer productId, Integer quantity) {
+        return Math.max(0, (quantity != null ? quantity : 0) - reserved(productId));
+    }
+
+    public List<StockReservationDTO> getReservations(Integer productId) {
+        List<StockReservation> reservations;
+        Stripe stripe = stripeOf(productId);
+        synchronized (stripe) {
+            Holds holds = stripe.products.get(productId);
+            reservations = holds != null ? new ArrayList<>(holds.reservations.values()) : List.of();
+        }
+        int available = availableToSell(productId, quantityOf(productId));
+        return reservations.stream().map(r -> toDTO(r, available)).toList();
+    }
+
+    public LocalDateTime lastChanged() {
+        return lastChanged;
+    }
+
+    @Scheduled(fixedDelayString = "${app.stock-reservations.expiry-check-ms:1000}")
+    public void expire() {
+        int expired = 0;
+        Expiry expiry;
+        while ((expiry = expiries.poll()) != null) {
+            StockReservation reservation = byId.get(expiry.id());
+            if (reservation != null && reservation.getExpiresAt().equals(expiry.expiresAt()) && drop(reservation)) {
+                expired++;
+            }
+        }
+        if (expired > 0) {
+            log.debug("Stock reservations expired: {}", expired);
+        }
+    }
+
+    /**
+     * Writes the queued reservation changes; on failure they are merged back and retried on the next run.
+     */
+    @Scheduled(fixedDelayString = "${app.stock-reservations.persist-interval-ms:1000}")
+    public void flush() {
+        Map<UUID, StockReservation> upserts;
+        Set<UUID> deletes;
+        Set<Integer> products;
+        synchronized (persistLock) {
+            if (pendingUpserts.isEmpty() && pendingDeletes.isEmpty() && pendingProducts.isEmpty()) {
+                return;
+            }
+            upserts = pendingUpserts;
+            deletes = pendingDeletes;
+            products = pendingProducts;
+            pendingUpserts = new LinkedHashMap<>();
+            pendingDeletes = new HashSet<>();
+            pendingProducts = new HashSet<>();
+        }
+        Map<Integer, Integer> reserved = new HashMap<>();
+        products.forEach(productId -> reserved.put(productId, reserved(productId)));
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                reservationRepository.deleteByIds(deletes);
+                reservationRepository.upsertAll(upserts.values());
+                productStockRepository.setReserved(reserved);
+            });
+        } catch (RuntimeException e) {
+            log.warn("Stock reservation write-behind failed, retrying on the next run: {}", e.getMessage());
+            synchronized (persistLock) {
+                upserts.forEach((id, reservation) -> {
+                    if (!pendingDeletes.contains(id)) {
+                        pendingUpserts.putIfAbsent(id, reservation);
+                    }
+                });
+                pendingDeletes.addAll(deletes);
+                pendingProducts.addAll(products);
+            }
+        }
+    }
+
+    // ----------------------------------------------------------------- snapshot index (under writeLock)
+
+    @Override
+    protected void clear() {
+        quantities.clear();
+    }
+
+    @Override
+    protected void upsert(ProductSnapshot snapshot) {
+        if ("DELETED".equalsIgnoreCase(snapshot.status())) {
+            quantities.remove(snapshot.id());
+        } else {
+            quantities.put(snapshot.id(), snapshot.quantity() != null ? snapshot.quantity() : 0);
+        }
+    }
+
+    @Override
+    protected void remove(Integer id) {
+        quantities.remove(id);
+    }
+
+    @Override
+    protected int size() {
+        return quantities.size();
+    }
+
+    // ----------------------------------------------------------------- internals
+
+    /**
+     * Reloads the reservations stored before a restart, dropping the expired ones.
+     */
+    private void recover() {
+        List<StockReservation> stored = transactionTemplate.execute(
+                status -> reservationRepository.loadActive(LocalDateTime.now()));
+        if (stored == null || stored.isEmpty()) {
+            return;
+        }
+        for (StockReservation reservation : stored) {
+            Stripe stripe = stripeOf(reservation.getProductId());
+            synchronized (stripe) {
+                if (byId.putIfAbsent(reservation.getId(), reservation) != null) {
+                    continue;
+                }
+                Holds holds = stripe.products.computeIfAbsent(reservation.getProductId(), id -> new Holds());
+                holds.reserved += reservation.getQuantity();
+                holds.reservations.put(reservation.getId(), reservation);
+            }
+            expiries.add(new Expiry(reservation.getId(), reservation.getExpiresAt()));
+        }
+        synchronized (persistLock) {
+            stored.forEach(reservation -> pendingProducts.add(reservation.getProductId()));
+        }
+        lastChanged = LocalDateTime.now();
+        log.info("Stock reservations recovered: {}", stored.size());
+    }
+
+    /**
+     * Removes the reservation if it is still live; false when it was released or replaced meanwhile.
+     */
+    private boolean drop(StockReservation reservation) {
+        Stripe stripe = stripeOf(reservation.getProductId());
+        synchronized (stripe) {
+            if (!byId.remove(reservation.getId(), reservation)) {
+                return false;
+            }
+            Holds holds = stripe.products.get(reservation.getProductId());
+            holds.reserved -= reservation.getQuantity();
+            holds.reservations.remove(reservation.getId());
+            if (holds.reservations.isEmpty()) {
+                stripe.products.remove(reservation.getProductId());
+            }
+        }
+        synchronized (persistLock) {
+            pendingUpserts.remove(reservation.getId());
+            pendingDeletes.add(reservation.getId());
+            pendingProducts.add(reservation.getProductId());
+        }
+        lastChanged = LocalDateTime.now();
+        return true;
+    }
+
+    private void persist(StockReservation reservation) {
+        synchronized (persistLock) {
+            pendingUpserts.put(reservation.getId(), reservation);
+            pendingProducts.add(reservation.getProductId());
+        }
+    }
+
+    private int quantityOf(Integer productId) {
+        if (isReady()) {
+            Integer quantity = quantities.get(productId);
+            if (quantity == null) {
+                throw new ResourceNotFoundException("Product", "id", productId);
+            }
+            return quantity;
+        }
+        List<ProductSnapshot> snapshots = productRepository.findSnapshotsByIdIn(List.of(productId));
+        if (snapshots.isEmpty() || "DELETED".equalsIgnoreCase(snapshots.get(0).status())) {
+            throw new ResourceNotFoundException("Product", "id", productId);
+        }
+        Integer quantity = snapshots.get(0).quantity();
+        return quantity != null ? quantity : 0;
+    }
+
+    private int ttl(Integer ttlSeconds) {
+        int ttl = ttlSeconds != null ? ttlSeconds : defaultTtlSeconds;
+        if (ttl < 1 || ttl > maxTtlSeconds) {
+            throw new BadRequestException("ttlSeconds must be between 1 and " + maxTtlSeconds);
+        }
+        return ttl;
+    }
+
+    private Stripe stripeOf(Integer productId) {
+        return stripes[Math.floorMod(productId, STRIPES)];
+    }
+
+    private static StockReservationDTO toDTO(StockReservation r, int availableToSell) {
+        return StockReservationDTO.builder()
+                .id(r.getId())
+                .productId(r.getProductId())
+                .quantity(r.getQuantity())
+                .reference(r.getReference())
+                .createdBy(r.getCreatedBy())
+                .createdAt(r.getCreatedAt())
+                .expiresAt(r.getExpiresAt())
+                .availableToSell(availableToSell)
+                .build();
+    }
+}
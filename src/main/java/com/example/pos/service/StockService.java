@@ -0,0 +1,377 @@
+package com.example.pos.service;
+
+import com.example.pos.dto.ProductStockResponse;
+import com.example.pos.dto.StockMovementDTO;
+import com.example.pos.dto.StockMovementListResponse;
+import com.example.pos.dto.StockMovementRequest;
+import com.example.pos.dto.WarehouseStockDTO;
+import com.example.pos.entity.Product;
+import com.example.pos.entity.ProductSnapshot;
+import com.example.pos.entity.ProductsChangedEvent;
+import com.example.pos.entity.StockMovement;
+import com.example.pos.entity.StockReservation;
+import com.example.pos.entity.StockTransferLine;
+import com.example.pos.exception.BadRequestException;
+import com.example.pos.exception.ResourceNotFoundException;
+import com.example.pos.repository.ProductRepository;
+import com.example.pos.repository.ProductStockRepository;
+import com.example.pos.repository.StockLedgerRepository;
+import com.example.pos.repository.StockMovementRepository;
+import com.example.pos.repository.WarehouseRepository;
+import com.example.pos.security.UserPrincipal;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.function.ToIntFunction;
+
+/**
+ * Stock changes and the stock ledger. Every change of a product's quantity is recorded as a
+ * {@link StockMovement} and applied as {@code quantity = quantity + delta} on the product rows, locked in
+ * id order for the transaction, so tills and the back office writing at the same time never lose updates.
+ */
+@Service
+@RequiredArgsConstructor
+public class StockService {
+
+    private static final int MAX_MOVEMENTS = 5000;
+    private static final int MAX_PAGE_SIZE = 500;
+    // Adjustments and transfers are not held back by cart reservations
+    private static final ToIntFunction<Integer> NO_RESERVATIONS = productId -> 0;
+
+    private final StockLedgerRepository ledgerRepository;
+    private final StockMovementRepository movementRepository;
+    private final ProductRepository productRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final StockReservations stockReservations;
+    private final ProductStockRepository productStockRepository;
+    private final WarehouseRepository warehouseRepository;
+
+    /**
+     * Applies the movements atomically: all of them, or none when a product is missing or would go below zero.
+     * Sales may not take stock reserved by other carts; a sale naming its own reservation releases it on commit.
+     */
+    @Transactional
+    public List<StockMovementDTO> recordMovements(List<StockMovementRequest> requests, Authentication authentication) {
+        if (requests == null || requests.isEmpty()) {
+            throw new BadRequestException("No stock movements to record");
+        }
+        if (requests.size() > MAX_MOVEMENTS) {
+            throw new BadRequestException("At most " + MAX_MOVEMENTS + " stock movements per request");
+        }
+        Integer createdBy = null;
+        if (authentication != null && authentication.getPrincipal() instanceof UserPrincipal userPrincipal) {
+            createdBy = userPrincipal.getId();
+        }
+
+        List<StockMovement> movements = new ArrayList<>(requests.size());
+        Map<UUID, StockReservation> consumed = new HashMap<>();
+        Map<Integer, Integer> ownReserved = new HashMap<>();
+        Set<Integer> warehouseIds = new HashSet<>();
+        for (StockMovementRequest request : requests) {
+            if (request == null || request.getProductId() == null || request.getQuantity() == null) {
+                throw new BadRequestException("Each stock movement needs a productId and a quantity");
+            }
+            String type = request.getType() != null ? request.getType().trim().toUpperCase() : null;
+            if (!StockMovement.TYPES.contains(type)) {
+                throw new BadRequestException("Invalid type: must be one of sale, purchase, adjustment, transfer");
+            }
+            int quantity = request.getQuantity();
+            if (quantity == 0
+                    || StockMovement.SALE.equals(type) && quantity > 0
+                    || StockMovement.PURCHASE.equals(type) && quantity < 0) {
+                throw new BadRequestException("Invalid quantity " + quantity + " for a " + type.toLowerCase()
+                        + ": sales are negative, purchases positive, and no movement is zero");
+            }
+            if (request.getReservationId() != null) {
+                StockReservation reservation = stockReservations.find(request.getReservationId())
+                        .filter(r -> r.getProductId().equals(request.getProductId()))
+                        .orElseThrow(() -> new BadRequestException("Reservation " + request.getReservationId()
+                                + " not found for product " + request.getProductId() + ": released or expired"));
+                if (!StockMovement.SALE.equals(type)) {
+                    throw new BadRequestException("Only a sale can use a stock reservation");
+                }
+                if (consumed.putIfAbsent(reservation.getId(), reservation) == null) {
+                    ownReserved.merge(reservation.getProductId(), reservation.getQuantity(), Integer::sum);
+                }
+            }
+            if (request.getWarehouseId() != null) {
+                warehouseIds.add(request.getWarehouseId());
+            }
+            movements.add(StockMovement.builder()
+                    .productId(request.getProductId())
+                    .warehouseId(request.getWarehouseId())
+                    .movementType(type)
+                    .quantity(quantity)
+                    .reference(request.getReference())
+                    .note(request.getNote())
+                    .createdBy(createdBy)
+                    .build());
+        }
+        for (Integer warehouseId : warehouseIds) {
+            if (!warehouseRepository.existsByIdAndStatusNot(warehouseId, "DELETED")) {
+                throw new BadRequestException("Warehouse not found: " + warehouseId);
+            }
+        }
+        apply(movements, productId -> stockReservations.reserved(productId) - ownReserved.getOrDefault(productId, 0));
+        if (!consumed.isEmpty()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    stockReservations.consume(consumed.keySet());
+                }
+            });
+        }
+        return movements.stream().map(StockService::toDTO).toList();
+    }
+
+    /**
+     * Sets a product's quantity to a counted value and records the difference as an adjustment. The
+     * difference is taken against the locked row, not against what the caller read earlier.
+     *
+     * @return the quantity now stored
+     */
+    @Transactional
+    public int setQuantity(Integer productId, int quantity, Integer createdBy) {
+        if (quantity < 0) {
+            throw new BadRequestException("quantity must not be negative");
+        }
+        Integer current = ledgerRepository.lockQuantities(List.of(productId)).get(productId);
+        if (current == null) {
+            throw new ResourceNotFoundException("Product", "id", productId);
+        }
+        if (current != quantity) {
+            apply(new ArrayList<>(List.of(adjustment(productId, quantity - current, "Quantity set on product update",
+                    createdBy))), NO_RESERVATIONS);
+        }
+        return quantity;
+    }
+
+    /**
+     * As {@link #setQuantity} for many products in one ledger write; products that are missing or deleted
+     * are left out.
+     */
+    @Transactional
+    public void setQuantities(Map<Integer, Integer> quantities, Integer createdBy, String note) {
+        Map<Integer, Integer> current = ledgerRepository.lockQuantities(new TreeSet<>(quantities.keySet()));
+        List<StockMovement> adjustments = new ArrayList<>();
+        new TreeMap<>(quantities).forEach((productId, quantity) -> {
+            if (quantity < 0) {
+                throw new BadRequestException("quantity must not be negative");
+            }
+            Integer stored = current.get(productId);
+            if (stored != null && !stored.equals(quantity)) {
+                adjustments.add(adjustment(productId, quantity - stored, note, createdBy));
+            }
+        });
+        if (!adjustments.isEmpty()) {
+            apply(adjustments, NO_RESERVATIONS);
+        }
+    }
+
+    /**
+     * Records the stock that products were just inserted with as opening adjustments into their own warehouse,
+     * so the ledger accounts for all of it. The rows are new to this transaction, so nothing is locked, and
+     * the quantities are already stored.
+     */
+    @Transactional
+    public void recordOpeningStock(List<Product> products, Integer createdBy) {
+        LocalDateTime now = LocalDateTime.now();
+        List<StockMovement> movements = new ArrayList<>();
+        for (Product p : products) {
+            if (p.getQuantity() != null && p.getQuantity() > 0) {
+                StockMovement m = adjustment(p.getId(), p.getQuantity(), "Opening stock", createdBy);
+                m.setWarehouseId(p.getWarehouseId());
+                m.setStoreId(p.getStoreId());
+                m.setQuantityAfter(p.getQuantity());
+                m.setCreatedAt(now);
+                movements.add(m);
+            }
+        }
+        ledgerRepository.insertMovements(movements);
+    }
+
+    /**
+     * Moves each line's quantity from the source to the destination warehouse: a TRANSFER movement out of the
+     * source and one into the destination per line, applied like any other movements. Product totals do not
+     * change.
+     */
+    @Transactional
+    public void transfer(Integer sourceWarehouseId, Integer destinationWarehouseId, List<StockTransferLine> lines,
+                         String reference, String note, Integer createdBy) {
+        List<StockMovement> movements = new ArrayList<>(lines.size() * 2);
+        for (StockTransferLine line : lines) {
+            movements.add(transferMovement(line.getProductId(), sourceWarehouseId, -line.getQuantity(),
+                    reference, note, createdBy));
+            movements.add(transferMovement(line.getProductId(), destinationWarehouseId, line.getQuantity(),
+                    reference, note, createdBy));
+        }
+        apply(movements, NO_RESERVATIONS);
+    }
+
+    /**
+     * Newest first, {@code size} at a time; pass the returned nextBeforeId to page back in time.
+     */
+    @Transactional(readOnly = true)
+    public StockMovementListResponse getMovements(Integer productId, Integer warehouseId, Long beforeId, int size) {
+        if (productId == null && warehouseId == null) {
+            throw new BadRequestException("Give a productId or a warehouseId");
+        }
+        Pageable page = PageRequest.of(0, Math.max(1, Math.min(size, MAX_PAGE_SIZE)));
+        long before = beforeId != null ? beforeId : Long.MAX_VALUE;
+        List<StockMovement> movements;
+        if (productId != null && warehouseId != null) {
+            movements = movementRepository.findByProductIdAndWarehouseIdAndIdLessThanOrderByIdDesc(
+                    productId, warehouseId, before, page);
+        } else if (productId != null) {
+            movements = movementRepository.findByProductIdAndIdLessThanOrderByIdDesc(productId, before, page);
+        } else {
+            movements = movementRepository.findByWarehouseIdAndIdLessThanOrderByIdDesc(warehouseId, before, page);
+        }
+        Long nextBeforeId = movements.size() == page.getPageSize() ? movements.get(movements.size() - 1).getId() : null;
+        return StockMovementListResponse.builder()
+                .movements(movements.stream().map(StockService::toDTO).toList())
+                .nextBeforeId(nextBeforeId)
+                .build();
+    }
+
+    /**
+     * The product's stock in every warehouse, from one range scan of the product_stock primary key.
+     */
+    @Transactional(readOnly = true)
+    public ProductStockResponse getProductStock(Integer productId) {
+        productRepository.findById(productId)
+                .filter(p -> !"DELETED".equalsIgnoreCase(p.getStatus()))
+                .orElseThrow(() -> new ResourceNotFoundException("Product", "id", productId));
+        List<WarehouseStockDTO> warehouses = productStockRepository.findByProduct(productId).stream()
+                .map(w -> WarehouseStockDTO.builder()
+                        .warehouseId(w.warehouseId())
+                        .warehouseName(w.warehouseName())
+                        .quantity(w.quantity())
+                        .reserved(w.reserved())
+                        .updatedAt(w.updatedAt())
+                        .build())
+                .toList();
+        return ProductStockResponse.builder()
+                .productId(productId)
+                .quantity(warehouses.stream().mapToLong(WarehouseStockDTO::getQuantity).sum())
+                .reserved(warehouses.stream().mapToLong(WarehouseStockDTO::getReserved).sum())
+                .warehouses(warehouses)
+                .build();
+    }
+
+    /**
+     * Locks the products in id order, checks that no product goes below zero nor, when decreasing, below the
+     * units reserved by others, and that no warehouse's stock of it goes below zero. Reservations are read
+     * only once the rows are locked, as {@link StockReservations#reserve} takes the same lock. Then adds the summed
+     * deltas to the products and to their per-warehouse stock, and appends the movements (in request order)
+     * with the product quantity each one left. Movements without a warehouse apply to the product's own.
+     */
+    private void apply(List<StockMovement> movements, ToIntFunction<Integer> reservedByOthers) {
+        SortedMap<Integer, Integer> deltas = new TreeMap<>();
+        for (StockMovement m : movements) {
+            deltas.merge(m.getProductId(), m.getQuantity(), Integer::sum);
+        }
+        Map<Integer, StockLedgerRepository.LockedProduct> locked = ledgerRepository.lockProducts(deltas.keySet());
+        for (Map.Entry<Integer, Integer> delta : deltas.entrySet()) {
+            StockLedgerRepository.LockedProduct product = locked.get(delta.getKey());
+            if (product == null) {
+                throw new ResourceNotFoundException("Product", "id", delta.getKey());
+            }
+            int current = product.quantity();
+            long after = (long) current + delta.getValue();
+            int reserved = delta.getValue() < 0 ? reservedByOthers.applyAsInt(delta.getKey()) : 0;
+            if (after < 0 || delta.getValue() < 0 && after < reserved) {
+                throw new BadRequestException("Insufficient stock for product " + delta.getKey()
+                        + ": " + Math.max(0, current - reserved) + " available");
+            }
+        }
+
+        SortedMap<ProductStockRepository.Key, Integer> stockDeltas = new TreeMap<>();
+        for (StockMovement m : movements) {
+            if (m.getWarehouseId() == null) {
+                m.setWarehouseId(locked.get(m.getProductId()).warehouseId());
+            }
+            if (m.getWarehouseId() != null) {
+                stockDeltas.merge(new ProductStockRepository.Key(m.getProductId(), m.getWarehouseId()),
+                        m.getQuantity(), Integer::sum);
+            }
+        }
+        Map<ProductStockRepository.Key, Integer> stock = productStockRepository.findQuantities(stockDeltas.keySet());
+        for (Map.Entry<ProductStockRepository.Key, Integer> delta : stockDeltas.entrySet()) {
+            int current = stock.getOrDefault(delta.getKey(), 0);
+            if (delta.getValue() < 0 && (long) current + delta.getValue() < 0) {
+                throw new BadRequestException("Insufficient stock for product " + delta.getKey().productId()
+                        + " in warehouse " + delta.getKey().warehouseId() + ": " + Math.max(0, current) + " available");
+            }
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        ledgerRepository.addQuantities(deltas, now);
+        productStockRepository.addQuantities(stockDeltas, now);
+        // Bulk SQL bypasses the entity listener
+        List<ProductSnapshot> snapshots = productRepository.findSnapshotsByIdIn(deltas.keySet());
+        eventPublisher.publishEvent(new ProductsChangedEvent(snapshots, List.of()));
+
+        Map<Integer, ProductSnapshot> products = new HashMap<>();
+        snapshots.forEach(p -> products.put(p.id(), p));
+        Map<Integer, Integer> running = new HashMap<>();
+        locked.forEach((id, product) -> running.put(id, product.quantity()));
+        for (StockMovement m : movements) {
+            ProductSnapshot product = products.get(m.getProductId());
+            if (Objects.equals(m.getWarehouseId(), product.warehouseId())) {
+                m.setStoreId(product.storeId());
+            }
+            m.setQuantityAfter(running.merge(m.getProductId(), m.getQuantity(), Integer::sum));
+            m.setCreatedAt(now);
+        }
+        ledgerRepository.insertMovements(movements);
+    }
+
+    private static StockMovement adjustment(Integer productId, int delta, String note, Integer createdBy) {
+        return StockMovement.builder()
+                .productId(productId)
+                .movementType(StockMovement.ADJUSTMENT)
+                .quantity(delta)
+                .note(note)
+                .createdBy(createdBy)
+                .build();
+    }
+
+    private static StockMovement transferMovement(Integer productId, Integer warehouseId, int quantity,
+                                                  String reference, String note, Integer createdBy) {
+        return StockMovement.builder()
+                .productId(productId)
+                .warehouseId(warehouseId)
+                .movementType(StockMovement.TRANSFER)
+                .quantity(quantity)
+                .reference(reference)
+                .note(note)
+                .createdBy(createdBy)
+                .build();
+    }
+
+    private static StockMovementDTO toDTO(StockMovement m) {
+        return StockMovementDTO.builder()
+                .id(m.getId())
+                .productId(m.getProductId())
+                .warehouseId(m.getWarehouseId())
+                .storeId(m.getStoreId())
+                .type(m.getMovementType())
+                .quantity(m.getQuantity())
+                .quantityAfter(m.getQuantityAfter())
+                .reference(m.getReference())
+                .note(m.getNote())
+                .createdBy(m.getCreatedBy())
+                .createdAt(m.getCreatedAt())
+                .build();
+    }
+}
@@ -0,0 +1,291 @@
+package com.example.pos.service;
+
+import com.example.pos.dto.StockTransferDTO;
+import com.example.pos.dto.StockTransferRequest;
+import com.example.pos.entity.ProductSnapshot;
+import com.example.pos.entity.StockTransfer;
+import com.example.pos.entity.StockTransferLine;
+import com.example.pos.exception.BadRequestException;
+import com.example.pos.exception.ResourceNotFoundException;
+import com.example.pos.repository.ProductRepository;
+import com.example.pos.repository.ProductStockRepository;
+import com.example.pos.repository.StockTransferLineRepository;
+import com.example.pos.repository.StockTransferRepository;
+import com.example.pos.repository.WarehouseRepository;
+import com.example.pos.security.UserPrincipal;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Stock transfer documents between warehouses. All lines are checked up front: the products exist and the
+ * source holds enough of each. A document of up to one chunk of lines is then applied in the transaction
+ * that creates it, all or nothing. A larger one is queued and applied by a background worker one chunk per
+ * transaction, recording its progress with each chunk; if a chunk fails (stock sold meanwhile), the transfer
+ * stops as FAILED after the chunks already committed and can be resumed.
+ * <p>
+ * Every chunk goes through {@link StockService}, which locks the product rows in id order, so concurrent
+ * transfers, sales and adjustments over the same products cannot deadlock.
+ */
+@Service
+@Slf4j
+public class StockTransferService {
+
+    // Keeps the up-front checks within the JDBC bind parameter limit
+    static final int MAX_LINES = 20_000;
+
+    private static final List<String> QUEUED = List.of(StockTransfer.QUEUED);
+    // RUNNING at startup means the previous process stopped mid-transfer
+    private static final List<String> INTERRUPTED = List.of(StockTransfer.QUEUED, StockTransfer.RUNNING);
+
+    private final StockTransferRepository transferRepository;
+    private final StockTransferLineRepository lineRepository;
+    private final StockService stockService;
+    private final ProductRepository productRepository;
+    private final ProductStockRepository productStockRepository;
+    private final WarehouseRepository warehouseRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ThreadPoolExecutor executor;
+    private final int chunkSize;
+
+    public StockTransferService(StockTransferRepository transferRepository,
+                                StockTransferLineRepository lineRepository,
+                                StockService stockService,
+                                ProductRepository productRepository,
+                                ProductStockRepository productStockRepository,
+                                WarehouseRepository warehouseRepository,
+                                PlatformTransactionManager transactionManager,
+                                @Value("${app.stock-transfer.chunk-size:1000}") int chunkSize,
+                                @Value("${app.stock-transfer.workers:1}") int workers,
+                                @Value("${app.stock-transfer.queue-capacity:100}") int queueCapacity) {
+        this.transferRepository = transferRepository;
+        this.lineRepository = lineRepository;
+        this.stockService = stockService;
+        this.productRepository = productRepository;
+        this.productStockRepository = productStockRepository;
+        this.warehouseRepository = warehouseRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+        this.executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), new CustomizableThreadFactory("stock-transfer-"));
+    }
+
+    /**
+     * Creates the document and applies it, or queues it when it has more than one chunk of lines.
+     */
+    public StockTransferDTO createTransfer(StockTransferRequest request, Authentication authentication) {
+        validate(request);
+        Integer createdBy = null;
+        if (authentication != null && authentication.getPrincipal() instanceof UserPrincipal userPrincipal) {
+            createdBy = userPrincipal.getId();
+        }
+        Integer userId = createdBy;
+        StockTransfer transfer = transactionTemplate.execute(status -> {
+            StockTransfer saved = transferRepository.save(StockTransfer.builder()
+                    .sourceWarehouseId(request.getSourceWarehouseId())
+                    .destinationWarehouseId(request.getDestinationWarehouseId())
+                    .reference(request.getReference())
+                    .note(request.getNote())
+                    .totalLines(request.getLines().size())
+                    .createdBy(userId)
+                    .build());
+            List<StockTransferLine> lines = new ArrayList<>(request.getLines().size());
+            for (StockTransferRequest.Line line : request.getLines()) {
+                lines.add(new StockTransferLine(saved.getId(), lines.size() + 1, line.getProductId(), line.getQuantity()));
+            }
+            lineRepository.insertAll(lines);
+            if (lines.size() <= chunkSize) {
+                stockService.transfer(saved.getSourceWarehouseId(), saved.getDestinationWarehouseId(), lines,
+                        movementReference(saved), saved.getReference(), userId);
+                LocalDateTime now = LocalDateTime.now();
+                saved.setStatus(StockTransfer.COMPLETED);
+                saved.setLinesDone(lines.size());
+                saved.setStartedAt(now);
+                saved.setFinishedAt(now);
+            }
+            return saved;
+        });
+        if (StockTransfer.QUEUED.equals(transfer.getStatus())) {
+            enqueue(transfer.getId(), QUEUED);
+        }
+        return getTransfer(transfer.getId());
+    }
+
+    public StockTransferDTO getTransfer(Integer id) {
+        return toDTO(findTransfer(id));
+    }
+
+    /**
+     * Re-queues a failed transfer; it continues after its last committed chunk.
+     */
+    public StockTransferDTO resume(Integer id) {
+        StockTransfer transfer = findTransfer(id);
+        if (!StockTransfer.FAILED.equals(transfer.getStatus())) {
+            throw new BadRequestException("Only failed stock transfers can be resumed");
+        }
+        transfer.setStatus(StockTransfer.QUEUED);
+        transfer.setMessage(null);
+        transferRepository.save(transfer);
+        enqueue(id, QUEUED);
+        return getTransfer(id);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeInterrupted() {
+        for (StockTransfer transfer : transferRepository.findByStatusInOrderByIdAsc(INTERRUPTED)) {
+            log.info("Resuming stock transfer {} ({} of {} lines done)", transfer.getId(), transfer.getLinesDone(),
+                    transfer.getTotalLines());
+            enqueue(transfer.getId(), INTERRUPTED);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        // Running transfers stay RUNNING and continue after their last committed chunk on the next start
+        executor.shutdownNow();
+    }
+
+    // ----------------------------------------------------------------- validation
+
+    /**
+     * Checks the document against the current stock, without locks: a transfer that passes can still fail
+     * later on stock sold meanwhile, but one that cannot work is refused before anything is written.
+     */
+    private void validate(StockTransferRequest request) {
+        if (request == null || request.getSourceWarehouseId() == null || request.getDestinationWarehouseId() == null) {
+            throw new BadRequestException("A stock transfer needs a sourceWarehouseId and a destinationWarehouseId");
+        }
+        if (request.getSourceWarehouseId().equals(request.getDestinationWarehouseId())) {
+            throw new BadRequestException("Source and destination warehouse must differ");
+        }
+        if (request.getLines() == null || request.getLines().isEmpty()) {
+            throw new BadRequestException("A stock transfer needs at least one line");
+        }
+        if (request.getLines().size() > MAX_LINES) {
+            throw new BadRequestException("At most " + MAX_LINES + " lines per stock transfer");
+        }
+        for (Integer warehouseId : List.of(request.getSourceWarehouseId(), request.getDestinationWarehouseId())) {
+            if (!warehouseRepository.existsByIdAndStatusNot(warehouseId, "DELETED")) {
+                throw new BadRequestException("Warehouse not found: " + warehouseId);
+            }
+        }
+
+        SortedMap<Integer, Long> quantities = new TreeMap<>();
+        for (StockTransferRequest.Line line : request.getLines()) {
+            if (line == null || line.getProductId() == null || line.getQuantity() == null || line.getQuantity() <= 0) {
+                throw new BadRequestException("Each stock transfer line needs a productId and a positive quantity");
+            }
+            quantities.merge(line.getProductId(), (long) line.getQuantity(), Long::sum);
+        }
+        Set<Integer> found = new HashSet<>();
+        for (ProductSnapshot product : productRepository.findSnapshotsByIdIn(quantities.keySet())) {
+            if (!"DELETED".equalsIgnoreCase(product.status())) {
+                found.add(product.id());
+            }
+        }
+        List<ProductStockRepository.Key> keys = new ArrayList<>(quantities.size());
+        for (Integer productId : quantities.keySet()) {
+            if (!found.contains(productId)) {
+                throw new ResourceNotFoundException("Product", "id", productId);
+            }
+            keys.add(new ProductStockRepository.Key(productId, request.getSourceWarehouseId()));
+        }
+        Map<ProductStockRepository.Key, Integer> stock = productStockRepository.findQuantities(keys);
+        for (ProductStockRepository.Key key : keys) {
+            int available = stock.getOrDefault(key, 0);
+            if (available < quantities.get(key.productId())) {
+                throw new BadRequestException("Insufficient stock for product " + key.productId()
+                        + " in warehouse " + key.warehouseId() + ": " + available + " available");
+            }
+        }
+    }
+
+    // ----------------------------------------------------------------- worker
+
+    private void enqueue(Integer id, Collection<String> from) {
+        try {
+            executor.execute(() -> run(id, from));
+        } catch (RejectedExecutionException e) {
+            finish(id, StockTransfer.FAILED, "Stock transfer queue is full; resume the transfer later");
+        }
+    }
+
+    private void run(Integer id, Collection<String> from) {
+        Integer claimed = transactionTemplate.execute(status -> transferRepository.claim(id, from));
+        if (claimed == null || claimed == 0) {
+            return;
+        }
+        try {
+            StockTransfer transfer = findTransfer(id);
+            String reference = movementReference(transfer);
+            int linesDone = transfer.getLinesDone();
+            List<StockTransferLine> chunk;
+            while (!(chunk = lineRepository.findChunk(id, linesDone, chunkSize)).isEmpty()) {
+                List<StockTransferLine> lines = chunk;
+                int lastLine = lines.get(lines.size() - 1).getLineNo();
+                transactionTemplate.executeWithoutResult(status -> {
+                    stockService.transfer(transfer.getSourceWarehouseId(), transfer.getDestinationWarehouseId(),
+                            lines, reference, transfer.getReference(), transfer.getCreatedBy());
+                    transferRepository.saveProgress(id, lastLine);
+                });
+                linesDone = lastLine;
+            }
+            finish(id, StockTransfer.COMPLETED, null);
+        } catch (Exception e) {
+            log.error("Stock transfer {} failed", id, e);
+            finish(id, StockTransfer.FAILED, e.getMessage());
+        }
+    }
+
+    private void finish(Integer id, String status, String message) {
+        transactionTemplate.executeWithoutResult(tx -> {
+            StockTransfer transfer = findTransfer(id);
+            transfer.setStatus(status);
+            transfer.setMessage(message != null && message.length() > 500 ? message.substring(0, 500) : message);
+            transfer.setFinishedAt(LocalDateTime.now());
+        });
+    }
+
+    private StockTransfer findTransfer(Integer id) {
+        return transferRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("StockTransfer", "id", id));
+    }
+
+    // The ledger reference of the transfer's movements
+    private static String movementReference(StockTransfer transfer) {
+        return "TR-" + transfer.getId();
+    }
+
+    private static StockTransferDTO toDTO(StockTransfer t) {
+        return StockTransferDTO.builder()
+                .id(t.getId())
+                .sourceWarehouseId(t.getSourceWarehouseId())
+                .destinationWarehouseId(t.getDestinationWarehouseId())
+                .reference(t.getReference())
+                .note(t.getNote())
+                .status(t.getStatus())
+                .totalLines(t.getTotalLines())
+                .linesDone(t.getLinesDone())
+                .percentComplete(t.getTotalLines() > 0 ? t.getLinesDone() * 100.0 / t.getTotalLines() : null)
+                .message(t.getMessage())
+                .createdBy(t.getCreatedBy())
+                .createdAt(t.getCreatedAt())
+                .startedAt(t.getStartedAt())
+                .finishedAt(t.getFinishedAt())
+                .build();
+    }
+}
@@ -16,6 +16,7 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
@@ -33,17 +34,20 @@ public class StoreService {
     private final StoreRepository storeRepository;
     private final UserRepository userRepository;
     private final WarehouseRepository warehouseRepository;
+    private final ListTotals listTotals;
 
     @Transactional(readOnly = true)
     public StoreListResponse getStores(int page, int size, String search, String status, String sortBy,
-                                       String sortDir) {
+                                       String sortDir, String includeTotal) {
         Sort sort = sortDir.equalsIgnoreCase("desc")
                 ? Sort.by(sortBy).descending()
                 : Sort.by(sortBy).ascending();
 
         Pageable pageable = PageRequest.of(page, size, sort);
 
-        Page<Store> storePage;
+        ListTotalMode totalMode = ListTotalMode.parse(includeTotal);
+
+        Slice<Store> storePage;
 
         // Clean status
         String cleanStatus = (status != null && !status.trim().isEmpty()) ? status.trim() : null;
@@ -56,20 +60,28 @@ public class StoreService {
         else if (search != null && !search.trim().isEmpty()) {
             if (cleanStatus != null) {
                 // Case 1: Search + Status filter
-                storePage = storeRepository.searchStoresByStatus(cleanStatus, search.trim(), pageable);
+                storePage = totalMode == ListTotalMode.EXACT
+                        ? storeRepository.searchStoresByStatus(cleanStatus, search.trim(), pageable)
+                        : storeRepository.searchStoresByStatusSlice(cleanStatus, search.trim(), pageable);
             } else {
                 // Case 2: Search only
-                storePage = storeRepository.searchStores(search.trim(), pageable);
+                storePage = totalMode == ListTotalMode.EXACT
+                        ? storeRepository.searchStores(search.trim(), pageable)
+                        : storeRepository.searchStoresSlice(search.trim(), pageable);
             }
         }
         // No search term
         else {
             if (cleanStatus != null) {
                 // Case 3: Status filter only
-                storePage = storeRepository.findByStatus(cleanStatus, pageable);
+                storePage = totalMode == ListTotalMode.EXACT
+                        ? storeRepository.findByStatus(cleanStatus, pageable)
+                        : storeRepository.findSliceByStatus(cleanStatus, pageable);
             } else {
                 // Case 4: No filter (exclude DELETED)
-                storePage = storeRepository.findByStatusNot("DELETED", pageable);
+                storePage = totalMode == ListTotalMode.EXACT
+                        ? storeRepository.findByStatusNot("DELETED", pageable)
+                        : storeRepository.findSliceByStatusNot("DELETED", pageable);
             }
         }
 
@@ -79,12 +91,16 @@ public class StoreService {
                 .collect(Collectors.toList());
 
         // Build response
+        ListTotals.Totals totals = listTotals.resolve(storePage, totalMode, "stores",
+                cleanStatus != null || search != null && !search.trim().isEmpty());
+
         return StoreListResponse.builder()
                 .stores(stores)
-                .totalElements(storePage.getTotalElements())
-                .totalPages(storePage.getTotalPages())
+                .totalElements(totals.totalItems())
+                .totalPages(totals.totalPages())
                 .currentPage(storePage.getNumber())
                 .pageSize(storePage.getSize())
+                .hasNext(storePage.hasNext())
                 .build();
     }
 
@@ -11,6 +11,7 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
@@ -26,13 +27,15 @@ public class SubCategoryService {
 
     private final SubCategoryRepository subCategoryRepository;
     private final CategoryRepository categoryRepository; // Cần thiết để xác thực Category
+    private final ListTotals listTotals;
 
     /**
      * Lấy danh sách danh mục phụ với phân trang, tìm kiếm và lọc
      */
     @Transactional(readOnly = true)
     public SubCategoryListResponse getSubCategories(
-            int page, int size, String search, String status, Integer categoryId, String sortBy, String sortDir) {
+            int page, int size, String search, String status, Integer categoryId, String sortBy, String sortDir,
+            String includeTotal) {
 
         // 1. Sắp xếp (Sort)
         Sort sort = sortDir.equalsIgnoreCase("desc")
@@ -43,7 +46,8 @@ public class SubCategoryService {
         Pageable pageable = PageRequest.of(page, size, sort);
 
         // 3. Chuẩn bị biến lọc
-        Page<SubCategory> subCategoryPage;
+        ListTotalMode totalMode = ListTotalMode.parse(includeTotal);
+        Slice<SubCategory> subCategoryPage;
         String cleanStatus = (status != null && !status.trim().isEmpty()) ? status.trim() : null;
         String cleanSearch = (search != null && !search.trim().isEmpty()) ? search.trim() : null;
 
@@ -56,18 +60,26 @@ public class SubCategoryService {
             if (cleanStatus != null) {
                 if (categoryId != null) {
                     // 1. Search + Status + Category
-                    subCategoryPage = subCategoryRepository.searchSubCategoriesByStatusAndCategory(cleanStatus, categoryId, cleanSearch, pageable);
+                    subCategoryPage = totalMode == ListTotalMode.EXACT
+                            ? subCategoryRepository.searchSubCategoriesByStatusAndCategory(cleanStatus, categoryId, cleanSearch, pageable)
+                            : subCategoryRepository.searchSubCategoriesByStatusAndCategorySlice(cleanStatus, categoryId, cleanSearch, pageable);
                 } else {
                     // 2. Search + Status
-                    subCategoryPage = subCategoryRepository.searchSubCategoriesByStatus(cleanStatus, cleanSearch, pageable);
+                    subCategoryPage = totalMode == ListTotalMode.EXACT
+                            ? subCategoryRepository.searchSubCategoriesByStatus(cleanStatus, cleanSearch, pageable)
+                            : subCategoryRepository.searchSubCategoriesByStatusSlice(cleanStatus, cleanSearch, pageable);
                 }
             } else { // Không có Status
                 if (categoryId != null) {
                     // 3. Search + Category
-                    subCategoryPage = subCategoryRepository.searchSubCategoriesByCategory(categoryId, cleanSearch, pageable);
+                    subCategoryPage = totalMode == ListTotalMode.EXACT
+                            ? subCategoryRepository.searchSubCategoriesByCategory(categoryId, cleanSearch, pageable)
+                            : subCategoryRepository.searchSubCategoriesByCategorySlice(categoryId, cleanSearch, pageable);
                 } else {
                     // 4. Search only
-                    subCategoryPage = subCategoryRepository.searchSubCategories(cleanSearch, pageable);
+                    subCategoryPage = totalMode == ListTotalMode.EXACT
+                            ? subCategoryRepository.searchSubCategories(cleanSearch, pageable)
+                            : subCategoryRepository.searchSubCategoriesSlice(cleanSearch, pageable);
                 }
             }
         }
@@ -76,18 +88,26 @@ public class SubCategoryService {
             if (cleanStatus != null) {
                 if (categoryId != null) {
                     // 5. Status + Category
-                    subCategoryPage = subCategoryRepository.findByCategoryIdAndStatus(categoryId, cleanStatus, pageable);
+                    subCategoryPage = totalMode == ListTotalMode.EXACT
+                            ? subCategoryRepository.findByCategoryIdAndStatus(categoryId, cleanStatus, pageable)
+                            : subCategoryRepository.findSliceByCategoryIdAndStatus(categoryId, cleanStatus, pageable);
                 } else {
                     // 6. Status only
-                    subCategoryPage = subCategoryRepository.findByStatus(cleanStatus, pageable);
+                    subCategoryPage = totalMode == ListTotalMode.EXACT
+                            ? subCategoryRepository.findByStatus(cleanStatus, pageable)
+                            : subCategoryRepository.findSliceByStatus(cleanStatus, pageable);
                 }
             } else { // Không có Status
                 if (categoryId != null) {
                     // 7. Category only
-                    subCategoryPage = subCategoryRepository.findByCategoryIdAndStatusNot(categoryId, "DELETED", pageable);
+                    subCategoryPage = totalMode == ListTotalMode.EXACT
+                            ? subCategoryRepository.findByCategoryIdAndStatusNot(categoryId, "DELETED", pageable)
+                            : subCategoryRepository.findSliceByCategoryIdAndStatusNot(categoryId, "DELETED", pageable);
                 } else {
                     // 8. Default (Không lọc gì cả)
-                    subCategoryPage = subCategoryRepository.findByStatusNot("DELETED", pageable);
+                    subCategoryPage = totalMode == ListTotalMode.EXACT
+                            ? subCategoryRepository.findByStatusNot("DELETED", pageable)
+                            : subCategoryRepository.findSliceByStatusNot("DELETED", pageable);
                 }
             }
         }
@@ -98,11 +118,15 @@ public class SubCategoryService {
                 .collect(Collectors.toList());
 
         // 6. Xây dựng đối tượng Response
+        ListTotals.Totals totals = listTotals.resolve(subCategoryPage, totalMode, "sub_categories",
+                cleanStatus != null || cleanSearch != null || categoryId != null);
+
         return SubCategoryListResponse.builder()
                 .subCategories(subCategories)
                 .currentPage(subCategoryPage.getNumber())
-                .totalPages(subCategoryPage.getTotalPages())
-                .totalItems(subCategoryPage.getTotalElements())
+                .totalPages(totals.totalPages())
+                .totalItems(totals.totalItems())
+                .hasNext(subCategoryPage.hasNext())
                 .build();
     }
 
@@ -12,6 +12,7 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
@@ -28,16 +29,19 @@ import java.util.stream.Collectors;
 public class SupplierService {
 
     private final SupplierRepository supplierRepository;
+    private final ListTotals listTotals;
 
     @Transactional(readOnly = true)
-    public SupplierListResponse getSuppliers(int page, int size, String search, String status, String sortBy, String sortDir) {
+    public SupplierListResponse getSuppliers(int page, int size, String search, String status, String sortBy, String sortDir, String includeTotal) {
         Sort sort = sortDir.equalsIgnoreCase("desc")
                 ? Sort.by(sortBy).descending()
                 : Sort.by(sortBy).ascending();
 
         Pageable pageable = PageRequest.of(page, size, sort);
 
-        Page<Supplier> supplierPage;
+        ListTotalMode totalMode = ListTotalMode.parse(includeTotal);
+
+        Slice<Supplier> supplierPage;
 
         String cleanStatus = (status != null && !status.trim().isEmpty()) ? status.trim() : null;
 
@@ -45,15 +49,23 @@ public class SupplierService {
             supplierPage = Page.empty(pageable);
         } else if (search != null && !search.trim().isEmpty()) {
             if (cleanStatus != null) {
-                supplierPage = supplierRepository.searchSuppliersByStatus(cleanStatus, search.trim(), pageable);
+                supplierPage = totalMode == ListTotalMode.EXACT
+                        ? supplierRepository.searchSuppliersByStatus(cleanStatus, search.trim(), pageable)
+                        : supplierRepository.searchSuppliersByStatusSlice(cleanStatus, search.trim(), pageable);
             } else {
-                supplierPage = supplierRepository.searchSuppliers(search.trim(), pageable);
+                supplierPage = totalMode == ListTotalMode.EXACT
+                        ? supplierRepository.searchSuppliers(search.trim(), pageable)
+                        : supplierRepository.searchSuppliersSlice(search.trim(), pageable);
             }
         } else {
             if (cleanStatus != null) {
-                supplierPage = supplierRepository.findByStatus(cleanStatus, pageable);
+                supplierPage = totalMode == ListTotalMode.EXACT
+                        ? supplierRepository.findByStatus(cleanStatus, pageable)
+                        : supplierRepository.findSliceByStatus(cleanStatus, pageable);
             } else {
-                supplierPage = supplierRepository.findByStatusNot("DELETED", pageable);
+                supplierPage = totalMode == ListTotalMode.EXACT
+                        ? supplierRepository.findByStatusNot("DELETED", pageable)
+                        : supplierRepository.findSliceByStatusNot("DELETED", pageable);
             }
         }
 
@@ -61,12 +73,16 @@ public class SupplierService {
                 .map(this::convertToDTO)
                 .collect(Collectors.toList());
 
+        ListTotals.Totals totals = listTotals.resolve(supplierPage, totalMode, "suppliers",
+                cleanStatus != null || search != null && !search.trim().isEmpty());
+
         return SupplierListResponse.builder()
                 .suppliers(suppliers)
-                .totalElements(supplierPage.getTotalElements())
-                .totalPages(supplierPage.getTotalPages())
+                .totalElements(totals.totalItems())
+                .totalPages(totals.totalPages())
                 .currentPage(supplierPage.getNumber())
                 .pageSize(supplierPage.getSize())
+                .hasNext(supplierPage.hasNext())
                 .build();
     }
 
@@ -12,6 +12,7 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
@@ -26,16 +27,19 @@ import java.util.stream.Collectors;
 public class UnitService {
 
     private final UnitRepository unitRepository;
+    private final ListTotals listTotals;
 
     @Transactional(readOnly = true)
-    public UnitListResponse getUnits(int page, int size, String search, String status, String sortBy, String sortDir) {
+    public UnitListResponse getUnits(int page, int size, String search, String status, String sortBy, String sortDir, String includeTotal) {
         Sort sort = sortDir.equalsIgnoreCase("desc")
                 ? Sort.by(sortBy).descending()
                 : Sort.by(sortBy).ascending();
 
         Pageable pageable = PageRequest.of(page, size, sort);
 
-        Page<Unit> unitPage;
+        ListTotalMode totalMode = ListTotalMode.parse(includeTotal);
+
+        Slice<Unit> unitPage;
 
         // Clean status
         String cleanStatus = (status != null && !status.trim().isEmpty()) ? status.trim() : null;
@@ -48,20 +52,28 @@ public class UnitService {
         else if (search != null && !search.trim().isEmpty()) {
             if (cleanStatus != null) {
                 // Case 1: Search + Status filter
-                unitPage = unitRepository.searchUnitsByStatus(cleanStatus, search.trim(), pageable);
+                unitPage = totalMode == ListTotalMode.EXACT
+                        ? unitRepository.searchUnitsByStatus(cleanStatus, search.trim(), pageable)
+                        : unitRepository.searchUnitsByStatusSlice(cleanStatus, search.trim(), pageable);
             } else {
                 // Case 2: Search only
-                unitPage = unitRepository.searchUnits(search.trim(), pageable);
+                unitPage = totalMode == ListTotalMode.EXACT
+                        ? unitRepository.searchUnits(search.trim(), pageable)
+                        : unitRepository.searchUnitsSlice(search.trim(), pageable);
             }
         }
         // No search term
         else {
             if (cleanStatus != null) {
                 // Case 3: Status filter only
-                unitPage = unitRepository.findByStatus(cleanStatus, pageable);
+                unitPage = totalMode == ListTotalMode.EXACT
+                        ? unitRepository.findByStatus(cleanStatus, pageable)
+                        : unitRepository.findSliceByStatus(cleanStatus, pageable);
             } else {
                 // Case 4: No filter (exclude DELETED)
-                unitPage = unitRepository.findByStatusNot("DELETED", pageable);
+                unitPage = totalMode == ListTotalMode.EXACT
+                        ? unitRepository.findByStatusNot("DELETED", pageable)
+                        : unitRepository.findSliceByStatusNot("DELETED", pageable);
             }
         }
 
@@ -71,11 +83,15 @@ public class UnitService {
                 .collect(Collectors.toList());
 
         // Build response
+        ListTotals.Totals totals = listTotals.resolve(unitPage, totalMode, "units",
+                cleanStatus != null || search != null && !search.trim().isEmpty());
+
         return UnitListResponse.builder()
                 .units(units)
                 .currentPage(unitPage.getNumber())
-                .totalPages(unitPage.getTotalPages())
-                .totalItems(unitPage.getTotalElements())
+                .totalPages(totals.totalPages())
+                .totalItems(totals.totalItems())
+                .hasNext(unitPage.hasNext())
                 .build();
     }
 
@@ -12,6 +12,7 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -24,16 +25,19 @@ import java.util.stream.Collectors;
 public class VariantAttributeService {
 
     private final VariantAttributeRepository variantAttributeRepository;
+    private final ListTotals listTotals;
 
     @Transactional(readOnly = true)
-    public VariantAttributeListResponse getVariantAttributes(int page, int size, String search, String status, String sortBy, String sortDir) {
+    public VariantAttributeListResponse getVariantAttributes(int page, int size, String search, String status, String sortBy, String sortDir, String includeTotal) {
         Sort sort = sortDir.equalsIgnoreCase("desc")
                 ? Sort.by(sortBy).descending()
                 : Sort.by(sortBy).ascending();
 
         Pageable pageable = PageRequest.of(page, size, sort);
 
-        Page<VariantAttribute> variantAttributePage;
+        ListTotalMode totalMode = ListTotalMode.parse(includeTotal);
+
+        Slice<VariantAttribute> variantAttributePage;
 
         // Clean status
         String cleanStatus = (status != null && !status.trim().isEmpty()) ? status.trim() : null;
@@ -46,20 +50,28 @@ public class VariantAttributeService {
         else if (search != null && !search.trim().isEmpty()) {
             if (cleanStatus != null) {
                 // Case 1: Search + Status filter
-                variantAttributePage = variantAttributeRepository.searchVariantAttributesByStatus(cleanStatus, search.trim(), pageable);
+                variantAttributePage = totalMode == ListTotalMode.EXACT
+                        ? variantAttributeRepository.searchVariantAttributesByStatus(cleanStatus, search.trim(), pageable)
+                        : variantAttributeRepository.searchVariantAttributesByStatusSlice(cleanStatus, search.trim(), pageable);
             } else {
                 // Case 2: Search only
-                variantAttributePage = variantAttributeRepository.searchVariantAttributes(search.trim(), pageable);
+                variantAttributePage = totalMode == ListTotalMode.EXACT
+                        ? variantAttributeRepository.searchVariantAttributes(search.trim(), pageable)
+                        : variantAttributeRepository.searchVariantAttributesSlice(search.trim(), pageable);
             }
         }
         // No search term
         else {
             if (cleanStatus != null) {
                 // Case 3: Status filter only
-                variantAttributePage = variantAttributeRepository.findByStatus(cleanStatus, pageable);
+                variantAttributePage = totalMode == ListTotalMode.EXACT
+                        ? variantAttributeRepository.findByStatus(cleanStatus, pageable)
+                        : variantAttributeRepository.findSliceByStatus(cleanStatus, pageable);
             } else {
                 // Case 4: No filter (exclude DELETED)
-                variantAttributePage = variantAttributeRepository.findByStatusNot("DELETED", pageable);
+                variantAttributePage = totalMode == ListTotalMode.EXACT
+                        ? variantAttributeRepository.findByStatusNot("DELETED", pageable)
+                        : variantAttributeRepository.findSliceByStatusNot("DELETED", pageable);
             }
         }
 
@@ -69,11 +81,15 @@ public class VariantAttributeService {
                 .collect(Collectors.toList());
 
         // Build response
+        ListTotals.Totals totals = listTotals.resolve(variantAttributePage, totalMode, "variant_attributes",
+                cleanStatus != null || search != null && !search.trim().isEmpty());
+
         return VariantAttributeListResponse.builder()
                 .variantAttributes(variantAttributes)
                 .currentPage(variantAttributePage.getNumber())
-                .totalPages(variantAttributePage.getTotalPages())
-                .totalItems(variantAttributePage.getTotalElements())
+                .totalPages(totals.totalPages())
+                .totalItems(totals.totalItems())
+                .hasNext(variantAttributePage.hasNext())
                 .build();
     }
 
@@ -8,12 +8,14 @@ import com.example.pos.dto.WarehouseListResponse;
 import com.example.pos.entity.Role;
 import com.example.pos.entity.User;
 import com.example.pos.entity.Warehouse;
+import com.example.pos.repository.ProductStockRepository;
 import com.example.pos.repository.UserRepository;
 import com.example.pos.repository.WarehouseRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
@@ -29,17 +31,21 @@ public class WarehouseService {
 
     private final WarehouseRepository warehouseRepository;
     private final UserRepository userRepository;
+    private final ProductStockRepository productStockRepository;
+    private final ListTotals listTotals;
 
     @Transactional(readOnly = true)
     public WarehouseListResponse getWarehouses(int page, int size, String search, String status, String sortBy,
-                                                String sortDir) {
+                                                String sortDir, String includeTotal) {
         Sort sort = sortDir.equalsIgnoreCase("desc")
                 ? Sort.by(sortBy).descending()
                 : Sort.by(sortBy).ascending();
 
         Pageable pageable = PageRequest.of(page, size, sort);
 
-        Page<Warehouse> warehousePage;
+        ListTotalMode totalMode = ListTotalMode.parse(includeTotal);
+
+        Slice<Warehouse> warehousePage;
 
         // Clean status
         String cleanStatus = (status != null && !status.trim().isEmpty()) ? status.trim() : null;
@@ -52,20 +58,28 @@ public class WarehouseService {
         else if (search != null && !search.trim().isEmpty()) {
             if (cleanStatus != null) {
                 // Case 1: Search + Status filter
-                warehousePage = warehouseRepository.searchWarehousesByStatus(cleanStatus, search.trim(), pageable);
+                warehousePage = totalMode == ListTotalMode.EXACT
+                        ? warehouseRepository.searchWarehousesByStatus(cleanStatus, search.trim(), pageable)
+                        : warehouseRepository.searchWarehousesByStatusSlice(cleanStatus, search.trim(), pageable);
             } else {
                 // Case 2: Search only
-                warehousePage = warehouseRepository.searchWarehouses(search.trim(), pageable);
+                warehousePage = totalMode == ListTotalMode.EXACT
+                        ? warehouseRepository.searchWarehouses(search.trim(), pageable)
+                        : warehouseRepository.searchWarehousesSlice(search.trim(), pageable);
             }
         }
         // No search term
         else {
             if (cleanStatus != null) {
                 // Case 3: Status filter only
-                warehousePage = warehouseRepository.findByStatus(cleanStatus, pageable);
+                warehousePage = totalMode == ListTotalMode.EXACT
+                        ? warehouseRepository.findByStatus(cleanStatus, pageable)
+                        : warehouseRepository.findSliceByStatus(cleanStatus, pageable);
             } else {
                 // Case 4: No filter (exclude DELETED)
-                warehousePage = warehouseRepository.findByStatusNot("DELETED", pageable);
+                warehousePage = totalMode == ListTotalMode.EXACT
+                        ? warehouseRepository.findByStatusNot("DELETED", pageable)
+                        : warehouseRepository.findSliceByStatusNot("DELETED", pageable);
             }
         }
 
@@ -75,12 +89,16 @@ public class WarehouseService {
                 .collect(Collectors.toList());
 
         // Build response
+        ListTotals.Totals totals = listTotals.resolve(warehousePage, totalMode, "warehouses",
+                cleanStatus != null || search != null && !search.trim().isEmpty());
+
         return WarehouseListResponse.builder()
                 .warehouses(warehouses)
-                .totalElements(warehousePage.getTotalElements())
-                .totalPages(warehousePage.getTotalPages())
+                .totalElements(totals.totalItems())
+                .totalPages(totals.totalPages())
                 .currentPage(warehousePage.getNumber())
                 .pageSize(warehousePage.getSize())
+                .hasNext(warehousePage.hasNext())
                 .build();
     }
 
@@ -167,7 +185,7 @@ public class WarehouseService {
         }
 
         // Check stock
-        if (warehouse.getStock() != null && warehouse.getStock() > 0) {
+        if (productStockRepository.hasStock(id)) {
             throw new ResponseStatusException(
                     HttpStatus.CONFLICT,
                     "Không thể xóa kho vì vẫn còn tồn hàng."
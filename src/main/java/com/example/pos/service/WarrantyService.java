@@ -11,6 +11,7 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -23,13 +24,16 @@ import java.util.stream.Collectors;
 public class WarrantyService {
 
     private final WarrantyRepository warrantyRepository;
+    private final ListTotals listTotals;
 
     @Transactional(readOnly = true)
-    public WarrantyListResponse getWarranties(int page, int size, String search, String status, String sortBy, String sortDir) {
+    public WarrantyListResponse getWarranties(int page, int size, String search, String status, String sortBy, String sortDir, String includeTotal) {
         Sort sort = sortDir.equalsIgnoreCase("desc") ? Sort.by(sortBy).descending() : Sort.by(sortBy).ascending();
         Pageable pageable = PageRequest.of(page, size, sort);
 
-        Page<Warranty> warrantyPage;
+        ListTotalMode totalMode = ListTotalMode.parse(includeTotal);
+
+        Slice<Warranty> warrantyPage;
 
         String cleanStatus = (status != null && !status.trim().isEmpty()) ? status.trim() : null;
 
@@ -37,15 +41,23 @@ public class WarrantyService {
             warrantyPage = Page.empty(pageable);
         } else if (search != null && !search.trim().isEmpty()) {
             if (cleanStatus != null) {
-                warrantyPage = warrantyRepository.searchWarrantiesByStatus(cleanStatus, search.trim(), pageable);
+                warrantyPage = totalMode == ListTotalMode.EXACT
+                        ? warrantyRepository.searchWarrantiesByStatus(cleanStatus, search.trim(), pageable)
+                        : warrantyRepository.searchWarrantiesByStatusSlice(cleanStatus, search.trim(), pageable);
             } else {
-                warrantyPage = warrantyRepository.searchWarranties(search.trim(), pageable);
+                warrantyPage = totalMode == ListTotalMode.EXACT
+                        ? warrantyRepository.searchWarranties(search.trim(), pageable)
+                        : warrantyRepository.searchWarrantiesSlice(search.trim(), pageable);
             }
         } else {
             if (cleanStatus != null) {
-                warrantyPage = warrantyRepository.findByStatus(cleanStatus, pageable);
+                warrantyPage = totalMode == ListTotalMode.EXACT
+                        ? warrantyRepository.findByStatus(cleanStatus, pageable)
+                        : warrantyRepository.findSliceByStatus(cleanStatus, pageable);
             } else {
-                warrantyPage = warrantyRepository.findByStatusNot("DELETED", pageable);
+                warrantyPage = totalMode == ListTotalMode.EXACT
+                        ? warrantyRepository.findByStatusNot("DELETED", pageable)
+                        : warrantyRepository.findSliceByStatusNot("DELETED", pageable);
             }
         }
 
@@ -53,11 +65,15 @@ public class WarrantyService {
                 .map(this::toDTO)
                 .collect(Collectors.toList());
 
+        ListTotals.Totals totals = listTotals.resolve(warrantyPage, totalMode, "warranties",
+                cleanStatus != null || search != null && !search.trim().isEmpty());
+
         return WarrantyListResponse.builder()
                 .warranties(warranties)
                 .currentPage(warrantyPage.getNumber())
-                .totalPages(warrantyPage.getTotalPages())
-                .totalItems(warrantyPage.getTotalElements())
+                .totalPages(totals.totalPages())
+                .totalItems(totals.totalItems())
+                .hasNext(warrantyPage.hasNext())
                 .build();
     }
 
@@ -0,0 +1,57 @@
+package com.example.pos.util;
+
+import com.example.pos.repository.TableStatsRepository;
+import com.example.pos.repository.TableStatsRepository.TableVersion;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.WebRequest;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * HTTP conditional GET for read endpoints. The ETag combines the latest updated_at of the tables a
+ * response is built from with their insert/update/delete counters, so If-None-Match is answered with
+ * 304 after one cheap query, before the response body is loaded or mapped.
+ * <p>
+ * No Last-Modified is sent: a timestamp cannot see a late commit carrying an older updated_at, or a
+ * delete. The counters can, about a second after commit; a revalidation inside that window may still
+ * get 304 for the previous state.
+ */
+@Component
+@RequiredArgsConstructor
+public class ConditionalGet {
+
+    private final TableStatsRepository tableStatsRepository;
+
+    public <T> ResponseEntity<T> respond(WebRequest request, List<String> tables, Supplier<T> body) {
+        return respond(request, tables, null, body);
+    }
+
+    /**
+     * As above, for responses that also show in-memory state: {@code alsoModified} is its latest change.
+     */
+    public <T> ResponseEntity<T> respond(WebRequest request, List<String> tables, LocalDateTime alsoModified,
+                                         Supplier<T> body) {
+        TableVersion version = tableStatsRepository.version(tables);
+        LocalDateTime modified = version.lastModified();
+        if (alsoModified != null && (modified == null || alsoModified.isAfter(modified))) {
+            modified = alsoModified;
+        }
+        long lastModified = modified != null ? modified.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli() : 0L;
+        String etag = "\"" + Long.toHexString(lastModified) + "-" + Long.toHexString(version.changes()) + "\"";
+        if (request.checkNotModified(etag)) {
+            // 304 with the ETag already set on the response
+            return null;
+        }
+        // no-cache: clients may store the response but must revalidate it on every use
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .eTag(etag)
+                .body(body.get());
+    }
+}
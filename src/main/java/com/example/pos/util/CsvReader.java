@@ -0,0 +1,112 @@
+package com.example.pos.util;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streaming RFC 4180 reader: comma separated, fields optionally enclosed in double quotes, embedded
+ * quotes doubled, and separators or line breaks allowed inside quoted fields. Records end with CRLF or LF.
+ * Only one record is held in memory at a time.
+ */
+public class CsvReader implements AutoCloseable {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final Reader in;
+    private final StringBuilder field = new StringBuilder();
+    private int pushedBack = -2;
+    private long recordNumber;
+    private boolean started;
+
+    public CsvReader(Reader reader) {
+        this.in = reader instanceof BufferedReader ? reader : new BufferedReader(reader, BUFFER_SIZE);
+    }
+
+    /**
+     * The next record, or null at end of input. A blank line is returned as a single empty field.
+     */
+    public List<String> next() throws IOException {
+        int c = read();
+        if (!started) {
+            started = true;
+            if (c == '\uFEFF') {
+                c = read();
+            }
+        }
+        if (c == -1) {
+            return null;
+        }
+        recordNumber++;
+        List<String> record = new ArrayList<>();
+        field.setLength(0);
+        boolean quoted = false;
+        boolean afterQuote = false;
+        while (true) {
+            if (quoted) {
+                if (c == -1) {
+                    throw new IOException("Unterminated quoted field in record " + recordNumber);
+                }
+                if (c == '"') {
+                    int following = read();
+                    if (following == '"') {
+                        field.append('"');
+                    } else {
+                        quoted = false;
+                        afterQuote = true;
+                        c = following;
+                        continue;
+                    }
+                } else {
+                    field.append((char) c);
+                }
+            } else if (c == ',') {
+                record.add(field.toString());
+                field.setLength(0);
+                afterQuote = false;
+            } else if (c == '\r' || c == '\n' || c == -1) {
+                if (c == '\r') {
+                    int following = read();
+                    if (following != '\n') {
+                        unread(following);
+                    }
+                }
+                record.add(field.toString());
+                return record;
+            } else if (c == '"' && field.length() == 0 && !afterQuote) {
+                quoted = true;
+            } else {
+                // Lenient: text after a closing quote or a stray quote is kept as-is
+                field.append((char) c);
+            }
+            c = read();
+        }
+    }
+
+    /**
+     * 1-based number of the record last returned by {@link #next()}.
+     */
+    public long getRecordNumber() {
+        return recordNumber;
+    }
+
+    private int read() throws IOException {
+        if (pushedBack != -2) {
+            int c = pushedBack;
+            pushedBack = -2;
+            return c;
+        }
+        return in.read();
+    }
+
+    private void unread(int c) {
+        pushedBack = c;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+}
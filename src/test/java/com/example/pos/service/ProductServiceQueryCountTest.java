@@ -0,0 +1,141 @@
+package com.example.pos.service;
+
+import com.example.pos.dto.ProductDTO;
+import com.example.pos.dto.ProductListResponse;
+import com.example.pos.entity.*;
+import com.example.pos.repository.*;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+// The catalog index only sees committed rows, and these tests roll back, so the database path is measured.
+// Hibernate statistics do not see JdbcTemplate statements; the warehouse count is a @Formula in the entity select,
+// so none run on these paths.
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "app.catalog-index.enabled=false"
+})
+@Transactional
+class ProductServiceQueryCountTest {
+
+    private static final int PRODUCTS = 5;
+
+    @Autowired private ProductService productService;
+    @Autowired private ProductRepository productRepository;
+    @Autowired private UnitRepository unitRepository;
+    @Autowired private CategoryRepository categoryRepository;
+    @Autowired private BrandRepository brandRepository;
+    @Autowired private StoreRepository storeRepository;
+    @Autowired private WarehouseRepository warehouseRepository;
+    @Autowired private UserRepository userRepository;
+    @Autowired private EntityManager entityManager;
+    @Autowired private EntityManagerFactory entityManagerFactory;
+
+    private Integer warehouseId;
+    private Integer firstProductId;
+
+    @BeforeEach
+    void seed() {
+        // Short enough for units.short_name (10) and products.sku (20)
+        String suffix = String.valueOf(System.nanoTime() % 100_000_000);
+        Unit unit = unitRepository.save(Unit.builder().name("Unit " + suffix).shortName("u" + suffix).build());
+        Category category = categoryRepository.save(Category.builder().name("Category " + suffix).slug("category-" + suffix).build());
+        Brand brand = brandRepository.save(Brand.builder().name("Brand " + suffix).build());
+        User user = userRepository.save(User.builder().name("User " + suffix).email(suffix + "@test.local").build());
+        Warehouse warehouse = warehouseRepository.save(Warehouse.builder().name("Warehouse " + suffix).build());
+        Store store = storeRepository.save(Store.builder().name("Store " + suffix).email("store" + suffix + "@test.local")
+                .warehouseId(warehouse.getId()).build());
+        warehouseId = warehouse.getId();
+
+        for (int i = 0; i < PRODUCTS; i++) {
+            Product product = productRepository.save(Product.builder()
+                    .sku("SKU-" + suffix + "-" + i)
+                    .name("Product " + suffix + " " + i)
+                    .slug("product-" + suffix + "-" + i)
+                    .price(BigDecimal.TEN)
+                    .quantity(1)
+                    .qtyAlert(5)
+                    .expiredDate(LocalDate.now().minusDays(1))
+                    .unitId(unit.getId())
+                    .categoryId(category.getId())
+                    .brandId(brand.getId())
+                    .storeId(store.getId())
+                    .warehouseId(warehouse.getId())
+                    .createdBy(user.getId())
+                    .build());
+            if (firstProductId == null) {
+                firstProductId = product.getId();
+            }
+        }
+        // Start every request from an empty persistence context so lazy relations are not already loaded
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void productListUsesOneSelectPlusCount() {
+        Statistics stats = statistics();
+        ProductListResponse response = productService.getProducts(0, PRODUCTS, null, "contains", null, null, null,
+                null, null, null, warehouseId, null, null, "createdAt", "desc", null, "exact");
+
+        assertEquals(PRODUCTS, response.getProducts().size());
+        assertNotNull(response.getProducts().get(0).getWarehouseName());
+        assertEquals(2, stats.getPrepareStatementCount());
+    }
+
+    @Test
+    void productListWithoutTotalsUsesOneSelect() {
+        Statistics stats = statistics();
+        productService.getProducts(0, PRODUCTS, null, "contains", null, null, null,
+                null, null, null, warehouseId, null, null, "createdAt", "desc", null, "false");
+
+        assertEquals(1, stats.getPrepareStatementCount());
+    }
+
+    @Test
+    void cursorPageUsesOneSelect() {
+        Statistics stats = statistics();
+        productService.getProducts(0, PRODUCTS, null, "contains", null, null, null,
+                null, null, null, warehouseId, null, null, "createdAt", "desc", "", "exact");
+
+        assertEquals(1, stats.getPrepareStatementCount());
+    }
+
+    @Test
+    void lowStockAndExpiredListsUseOneSelectPlusCount() {
+        Statistics stats = statistics();
+        productService.getLowStocks(0, PRODUCTS, null, null, "quantity", "asc", "exact");
+        assertEquals(2, stats.getPrepareStatementCount());
+
+        stats.clear();
+        productService.getExpiredProducts(0, PRODUCTS, "expiredDate", "asc", "exact");
+        assertEquals(2, stats.getPrepareStatementCount());
+    }
+
+    @Test
+    void productDetailUsesOneSelect() {
+        Statistics stats = statistics();
+        ProductDTO product = productService.getProductById(firstProductId);
+
+        assertEquals(0, product.getWarehouseCount());
+        assertEquals(1, stats.getPrepareStatementCount());
+    }
+
+    private Statistics statistics() {
+        Statistics stats = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        stats.clear();
+        return stats;
+    }
+}
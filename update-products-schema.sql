@@ -61,4 +61,160 @@ END $$;
 CREATE INDEX IF NOT EXISTS idx_products_category_id ON products(category_id);
 CREATE INDEX IF NOT EXISTS idx_products_brand_id ON products(brand_id);
 CREATE INDEX IF NOT EXISTS idx_products_store_id ON products(store_id);
-CREATE INDEX IF NOT EXISTS idx_products_warehouse_id ON products(warehouse_id);
\ No newline at end of file
+CREATE INDEX IF NOT EXISTS idx_products_warehouse_id ON products(warehouse_id);
+
+-- Trigram product search (GET /api/products?searchMode=fuzzy)
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+ALTER TABLE products ADD COLUMN IF NOT EXISTS search_text TEXT
+    GENERATED ALWAYS AS (LOWER(COALESCE(name, '') || ' ' || COALESCE(sku, '') || ' ' || COALESCE(item_code, ''))) STORED;
+CREATE INDEX IF NOT EXISTS idx_products_search_text_trgm ON products USING gin (search_text gin_trgm_ops);
+
+-- Keyset pagination (GET /api/products?cursor=...): seek on (sort key, id)
+-- Timestamp sort keys must be non-null for the (sort key, id) row comparison
+UPDATE products SET created_at = COALESCE(created_at, updated_at, CURRENT_TIMESTAMP) WHERE created_at IS NULL;
+UPDATE products SET updated_at = created_at WHERE updated_at IS NULL;
+ALTER TABLE products ALTER COLUMN created_at SET NOT NULL;
+ALTER TABLE products ALTER COLUMN updated_at SET NOT NULL;
+CREATE INDEX IF NOT EXISTS idx_products_created_at_id ON products(created_at, id);
+CREATE INDEX IF NOT EXISTS idx_products_updated_at_id ON products(updated_at, id);
+CREATE INDEX IF NOT EXISTS idx_products_name_id ON products(name, id);
+CREATE INDEX IF NOT EXISTS idx_products_price_id ON products(price, id);
+
+-- Scan lookup (GET /api/products/by-code/{code}); sku and item_code already have unique indexes.
+-- Hash rather than unique: duplicated products may legitimately share a barcode.
+CREATE INDEX IF NOT EXISTS idx_products_barcode_value ON products USING hash (barcode_value);
+
+-- HTTP conditional GET: every table behind a cached list carries updated_at (set by @UpdateTimestamp)
+ALTER TABLE categories ADD COLUMN IF NOT EXISTS updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP;
+ALTER TABLE sub_categories ADD COLUMN IF NOT EXISTS updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP;
+ALTER TABLE brands ADD COLUMN IF NOT EXISTS updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP;
+ALTER TABLE units ADD COLUMN IF NOT EXISTS updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP;
+ALTER TABLE warehouses ADD COLUMN IF NOT EXISTS updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP;
+ALTER TABLE variant_attributes ADD COLUMN IF NOT EXISTS updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP;
+ALTER TABLE warranties ADD COLUMN IF NOT EXISTS updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP;
+-- max(updated_at) on the large tables reads the last index entry
+CREATE INDEX IF NOT EXISTS idx_users_updated_at ON users(updated_at);
+
+-- Background product imports (checkpointed per committed chunk)
+CREATE TABLE IF NOT EXISTS product_import_jobs (
+    id SERIAL PRIMARY KEY,
+    status VARCHAR(20) NOT NULL DEFAULT 'QUEUED',
+    file_name VARCHAR(255),
+    spool_path VARCHAR(500) NOT NULL,
+    created_by INTEGER,
+    total_rows BIGINT,
+    checkpoint_row BIGINT NOT NULL DEFAULT 0,
+    rows_done BIGINT NOT NULL DEFAULT 0,
+    imported BIGINT NOT NULL DEFAULT 0,
+    failed BIGINT NOT NULL DEFAULT 0,
+    processing_millis BIGINT NOT NULL DEFAULT 0,
+    errors TEXT,
+    message VARCHAR(500),
+    started_at TIMESTAMP,
+    finished_at TIMESTAMP,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
+CREATE INDEX IF NOT EXISTS idx_product_import_jobs_status ON product_import_jobs(status);
+
+-- Parallel product imports: rows are partitioned by store and warehouse, and each partition keeps its own checkpoint
+ALTER TABLE product_import_jobs ADD COLUMN IF NOT EXISTS partitions INTEGER;
+ALTER TABLE product_import_jobs DROP COLUMN IF EXISTS checkpoint_row;
+ALTER TABLE product_import_jobs DROP COLUMN IF EXISTS errors;
+CREATE TABLE IF NOT EXISTS product_import_checkpoints (
+    job_id INTEGER NOT NULL REFERENCES product_import_jobs(id) ON DELETE CASCADE,
+    partition_no INTEGER NOT NULL,
+    checkpoint_row BIGINT NOT NULL,
+    PRIMARY KEY (job_id, partition_no)
+);
+CREATE TABLE IF NOT EXISTS product_import_job_errors (
+    id BIGSERIAL PRIMARY KEY,
+    job_id INTEGER NOT NULL REFERENCES product_import_jobs(id) ON DELETE CASCADE,
+    partition_no INTEGER NOT NULL,
+    row_no BIGINT NOT NULL,
+    message VARCHAR(500) NOT NULL
+);
+CREATE INDEX IF NOT EXISTS idx_product_import_job_errors_job_row ON product_import_job_errors(job_id, row_no);
+
+-- Import job ownership: the instance holding the spool file, and the lease it renews while the job is live
+ALTER TABLE product_import_jobs ADD COLUMN IF NOT EXISTS owner VARCHAR(100);
+ALTER TABLE product_import_jobs ADD COLUMN IF NOT EXISTS lease_expires_at TIMESTAMP;
+
+-- Numbers for the codes of duplicated products (POST /api/products/{id}/duplicate)
+CREATE SEQUENCE IF NOT EXISTS product_code_seq;
+
+-- Append-only stock ledger; products.quantity changes only as quantity = quantity + delta alongside it
+CREATE TABLE IF NOT EXISTS stock_movements (
+    id BIGSERIAL PRIMARY KEY,
+    product_id INTEGER NOT NULL REFERENCES products(id),
+    warehouse_id INTEGER,
+    store_id INTEGER,
+    movement_type VARCHAR(20) NOT NULL,
+    quantity INTEGER NOT NULL,
+    quantity_after INTEGER NOT NULL,
+    reference VARCHAR(100),
+    note VARCHAR(255),
+    created_by INTEGER,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+CREATE INDEX IF NOT EXISTS idx_stock_movements_product ON stock_movements(product_id, id);
+CREATE INDEX IF NOT EXISTS idx_stock_movements_warehouse ON stock_movements(warehouse_id, id);
+
+-- Expiry tracking: upcoming expiries in date order for the expiring-soon queries and the daily sweep
+CREATE INDEX IF NOT EXISTS idx_products_expiry ON products(expired_date, id)
+    WHERE status <> 'DELETED' AND expired_date IS NOT NULL;
+-- Set by the expiry sweep; a product is swept again only after its expiry date moves past this
+ALTER TABLE products ADD COLUMN IF NOT EXISTS expiry_swept_at TIMESTAMP;
+
+-- Stock reservations of in-progress carts: a write-behind copy of the in-memory reservations, reloaded on startup
+CREATE TABLE IF NOT EXISTS stock_reservations (
+    id UUID PRIMARY KEY,
+    product_id INTEGER NOT NULL REFERENCES products(id),
+    quantity INTEGER NOT NULL,
+    reference VARCHAR(100),
+    created_by INTEGER,
+    created_at TIMESTAMP NOT NULL,
+    expires_at TIMESTAMP NOT NULL
+);
+
+-- Stock per product and warehouse; the rows of a product add up to products.quantity. Both indexes cover
+-- quantity and reserved, so "a product everywhere" and "a warehouse's stock" are index-only range scans.
+CREATE TABLE IF NOT EXISTS product_stock (
+    product_id INTEGER NOT NULL REFERENCES products(id),
+    warehouse_id INTEGER NOT NULL REFERENCES warehouses(id),
+    quantity INTEGER NOT NULL DEFAULT 0,
+    reserved INTEGER NOT NULL DEFAULT 0,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (product_id, warehouse_id) INCLUDE (quantity, reserved)
+);
+CREATE INDEX IF NOT EXISTS idx_product_stock_warehouse ON product_stock(warehouse_id, product_id) INCLUDE (quantity, reserved);
+-- Existing products start with all their stock in their own warehouse
+INSERT INTO product_stock (product_id, warehouse_id, quantity)
+SELECT id, warehouse_id, quantity FROM products WHERE warehouse_id IS NOT NULL AND quantity IS NOT NULL
+ON CONFLICT (product_id, warehouse_id) DO NOTHING;
+
+-- Stock transfer documents between warehouses; large ones are applied a chunk of lines per transaction
+CREATE TABLE IF NOT EXISTS stock_transfers (
+    id SERIAL PRIMARY KEY,
+    source_warehouse_id INTEGER NOT NULL REFERENCES warehouses(id),
+    destination_warehouse_id INTEGER NOT NULL REFERENCES warehouses(id),
+    reference VARCHAR(100),
+    note VARCHAR(255),
+    status VARCHAR(20) NOT NULL DEFAULT 'QUEUED',
+    total_lines INTEGER NOT NULL,
+    lines_done INTEGER NOT NULL DEFAULT 0,
+    message VARCHAR(500),
+    created_by INTEGER,
+    started_at TIMESTAMP,
+    finished_at TIMESTAMP,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
+CREATE INDEX IF NOT EXISTS idx_stock_transfers_status ON stock_transfers(status);
+CREATE TABLE IF NOT EXISTS stock_transfer_lines (
+    transfer_id INTEGER NOT NULL REFERENCES stock_transfers(id) ON DELETE CASCADE,
+    line_no INTEGER NOT NULL,
+    product_id INTEGER NOT NULL REFERENCES products(id),
+    quantity INTEGER NOT NULL,
+    PRIMARY KEY (transfer_id, line_no)
+);